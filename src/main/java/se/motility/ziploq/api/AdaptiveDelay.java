@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+/**
+ * Configuration of an adaptive business delay for unordered input sources.
+ * <p>
+ * Rather than using a fixed business delay, the lateness of each incoming message
+ * (compared to the highest business timestamp seen so far from the same source) is
+ * recorded. The effective business delay is then periodically shrunk towards the
+ * configured percentile of observed lateness plus a safety margin. If a message arrives
+ * later than the current effective delay, the delay grows immediately. The effective
+ * delay always stays within {@code [minDelay, maxDelay]}, starting out at {@code maxDelay}.
+ * <p>
+ * The current effective delay can be retrieved using {@link SynchronizedConsumer#getBusinessDelay()}.
+ *
+ * @author M Tegling
+ * @see ZipFlow#registerUnordered(AdaptiveDelay, int, BackPressureStrategy, String, java.util.Comparator)
+ */
+public final class AdaptiveDelay {
+
+    private final long minDelay;
+    private final long maxDelay;
+    private final double percentile;
+    private final long margin;
+
+    /**
+     * Creates a new adaptive business delay configuration
+     * @param minDelay lower bound of the effective business delay. Must be non-negative.
+     * @param maxDelay upper bound of the effective business delay. Must not be lower than
+     * {@code minDelay}, nor greater than the system delay of the source.
+     * @param percentile of observed lateness to shrink the effective delay towards; in the
+     * range (0, 1], e.g. 0.999
+     * @param margin added on top of the observed lateness percentile. Must be non-negative.
+     * @return a new {@code AdaptiveDelay}
+     */
+    public static AdaptiveDelay create(long minDelay, long maxDelay, double percentile, long margin) {
+        if (minDelay < 0 || maxDelay < minDelay) {
+            throw new IllegalArgumentException("Delay bounds must satisfy 0 <= minDelay <= maxDelay. "
+                    + "Provided values were " + minDelay + " and " + maxDelay);
+        }
+        if (!(percentile > 0.0 && percentile <= 1.0)) {
+            throw new IllegalArgumentException("Percentile must be in the range (0, 1]. Provided value was "
+                    + percentile);
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("Margin must be non-negative. Provided value was " + margin);
+        }
+        return new AdaptiveDelay(minDelay, maxDelay, percentile, margin);
+    }
+
+    private AdaptiveDelay(long minDelay, long maxDelay, double percentile, long margin) {
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.percentile = percentile;
+        this.margin = margin;
+    }
+
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMargin() {
+        return margin;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveDelay [minDelay=" + minDelay + ", maxDelay=" + maxDelay
+                + ", percentile=" + percentile + ", margin=" + margin + "]";
+    }
+
+}
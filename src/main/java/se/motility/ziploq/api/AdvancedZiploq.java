@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019 Måns Tegling
+ * Copyright (c) 2019-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -48,6 +48,29 @@ public final class AdvancedZiploq {
     }
     
     
+    /**
+     * Similar to {@link Ziploq#stream} with the difference that entries are released
+     * according to their business timestamps, as scheduled by the provided {@link Pacer}.
+     * Use this for e.g. backtesting and replay of historical data at real time or at a
+     * different speed.
+     * @param ziploq to stream sequenced entries from
+     * @param pacer scheduling the release of entries; must not be shared with other streams
+     * @param <E> message type
+     * @return {@code Stream} consisting of synchronized messages, released according to
+     * business time
+     * @throws RuntimeInterruptedException if thread is interrupted during wait
+     */
+    public static <E> Stream<Entry<E>> pacedStream(Ziploq<E> ziploq, Pacer pacer) {
+        Entry<E> end = Ziploq.getEndSignal();
+        return Splitr.stream(() -> {
+            Entry<E> entry = ziploq.take();
+            if (entry != end) {
+                pacer.await(entry.getBusinessTs());
+            }
+            return entry;
+        }, end, ziploq.getComparator());
+    }
+    
     private static <T> void transfer(Ziploq<T> ziploq, SyncQueue<T> buffer) {
         try {
             Entry<T> entry;
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+/**
+ * Logical input source fed by several redundant <i>lines</i> publishing the same sequenced
+ * messages, e.g. the A and B lines of an exchange feed.
+ * <p>
+ * Each line has its own {@link SynchronizedConsumer}, to be fed by its own Producer thread.
+ * The first arrival of each sequence number is forwarded to the {@link Ziploq}; later
+ * arrivals of the same (or a lower) sequence number are discarded on the Producer side, by
+ * a single volatile read of the highest sequence number forwarded. Forwarding is
+ * serialized between lines, so messages enter the {@code Ziploq} in sequence number order.
+ * <p>
+ * Each line must deliver messages in sequence number order, in non-decreasing business
+ * time order. Sequence numbers may have gaps. A gap on one line is filled by another line
+ * only if that line delivers the missing message before a higher sequence number has been
+ * forwarded; otherwise the message would be out of sequence and is discarded. Calls to
+ * {@link SynchronizedConsumer#advanceBusinessTime} are only forwarded up to the lowest
+ * business time of all lines that haven't completed, since a lagging line may still hold
+ * messages not yet forwarded. The source completes when all lines have completed.
+ * <p>
+ * The number of messages won by each line is a measure of relative line latency.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see Ziploq#registerArbitrated
+ */
+public interface ArbitratedFeed<E> {
+
+    /**
+     * Returns the consumer of the provided line. Each line is single-thread access only.
+     * @param line index, from 0 (inclusive) to {@link #getLines()} (exclusive)
+     * @return consumer of the line
+     */
+    SynchronizedConsumer<E> getLine(int line);
+
+    /**
+     * Returns the number of redundant lines
+     * @return the number of lines
+     */
+    int getLines();
+
+    /**
+     * Returns the number of messages forwarded from the provided line, i.e. the number of
+     * sequence numbers first received on that line
+     * @param line index
+     * @return the number of messages won by the line
+     */
+    long getWinCount(int line);
+
+    /**
+     * Returns the number of duplicate messages discarded from the provided line
+     * @param line index
+     * @return the number of messages discarded from the line
+     */
+    long getDuplicateCount(int line);
+
+    /**
+     * Returns the highest sequence number forwarded, or {@code Long.MIN_VALUE} if none
+     * @return the highest sequence number forwarded
+     */
+    long getSequence();
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+/**
+ * {@link ArbitratedFeed} of a {@link ZipFlow}, whose lines also carry system time.
+ * <p>
+ * The system time of the source is the highest system time of all lines, as a single
+ * healthy line is enough for the source to progress. Duplicates and calls to
+ * {@link FlowConsumer#updateSystemTime} advance system time like forwarded messages do.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see ZipFlow#registerArbitrated
+ */
+public interface ArbitratedFlow<E> extends ArbitratedFeed<E> {
+
+    /**
+     * Returns the consumer of the provided line. Each line is single-thread access only.
+     * @param line index, from 0 (inclusive) to {@link #getLines()} (exclusive)
+     * @return consumer of the line
+     */
+    @Override
+    FlowConsumer<E> getLine(int line);
+
+}
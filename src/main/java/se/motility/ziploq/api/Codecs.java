@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Built-in {@link MessageCodec}s and {@link EntryCodec}s.
+ * <p>
+ * Message codecs are stateless and may be shared. Variable-length values, such as the length
+ * of a {@code byte[]} or {@code String}, use unsigned LEB128 varints: 7 bits per byte, least
+ * significant group first, the high bit set on all but the last byte.
+ *
+ * @author M Tegling
+ */
+public final class Codecs {
+
+    /** Encodes {@code Long} as 8 bytes */
+    public static final MessageCodec<Long> LONG = new MessageCodec<Long>() {
+        @Override
+        public void encode(Long message, ByteBuffer buffer) {
+            buffer.putLong(message);
+        }
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /** Encodes {@code Integer} as 4 bytes */
+    public static final MessageCodec<Integer> INT = new MessageCodec<Integer>() {
+        @Override
+        public void encode(Integer message, ByteBuffer buffer) {
+            buffer.putInt(message);
+        }
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    /** Encodes {@code Short} as 2 bytes */
+    public static final MessageCodec<Short> SHORT = new MessageCodec<Short>() {
+        @Override
+        public void encode(Short message, ByteBuffer buffer) {
+            buffer.putShort(message);
+        }
+        @Override
+        public Short decode(ByteBuffer buffer) {
+            return buffer.getShort();
+        }
+    };
+
+    /** Encodes {@code Byte} as 1 byte */
+    public static final MessageCodec<Byte> BYTE = new MessageCodec<Byte>() {
+        @Override
+        public void encode(Byte message, ByteBuffer buffer) {
+            buffer.put(message);
+        }
+        @Override
+        public Byte decode(ByteBuffer buffer) {
+            return buffer.get();
+        }
+    };
+
+    /** Encodes {@code Character} as 2 bytes */
+    public static final MessageCodec<Character> CHAR = new MessageCodec<Character>() {
+        @Override
+        public void encode(Character message, ByteBuffer buffer) {
+            buffer.putChar(message);
+        }
+        @Override
+        public Character decode(ByteBuffer buffer) {
+            return buffer.getChar();
+        }
+    };
+
+    /** Encodes {@code Boolean} as 1 byte */
+    public static final MessageCodec<Boolean> BOOLEAN = new MessageCodec<Boolean>() {
+        @Override
+        public void encode(Boolean message, ByteBuffer buffer) {
+            buffer.put(message ? (byte) 1 : (byte) 0);
+        }
+        @Override
+        public Boolean decode(ByteBuffer buffer) {
+            return buffer.get() != 0;
+        }
+    };
+
+    /** Encodes {@code Double} as 8 bytes */
+    public static final MessageCodec<Double> DOUBLE = new MessageCodec<Double>() {
+        @Override
+        public void encode(Double message, ByteBuffer buffer) {
+            buffer.putDouble(message);
+        }
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /** Encodes {@code Float} as 4 bytes */
+    public static final MessageCodec<Float> FLOAT = new MessageCodec<Float>() {
+        @Override
+        public void encode(Float message, ByteBuffer buffer) {
+            buffer.putFloat(message);
+        }
+        @Override
+        public Float decode(ByteBuffer buffer) {
+            return buffer.getFloat();
+        }
+    };
+
+    /** Encodes {@code byte[]} as a varint length followed by the bytes */
+    public static final MessageCodec<byte[]> BYTES = new MessageCodec<byte[]>() {
+        @Override
+        public void encode(byte[] message, ByteBuffer buffer) {
+            putVarLong(buffer, message.length);
+            buffer.put(message);
+        }
+        @Override
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] message = new byte[getVarInt(buffer)];
+            buffer.get(message);
+            return message;
+        }
+    };
+
+    /**
+     * Encodes {@code String} as a varint length followed by its UTF-8 bytes. ASCII strings
+     * are encoded without allocating.
+     */
+    public static final MessageCodec<String> STRING = new MessageCodec<String>() {
+        @Override
+        public void encode(String message, ByteBuffer buffer) {
+            int length = message.length();
+            if (isAscii(message)) {
+                putVarLong(buffer, length);
+                if (buffer.remaining() < length) {
+                    throw new BufferOverflowException();
+                }
+                for (int i = 0; i < length; i++) {
+                    buffer.put((byte) message.charAt(i));
+                }
+            } else {
+                BYTES.encode(message.getBytes(StandardCharsets.UTF_8), buffer);
+            }
+        }
+        @Override
+        public String decode(ByteBuffer buffer) {
+            int length = getVarInt(buffer);
+            if (buffer.hasArray()) {
+                int offset = buffer.arrayOffset() + buffer.position();
+                if (buffer.remaining() < length) {
+                    throw new BufferUnderflowException();
+                }
+                String message = new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+                ((Buffer) buffer).position(buffer.position() + length); //Buffer methods, for Java 8 compatibility
+                return message;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Returns a stateless entry codec writing a fixed-size header of 21 bytes: business and
+     * system timestamps as 8 bytes each, the source id as 4 bytes and the late flag as 1 byte,
+     * followed by the message
+     * @param messageCodec encoding messages
+     * @param <T> message type
+     * @return entry codec; may be shared
+     */
+    public static <T> EntryCodec<T> entries(MessageCodec<T> messageCodec) {
+        if (messageCodec == null) {
+            throw new IllegalArgumentException("Argument 'messageCodec' must not be null.");
+        }
+        return new FixedEntryCodec<>(messageCodec);
+    }
+
+    /**
+     * Returns an entry codec writing business and system timestamps as zigzag varint deltas
+     * to the previous entry, and the source id and late flag as one varint, followed by the
+     * message. Sequenced output typically has small, non-negative timestamp deltas, making
+     * the header 3-6 bytes rather than 21.
+     * <p>
+     * The codec is stateful: entries must be decoded in the order they were encoded, by a
+     * codec that has decoded all previous entries of the stream. Use one instance per stream
+     * and direction, and {@link EntryCodec#reset() reset} it at the start of each stream.
+     * @param messageCodec encoding messages
+     * @param <T> message type
+     * @return entry codec; not thread-safe
+     */
+    public static <T> EntryCodec<T> deltaEntries(MessageCodec<T> messageCodec) {
+        if (messageCodec == null) {
+            throw new IllegalArgumentException("Argument 'messageCodec' must not be null.");
+        }
+        return new DeltaEntryCodec<>(messageCodec);
+    }
+
+    /**
+     * Writes an unsigned varint of 1-10 bytes
+     * @param buffer to write to
+     * @param value to write; negative values take 10 bytes
+     * @throws BufferOverflowException if the buffer has insufficient space remaining
+     */
+    public static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint
+     * @param buffer to read from
+     * @return value read
+     * @throws IllegalArgumentException if the varint is longer than 10 bytes
+     */
+    public static long getVarLong(ByteBuffer buffer) {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at position " + buffer.position());
+    }
+
+    /**
+     * Maps signed values to unsigned ones, so that values close to zero have short varints
+     * @param value to map
+     * @return zigzag-encoded value
+     */
+    public static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}
+     * @param value zigzag-encoded value
+     * @return original value
+     */
+    public static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        long value = getVarLong(buffer);
+        if (value < 0L || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length " + value + " at position " + buffer.position());
+        }
+        return (int) value;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class FixedEntryCodec<T> implements EntryCodec<T> {
+
+        private final MessageCodec<T> messageCodec;
+
+        private FixedEntryCodec(MessageCodec<T> messageCodec) {
+            this.messageCodec = messageCodec;
+        }
+
+        @Override
+        public void encode(Entry<? extends T> entry, ByteBuffer buffer) {
+            buffer.putLong(entry.getBusinessTs());
+            buffer.putLong(entry.getSystemTs());
+            buffer.putInt(entry.getSourceId());
+            buffer.put(entry.isLate() ? (byte) 1 : (byte) 0);
+            messageCodec.encode(entry.getMessage(), buffer);
+        }
+
+        @Override
+        public Entry<T> decode(ByteBuffer buffer) {
+            long businessTs = buffer.getLong();
+            long systemTs = buffer.getLong();
+            int sourceId = buffer.getInt();
+            boolean late = buffer.get() != 0;
+            return new DecodedEntry<>(messageCodec.decode(buffer), businessTs, systemTs, sourceId, late);
+        }
+    }
+
+    private static final class DeltaEntryCodec<T> implements EntryCodec<T> {
+
+        private final MessageCodec<T> messageCodec;
+
+        private long encodedBusinessTs;
+        private long encodedSystemTs;
+        private long decodedBusinessTs;
+        private long decodedSystemTs;
+
+        private DeltaEntryCodec(MessageCodec<T> messageCodec) {
+            this.messageCodec = messageCodec;
+        }
+
+        @Override
+        public void encode(Entry<? extends T> entry, ByteBuffer buffer) {
+            long businessTs = entry.getBusinessTs();
+            long systemTs = entry.getSystemTs();
+            putVarLong(buffer, zigzag(businessTs - encodedBusinessTs));
+            putVarLong(buffer, zigzag(systemTs - encodedSystemTs));
+            putVarLong(buffer, zigzag(entry.getSourceId()) << 1 | (entry.isLate() ? 1L : 0L));
+            messageCodec.encode(entry.getMessage(), buffer);
+            encodedBusinessTs = businessTs; //updated once encoded successfully
+            encodedSystemTs = systemTs;
+        }
+
+        @Override
+        public Entry<T> decode(ByteBuffer buffer) {
+            long businessTs = decodedBusinessTs + unzigzag(getVarLong(buffer));
+            long systemTs = decodedSystemTs + unzigzag(getVarLong(buffer));
+            long source = getVarLong(buffer);
+            T message = messageCodec.decode(buffer);
+            decodedBusinessTs = businessTs;
+            decodedSystemTs = systemTs;
+            return new DecodedEntry<>(message, businessTs, systemTs, (int) unzigzag(source >>> 1), (source & 1L) != 0L);
+        }
+
+        @Override
+        public void reset() {
+            encodedBusinessTs = 0L;
+            encodedSystemTs = 0L;
+            decodedBusinessTs = 0L;
+            decodedSystemTs = 0L;
+        }
+    }
+
+    private static final class DecodedEntry<T> implements Entry<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final T message;
+        private final long businessTs;
+        private final long systemTs;
+        private final int sourceId;
+        private final boolean late;
+
+        private DecodedEntry(T message, long businessTs, long systemTs, int sourceId, boolean late) {
+            this.message = message;
+            this.businessTs = businessTs;
+            this.systemTs = systemTs;
+            this.sourceId = sourceId;
+            this.late = late;
+        }
+
+        @Override
+        public T getMessage() {
+            return message;
+        }
+
+        @Override
+        public long getBusinessTs() {
+            return businessTs;
+        }
+
+        @Override
+        public long getSystemTs() {
+            return systemTs;
+        }
+
+        @Override
+        public int getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public boolean isLate() {
+            return late;
+        }
+
+        @Override
+        public String toString() {
+            return "businessTs: " + businessTs +
+                   ", systemTs: " + systemTs +
+                   ", sourceId: " + sourceId +
+                   (late ? ", late" : "") +
+                   ", message: " + message;
+        }
+    }
+
+    private Codecs() {
+        throw new UnsupportedOperationException("Invalid instantiation of utility class");
+    }
+
+}
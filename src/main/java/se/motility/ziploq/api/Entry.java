@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -12,7 +12,8 @@ import java.io.Serializable;
  * and <i>system timestamp</i>.
  * <p>
  * <i>Warning:</i> The {@code Entry} objects will only be {@code Serializable}
- * if type {@code T} is {@code Serializable}.
+ * if type {@code T} is {@code Serializable}. For a compact binary encoding, e.g. for
+ * journaling or networking, use an {@link EntryCodec} instead.
  * 
  * @author M Tegling
  *
@@ -38,4 +39,22 @@ public interface Entry<T> extends Serializable {
      */
     long getSystemTs();
     
+    /**
+     * Returns whether this entry was emitted out of sequence and flagged as late.
+     * See {@link LateDataPolicy#flag()}.
+     * @return {@code true} if this entry has been flagged as late
+     */
+    default boolean isLate() {
+        return false;
+    }
+    
+    /**
+     * Returns the id of the input source this entry originates from. Sources registered with
+     * a {@link Ziploq} get ids 0, 1, 2, ... in order of registration.
+     * @return id of the input source, or -1 if unknown
+     */
+    default int getSourceId() {
+        return -1;
+    }
+    
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of entries, including business and system timestamps, source id and late
+ * flag, e.g. for writing the sequenced output to a file or a socket. An alternative to Java
+ * serialization of {@link Entry}, which is slow and allocates heavily.
+ * <p>
+ * Built-in implementations are available from {@link Codecs#entries(MessageCodec)}, using a
+ * fixed-size header, and {@link Codecs#deltaEntries(MessageCodec)}, encoding timestamps as
+ * variable-length deltas to the previous entry.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ * @see MessageCodec
+ */
+public interface EntryCodec<T> {
+
+    /**
+     * Encodes the entry into the buffer, advancing its position. If the buffer has insufficient
+     * space remaining, the codec's state is left unchanged, so the entry can be encoded into
+     * another buffer.
+     * @param entry to encode
+     * @param buffer to write to
+     * @throws BufferOverflowException if the buffer has insufficient space remaining
+     */
+    void encode(Entry<? extends T> entry, ByteBuffer buffer);
+
+    /**
+     * Decodes an entry from the buffer, advancing its position
+     * @param buffer to read from
+     * @return decoded entry
+     */
+    Entry<T> decode(ByteBuffer buffer);
+
+    /**
+     * Resets any state kept between entries, e.g. at the start of a new file or connection.
+     * Stateless codecs do nothing.
+     */
+    default void reset() {
+        //stateless
+    }
+
+}
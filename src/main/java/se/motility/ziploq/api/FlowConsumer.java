@@ -1,10 +1,12 @@
 /*
- * Copyright (c) 2019 Måns Tegling
+ * Copyright (c) 2019-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.api;
 
+import java.util.List;
+
 /**
  * Consumer associated with a {@link ZipFlow}. Submit messages from an 
  * input source to this consumer to synchronize with messages from other sources.
@@ -52,6 +54,44 @@ public interface FlowConsumer<E> extends SynchronizedConsumer<E> {
      * @throws IllegalStateException if called after {@link #complete} has been called
      */
     boolean onEvent(E message, long businessTs, long systemTs);
+    
+    /**
+     * Submits the provided batch of messages to the {@code ZipFlow} machinery
+     * <p>
+     * Only considers the associated business timestamps and, hence, doesn't progress
+     * the input source's system timestamp.
+     * <p>
+     * This is the same as calling {@link #onEvents(List, long[], long[])} with all
+     * system timestamps set to the system timestamp of the previous update.
+     */
+    @Override
+    boolean onEvents(List<? extends E> messages, long[] businessTs);
+    
+    /**
+     * Submits the provided batch of messages to the {@code ZipFlow} machinery.
+     * <p>
+     * This has the same effect as calling {@link #onEvent(Object, long, long)} for each message
+     * in order, but messages are enqueued using a single bulk operation and the system clock is
+     * only published once per batch, using the last system timestamp of the batch.
+     * <p>
+     * If the underlying queue cannot fit the whole batch, the thread may either <i>block</i>
+     * until all messages have been enqueued or <i>drop</i> the messages that do not fit,
+     * depending on configuration of the consumer. Messages are always enqueued in order, so
+     * only a tail of the batch may be dropped.
+     * @param messages to synchronize, in order
+     * @param businessTs business timestamps (epoch) of the messages; the {@code i}:th timestamp
+     * belongs to the {@code i}:th message. Must not have fewer elements than {@code messages}
+     * @param systemTs system timestamps (epoch) of the messages; the {@code i}:th timestamp
+     * belongs to the {@code i}:th message. Must not have fewer elements than {@code messages}
+     * @return {@code true} if all events were successfully added,
+     * {@code false} if one or more were dropped or if added but capacity was reached (see
+     * {@link BackPressureStrategy#UNBOUNDED})
+     * @throws RuntimeInterruptedException if thread is interrupted during wait
+     * (blocking consumers only)
+     * @throws IllegalStateException if called after {@link #complete} has been called
+     * @throws IllegalArgumentException if there are fewer timestamps than messages
+     */
+    boolean onEvents(List<? extends E> messages, long[] businessTs, long[] systemTs);
  
     /**
      * Advances system time without adding an associated event. Should be called when
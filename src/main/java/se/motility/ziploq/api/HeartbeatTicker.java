@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.util.function.LongSupplier;
+
+import se.motility.ziploq.impl.HeartbeatTickerImpl;
+
+/**
+ * A shared system clock advancing system time for idle {@link FlowConsumer} instances.
+ * <p>
+ * Instead of each Producer having to call {@link FlowConsumer#updateSystemTime} while silent,
+ * a single ticker thread periodically reads the system clock and heart-beats all registered
+ * consumers on their behalf. Registering a consumer is a statement that its input source is
+ * <i>healthy</i>; if the source disconnects, it should be unregistered until the connection
+ * has been re-established.
+ * <p>
+ * Heartbeats never interfere with ongoing Producer activity, and a consumer recovering from
+ * a sudden jump in system time (see {@link ZiploqFactory#create(long, java.util.Comparator)})
+ * will not be heart-beaten until its recovery grace period has expired. Once heart-beaten,
+ * system time will never go backwards; any message provided with a system timestamp lower
+ * than the latest heartbeat will have its system timestamp raised accordingly. Producers are
+ * therefore encouraged to use {@link #currentTimeMillis()} for their system timestamps.
+ * <p>
+ * Events from a registered consumer are guarded by a lightweight lock, making them
+ * slightly more expensive than events from consumers not being heart-beaten.
+ *
+ * @author M Tegling
+ */
+public interface HeartbeatTicker extends AutoCloseable {
+
+    /**
+     * Creates and starts a new {@code HeartbeatTicker} using {@link System#currentTimeMillis}
+     * as system clock
+     * @param periodMillis time between heartbeats in milliseconds; should be well below the
+     * {@code systemDelay} of the associated {@link ZipFlow} instances. Must be positive.
+     * @return a new, running {@code HeartbeatTicker}
+     */
+    static HeartbeatTicker create(long periodMillis) {
+        return create(periodMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates and starts a new {@code HeartbeatTicker}
+     * @param periodMillis time between heartbeats in milliseconds; should be well below the
+     * {@code systemDelay} of the associated {@link ZipFlow} instances. Must be positive.
+     * @param clock providing system time; must be non-decreasing
+     * @return a new, running {@code HeartbeatTicker}
+     */
+    static HeartbeatTicker create(long periodMillis, LongSupplier clock) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be greater than 0. Provided value was " + periodMillis);
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Argument 'clock' is null.");
+        }
+        return new HeartbeatTickerImpl(periodMillis, clock);
+    }
+
+    /**
+     * Returns the system time of the latest tick. This is a cheap, coarse-grained clock
+     * suitable for stamping messages from registered consumers.
+     * @return system time of the latest tick
+     */
+    long currentTimeMillis();
+
+    /**
+     * Registers a healthy consumer to be heart-beaten while idle. Must be called by the
+     * Producer thread of the consumer. After a reconnect, register the consumer again once
+     * the first event has been provided.
+     * @param consumer to heart-beat
+     * @throws IllegalArgumentException if the consumer was not created by {@link ZiploqFactory}
+     * @throws IllegalStateException if this ticker has been closed
+     */
+    void register(FlowConsumer<?> consumer);
+
+    /**
+     * Stops heart-beating the provided consumer, e.g. since its input source has been
+     * disconnected. Must be called by the Producer thread of the consumer. Completed
+     * consumers are unregistered automatically.
+     * @param consumer to stop heart-beating
+     */
+    void unregister(FlowConsumer<?> consumer);
+
+    /**
+     * Stops the ticker thread and unregisters all consumers. No further heartbeats
+     * will be provided once this method has returned.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.util.function.Consumer;
+
+/**
+ * Policy for handling <i>late data</i> from an input source.
+ * <p>
+ * A message is late if it would be emitted out of sequence, e.g. since an unordered source
+ * delivered it later than its business delay, an ordered source went backwards in business
+ * time or, for a {@link ZipFlow}, the message arrived later than the system delay. Detection
+ * is always on and costs a single comparison per emitted message. The number of late
+ * messages from a source is available from {@link SynchronizedConsumer#getLateCount()}.
+ * <p>
+ * The policy is applied by the thread retrieving messages from the {@link Ziploq}.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ * @see SynchronizedConsumer#setLateDataPolicy(LateDataPolicy)
+ */
+public final class LateDataPolicy<T> {
+
+    /**
+     * Available actions for late messages
+     */
+    public enum Action {
+        /** Emits the message as-is and logs a warning (default) */
+        EMIT,
+        /** Passes the message to a side-output handler instead of emitting it */
+        REJECT,
+        /** Emits the message with business timestamp raised to that of the previous message */
+        CLAMP,
+        /** Emits the message as-is, flagged as late; see {@link Entry#isLate()} */
+        FLAG;
+    }
+
+    private static final LateDataPolicy<?> EMIT = new LateDataPolicy<>(Action.EMIT, null);
+    private static final LateDataPolicy<?> CLAMP = new LateDataPolicy<>(Action.CLAMP, null);
+    private static final LateDataPolicy<?> FLAG = new LateDataPolicy<>(Action.FLAG, null);
+
+    private final Action action;
+    private final Consumer<? super Entry<T>> handler;
+
+    /**
+     * Returns the default policy; late messages are emitted as-is and a warning is logged
+     * @param <T> message type
+     * @return policy emitting late messages as-is
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LateDataPolicy<T> emit() {
+        return (LateDataPolicy<T>) EMIT;
+    }
+
+    /**
+     * Returns a policy passing late messages to the provided handler instead of emitting them
+     * @param handler to receive late messages; invoked by the thread retrieving messages
+     * @param <T> message type
+     * @return policy rejecting late messages
+     */
+    public static <T> LateDataPolicy<T> reject(Consumer<? super Entry<T>> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Argument 'handler' is null.");
+        }
+        return new LateDataPolicy<>(Action.REJECT, handler);
+    }
+
+    /**
+     * Returns a policy emitting late messages with business timestamp raised to that of the
+     * previously emitted message, keeping the output sequence ordered
+     * @param <T> message type
+     * @return policy clamping late messages
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LateDataPolicy<T> clamp() {
+        return (LateDataPolicy<T>) CLAMP;
+    }
+
+    /**
+     * Returns a policy emitting late messages as-is, flagged as late
+     * @param <T> message type
+     * @return policy flagging late messages
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LateDataPolicy<T> flag() {
+        return (LateDataPolicy<T>) FLAG;
+    }
+
+    private LateDataPolicy(Action action, Consumer<? super Entry<T>> handler) {
+        this.action = action;
+        this.handler = handler;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Passes a late message to the side-output handler
+     * @param entry late message
+     * @throws IllegalStateException if this is not a {@link Action#REJECT} policy
+     */
+    public void reject(Entry<T> entry) {
+        if (handler == null) {
+            throw new IllegalStateException("No handler for action " + action);
+        }
+        handler.accept(entry);
+    }
+
+    @Override
+    public String toString() {
+        return "LateDataPolicy [action=" + action + "]";
+    }
+
+}
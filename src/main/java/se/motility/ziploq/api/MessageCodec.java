@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of messages, e.g. for writing the sequenced output to a journal.
+ * <p>
+ * Implementations write directly to and read directly from the provided buffer, starting at
+ * its position. Avoid allocating anything when encoding, since encoding is typically done by
+ * the thread retrieving messages from the {@link Ziploq}.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ */
+public interface MessageCodec<T> {
+
+    /**
+     * Encodes the message into the buffer, advancing its position
+     * @param message to encode
+     * @param buffer to write to
+     * @throws BufferOverflowException if the buffer has insufficient space remaining
+     */
+    void encode(T message, ByteBuffer buffer);
+
+    /**
+     * Decodes a message from the buffer, advancing its position. The buffer's limit is set to
+     * the end of the encoded message.
+     * @param buffer to read from
+     * @return decoded message
+     */
+    T decode(ByteBuffer buffer);
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.util.concurrent.TimeUnit;
+
+import se.motility.ziploq.impl.PacerImpl;
+
+/**
+ * Releases messages according to their business timestamps, e.g. for backtesting and replay
+ * of historical data at real time, N times real time or as fast as possible.
+ * <p>
+ * Business timestamps are mapped onto a monotonic {@link System#nanoTime()} schedule anchored
+ * at the first message. Since each release time is derived from the anchor, rather than from
+ * the previous release, waiting errors do not accumulate. If the Consumer falls behind schedule
+ * by more than the configured maximum lag, e.g. due to a GC pause, the schedule is re-anchored
+ * instead of releasing a burst of messages to catch up.
+ * <p>
+ * Waiting parks the thread until shortly before the scheduled time and then busy-spins, trading
+ * some CPU for low jitter. The deviation from the schedule is recorded and available as
+ * percentiles through {@link #getPacingError(double)}.
+ * <p>
+ * A {@code Pacer} is used by a single Consumer thread; see {@link AdvancedZiploq#pacedStream}.
+ * Speed and statistics may be accessed by any thread.
+ *
+ * @author M Tegling
+ */
+public interface Pacer {
+
+    /** Speed for releasing messages as fast as possible */
+    double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    /**
+     * Creates a new {@code Pacer} for business timestamps in milliseconds, allowing a lag of
+     * up to 1 second before re-anchoring
+     * @param speed factor compared to real time; e.g. 1.0 for real time, 10.0 for 10x speed or
+     * {@link #AS_FAST_AS_POSSIBLE}. Must be positive.
+     * @return a new {@code Pacer}
+     */
+    static Pacer create(double speed) {
+        return create(speed, TimeUnit.MILLISECONDS, TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Creates a new {@code Pacer}
+     * @param speed factor compared to real time; e.g. 1.0 for real time, 10.0 for 10x speed or
+     * {@link #AS_FAST_AS_POSSIBLE}. Must be positive.
+     * @param businessTimeUnit unit of the business timestamps
+     * @param maxLagNanos maximum lag behind schedule before re-anchoring. Must be positive.
+     * @return a new {@code Pacer}
+     */
+    static Pacer create(double speed, TimeUnit businessTimeUnit, long maxLagNanos) {
+        if (businessTimeUnit == null) {
+            throw new IllegalArgumentException("Argument 'businessTimeUnit' is null.");
+        }
+        if (maxLagNanos <= 0) {
+            throw new IllegalArgumentException("Max lag must be greater than 0. Provided value was " + maxLagNanos);
+        }
+        return new PacerImpl(speed, businessTimeUnit.toNanos(1), maxLagNanos);
+    }
+
+    /**
+     * Waits until the message having the provided business timestamp is due. Must only be
+     * called by a single thread, with business timestamps in non-decreasing order.
+     * @param businessTs of the next message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void await(long businessTs) throws InterruptedException;
+
+    /**
+     * Changes the speed factor. The new speed applies from the latest released message onwards.
+     * @param speed factor compared to real time. Must be positive.
+     */
+    void setSpeed(double speed);
+
+    /**
+     * Returns the current speed factor
+     * @return the current speed factor
+     */
+    double getSpeed();
+
+    /**
+     * Returns the absolute difference between scheduled and actual release time, at the provided
+     * percentile. Messages released as fast as possible are not included.
+     * @param percentile in the range [0, 1], e.g. 0.99
+     * @return pacing error in nanoseconds; accurate to within 12.5%
+     */
+    long getPacingError(double percentile);
+
+}
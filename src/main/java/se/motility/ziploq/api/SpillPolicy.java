@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Policy for spilling the backlog of an unbounded input source to disk.
+ * <p>
+ * Messages beyond the capacity of the in-memory queue are encoded using a {@link MessageCodec}
+ * and appended to memory-mapped segment files, to be read back in order once the Consumer
+ * thread has caught up. Producers never block and heap usage stays bounded, at the cost of
+ * encoding and decoding spilled messages. Segment files are deleted as soon as they have
+ * been mapped (or on exit, on platforms not permitting that), so nothing is left behind.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ * @see Ziploq#registerOrdered(int, SpillPolicy, String)
+ */
+public final class SpillPolicy<T> {
+
+    /** Default segment size; 64 MB */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final MessageCodec<T> codec;
+    private final Path dir;
+    private final int segmentSize;
+
+    /**
+     * Creates a policy spilling to the default temporary-file directory
+     * @param codec encoding spilled messages
+     * @param <T> message type
+     * @return spill policy
+     */
+    public static <T> SpillPolicy<T> create(MessageCodec<T> codec) {
+        return create(codec, Paths.get(System.getProperty("java.io.tmpdir")), DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a spill policy
+     * @param codec encoding spilled messages
+     * @param dir directory to create segment files in
+     * @param segmentSize size of each segment file, in bytes; limits the size of a message
+     * @param <T> message type
+     * @return spill policy
+     */
+    public static <T> SpillPolicy<T> create(MessageCodec<T> codec, Path dir, int segmentSize) {
+        if (codec == null || dir == null) {
+            throw new IllegalArgumentException("Arguments 'codec' and 'dir' must not be null.");
+        }
+        if (segmentSize < 64) {
+            throw new IllegalArgumentException("Segment size must be at least 64 bytes. Provided value was " + segmentSize);
+        }
+        return new SpillPolicy<>(codec, dir, segmentSize);
+    }
+
+    private SpillPolicy(MessageCodec<T> codec, Path dir, int segmentSize) {
+        this.codec = codec;
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    public MessageCodec<T> getCodec() {
+        return codec;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public String toString() {
+        return "SpillPolicy [dir=" + dir + ", segmentSize=" + segmentSize + "]";
+    }
+
+}
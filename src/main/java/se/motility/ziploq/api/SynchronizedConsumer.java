@@ -1,10 +1,12 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.api;
 
+import java.util.List;
+
 /**
  * Consumer associated with a {@link Ziploq}. Submit messages from an 
  * input source to this consumer to synchronize with messages from other sources.
@@ -40,6 +42,49 @@ public interface SynchronizedConsumer<E> {
      */
     boolean onEvent(E message, long businessTs);
     
+    /**
+     * Submits the provided batch of messages to the {@code Ziploq} machinery.
+     * <p>
+     * This has the same effect as calling {@link #onEvent(Object, long)} for each message in
+     * order, but messages are enqueued using a single bulk operation and the consumer's internal
+     * vector clock is only published once per batch. Use this when messages are received in
+     * batches, e.g. when reading from a socket, to pay the synchronization cost once per batch
+     * rather than once per message.
+     * <p>
+     * If the underlying queue cannot fit the whole batch, the thread may either <i>block</i>
+     * until all messages have been enqueued or <i>drop</i> the messages that do not fit,
+     * depending on configuration of the consumer. Messages are always enqueued in order, so
+     * only a tail of the batch may be dropped.
+     * @param messages to synchronize, in order
+     * @param businessTs business timestamps (epoch) of the messages; the {@code i}:th timestamp
+     * belongs to the {@code i}:th message. Must not have fewer elements than {@code messages}
+     * @return {@code true} if all events were successfully added,
+     * {@code false} if one or more were dropped or if added but capacity was reached (see
+     * {@link BackPressureStrategy#UNBOUNDED})
+     * @throws RuntimeInterruptedException if thread is interrupted during wait
+     * (blocking consumers only)
+     * @throws IllegalStateException if called after {@link #complete} has been called
+     * @throws IllegalArgumentException if there are fewer timestamps than messages
+     */
+    boolean onEvents(List<? extends E> messages, long[] businessTs);
+    
+    /**
+     * Advances business time without adding an associated event. This is a promise that no
+     * message having a business timestamp <i>lower than</i> the provided timestamp will be
+     * submitted to this consumer after this call. Messages from other input sources having
+     * lower business timestamps can then be emitted without waiting for this source.
+     * <p>
+     * Use this when an input source is silent but knows how far business time has progressed
+     * (a <i>low-watermark</i>). This allows a {@link Ziploq} to make progress without relying
+     * on system time. For unordered input sources, held messages having lower business
+     * timestamps will also be released.
+     * <p>
+     * Business time advances are non-decreasing; an advance below a previous one has no effect.
+     * @param businessTs lowest business timestamp (epoch) of any subsequent message
+     * @throws IllegalStateException if called after {@link #complete} has been called
+     */
+    void advanceBusinessTime(long businessTs);
+    
     /**
      * This will send a signal to the associated {@link Ziploq} to de-register this
      * consumer after all currently enqueued messages have been processed. Call when
@@ -62,6 +107,49 @@ public interface SynchronizedConsumer<E> {
      */
     int remainingCapacity();
     
+    /**
+     * Returns the business delay currently applied to messages from this consumer. Ordered
+     * sources always have 0 business delay. For unordered sources registered with an {@link
+     * AdaptiveDelay}, the delay changes over time based on observed lateness. May be called
+     * by any thread, e.g. for monitoring purposes.
+     * @return the current business delay
+     */
+    long getBusinessDelay();
+    
+    /**
+     * Sets the policy for handling late messages from this consumer. Defaults to
+     * {@link LateDataPolicy#emit()}. Should be called by the Producer thread before
+     * providing any messages.
+     * @param policy for handling late messages
+     */
+    void setLateDataPolicy(LateDataPolicy<E> policy);
+    
+    /**
+     * Returns the number of messages from this consumer that have been detected as late,
+     * regardless of {@link LateDataPolicy}. May be called by any thread, e.g. for monitoring
+     * purposes.
+     * @return the number of late messages
+     */
+    long getLateCount();
+    
+    /**
+     * Returns the total number of bytes spilled to disk by this consumer. May be called by
+     * any thread. See {@link SpillPolicy}.
+     * @return number of bytes spilled, or 0 if this consumer doesn't spill
+     */
+    default long getSpilledBytes() {
+        return 0L;
+    }
+    
+    /**
+     * Returns the number of segment files created for spilling to disk by this consumer. May
+     * be called by any thread. See {@link SpillPolicy}.
+     * @return number of spill segments created, or 0 if this consumer doesn't spill
+     */
+    default int getSpillSegments() {
+        return 0;
+    }
+    
     /**
      * Returns the backpressure strategy associated with the consumer
      * @return {@link BackPressureStrategy#BLOCK}, {@link BackPressureStrategy#DROP}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.api;
+
+import java.util.Iterator;
+
+/**
+ * {@link Iterator} knowing the business timestamp of each message it returns, e.g. when
+ * timestamps are stored alongside the messages rather than inside them.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see Ziploq#registerIterator(TimestampedIterator, String)
+ */
+public interface TimestampedIterator<E> extends Iterator<E> {
+
+    /**
+     * Returns the business timestamp of the message last returned by {@link #next()}
+     * @return business timestamp of the last message returned
+     */
+    long getTimestamp();
+
+}
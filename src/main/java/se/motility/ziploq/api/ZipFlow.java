@@ -1,11 +1,16 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.api;
 
 import java.util.Comparator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.impl.ArbitratedFeedImpl;
+import se.motility.ziploq.impl.ArgChecker;
 
 /**
  * A device for synchronizing and sequencing messages from any number of input sources.
@@ -38,6 +43,13 @@ import java.util.Comparator;
  * than {@code global system time + system delay} may be emitted. The system delay must be set to
  * a value higher than any configured business delay of registered unordered sources.
  * <p>
+ * The system delay may also be configured per input source, as the amount of system time that
+ * the source's messages may lag behind its own system time. Each source is then compared using
+ * its own clock; a message is emitted once its own source and each silent source, i.e. the
+ * sources that may still deliver earlier messages, have passed its system timestamp by their own
+ * system delay. Hence, the global ordering is kept, while a slow and jittery source needing a
+ * large system delay only holds back messages of other sources while it is silent.
+ * <p>
  * There are three methods for retrieving synchronized messages from this device; {@link #stream},
  * {@link #take} and {@link #poll}. For normal data processing purposes, building data pipelines
  * with {@code stream()} is encouraged.
@@ -79,6 +91,52 @@ public interface ZipFlow<E> extends Ziploq<E> {
                 long businessDelay, int softCapacity, BackPressureStrategy strategy,
                 String sourceName, Comparator<T> comparator);
     
+    /**
+     * Registers a new unordered input source to be synchronized, having its business delay
+     * estimated from the observed lateness of its messages. See {@link AdaptiveDelay}.
+     * @param businessDelay configuration of the adaptive business delay. Its maximum delay
+     * must not be greater than the system delay of this {@code ZipFlow}
+     * @param softCapacity of the buffer; rounded up to the next power of 2 (if not already
+     * power of 2). Messages having business timestamps within the current business delay
+     * won't count towards the total capacity.
+     * @param strategy determining whether messages should be dropped ({@link
+     * BackPressureStrategy#DROP}) when queues are full or if producer threads should have to
+     * wait ({@link BackPressureStrategy#BLOCK}). There's also an option to use unbounded buffers
+     * ({@link BackPressureStrategy#UNBOUNDED}).
+     * @param sourceName to be associated with this input source
+     * @param comparator to use if messages from multiple queues have the exact same business
+     * timestamp. If {@code null} is provided, no ordering is imposed on ties
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link FlowConsumer} to feed with input data
+     */
+    <T extends E> FlowConsumer<T> registerUnordered(
+                AdaptiveDelay businessDelay, int softCapacity, BackPressureStrategy strategy,
+                String sourceName, Comparator<T> comparator);
+    
+    /**
+     * Registers a new unordered input source to be synchronized, having its own system delay.
+     * See {@link #registerUnordered(long, int, BackPressureStrategy, String, Comparator)}.
+     * @param businessDelay the maximum business time delay allowed for new messages, compared
+     * to previous messages from the same source. Must not be greater than {@code systemDelay}
+     * @param softCapacity of the buffer; rounded up to the next power of 2 (if not already
+     * power of 2). Messages having business timestamps in the last {@code businessDelay}
+     * milliseconds won't count towards the total capacity.
+     * @param strategy determining whether messages should be dropped ({@link
+     * BackPressureStrategy#DROP}) when queues are full or if producer threads should have to
+     * wait ({@link BackPressureStrategy#BLOCK}). There's also an option to use unbounded buffers
+     * ({@link BackPressureStrategy#UNBOUNDED}).
+     * @param sourceName to be associated with this input source
+     * @param comparator to use if messages from multiple queues have the exact same business
+     * timestamp. If {@code null} is provided, no ordering is imposed on ties
+     * @param systemDelay amount of system time that messages from other sources are held back
+     * while this source is silent, waiting for its messages. Must be greater than 0.
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link FlowConsumer} to feed with input data
+     */
+    <T extends E> FlowConsumer<T> registerUnordered(
+                long businessDelay, int softCapacity, BackPressureStrategy strategy,
+                String sourceName, Comparator<T> comparator, long systemDelay);
+    
 
     /**
      * Registers a new ordered input source to be synchronized.
@@ -98,5 +156,90 @@ public interface ZipFlow<E> extends Ziploq<E> {
     <T extends E> FlowConsumer<T> registerOrdered(
                 int capacity, BackPressureStrategy strategy, String sourceName);
     
+    /**
+     * Registers a new ordered input source to be synchronized, having its own system delay.
+     * See {@link #registerOrdered(int, BackPressureStrategy, String)}.
+     * @param capacity of the buffer; rounded up to the next power of 2 (if not already power of 2)
+     * @param strategy determining whether messages should be dropped ({@link
+     * BackPressureStrategy#DROP}) when queues are full or if producer threads should have to
+     * wait ({@link BackPressureStrategy#BLOCK}). There's also an option to use unbounded buffers
+     * ({@link BackPressureStrategy#UNBOUNDED}).
+     * @param sourceName to be associated with this input source
+     * @param systemDelay amount of system time that messages from other sources are held back
+     * while this source is silent, waiting for its messages. Must be greater than 0.
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link FlowConsumer} to feed the input data into
+     */
+    <T extends E> FlowConsumer<T> registerOrdered(
+                int capacity, BackPressureStrategy strategy, String sourceName, long systemDelay);
+    
+    /**
+     * Registers a new ordered input source to be synchronized, spilling its backlog to disk.
+     * See {@link Ziploq#registerOrdered(int, SpillPolicy, String)}.
+     * @param capacity of the in-memory buffer; rounded up to the next power of 2 (if not already power of 2)
+     * @param spillPolicy determining how to spill messages beyond capacity
+     * @param sourceName to be associated with this input source
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link FlowConsumer} to feed the input data into
+     */
+    @Override
+    <T extends E> FlowConsumer<T> registerOrdered(
+                int capacity, SpillPolicy<T> spillPolicy, String sourceName);
+    
+    /**
+     * Registers a new ordered input source fed by several redundant lines, whose system time
+     * is the highest system time of all lines. See
+     * {@link Ziploq#registerArbitrated(int, ToLongFunction, int, BackPressureStrategy, String)}.
+     * @param lines number of redundant lines
+     * @param sequence function extracting the sequence number of a message
+     * @param capacity of the buffer; rounded up to the next power of 2 (if not already power of 2)
+     * @param strategy determining whether messages should be dropped ({@link
+     * BackPressureStrategy#DROP}) when queues are full or if producer threads should have to
+     * wait ({@link BackPressureStrategy#BLOCK}). There's also an option to use unbounded buffers
+     * ({@link BackPressureStrategy#UNBOUNDED}).
+     * @param sourceName to be associated with this input source
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link ArbitratedFlow} providing one {@link FlowConsumer} per line
+     */
+    @Override
+    default <T extends E> ArbitratedFlow<T> registerArbitrated(int lines, ToLongFunction<? super T> sequence,
+            int capacity, BackPressureStrategy strategy, String sourceName) {
+        ArgChecker.validateLong(lines, 1, false, "lines");
+        ArgChecker.notNull(sequence, "sequence");
+        return new ArbitratedFeedImpl<>(this.<T>registerOrdered(capacity, strategy, sourceName), sequence, lines);
+    }
+    
+    /**
+     * Returns a lower bound for the business timestamp of any message emitted from now on,
+     * as promised by {@link SynchronizedConsumer#advanceBusinessTime} and by the messages
+     * already enqueued. Since business time is decoupled from system time, the bound does not
+     * advance with system time; see {@link #getBusinessWatermark(LongUnaryOperator)}.
+     * <p>
+     * Must be called by the thread retrieving messages from this {@code ZipFlow}.
+     * @return lower bound for the business timestamp of subsequent messages, or {@code
+     * Long.MIN_VALUE} if no sources are registered
+     */
+    long getBusinessWatermark();
+    
+    /**
+     * Returns a lower bound for the business timestamp of any message emitted from now on,
+     * advancing with system time even while all sources are silent. This is e.g. useful for
+     * closing business time windows during silent periods.
+     * <p>
+     * A silent source may not emit messages more than {@code systemDelay} behind the system
+     * time of the other sources. The provided function maps that system time to the lowest
+     * business timestamp such a message may have. It's only valid if the sources' business
+     * and system clocks are aligned accordingly; e.g. {@code LongUnaryOperator.identity()}
+     * if business timestamps are wall-clock times assigned close to their system timestamps,
+     * or {@code ts -> ts - offset} when replaying history shifted by {@code offset}.
+     * <p>
+     * Must be called by the thread retrieving messages from this {@code ZipFlow}.
+     * @param systemToBusiness mapping a system timestamp to a lower bound for the business
+     * timestamp of messages having that system timestamp
+     * @return lower bound for the business timestamp of subsequent messages, or {@code
+     * Long.MIN_VALUE} if no sources are registered
+     */
+    long getBusinessWatermark(LongUnaryOperator systemToBusiness);
+    
     
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -10,6 +10,8 @@ import java.util.Iterator;
 import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+import se.motility.ziploq.impl.ArbitratedFeedImpl;
+import se.motility.ziploq.impl.ArgChecker;
 import se.motility.ziploq.impl.Splitr;
 
 /**
@@ -115,6 +117,31 @@ public interface Ziploq<E> {
         consumer.complete();
     }
     
+    /**
+     * Registers the provided <i>ordered</i> iterator to be synchronized. Unlike {@link
+     * #registerDataset}, messages are pulled lazily by the thread retrieving messages from this
+     * {@code Ziploq}, one message at a time. Use this to merge large datasets, e.g. read from
+     * files, without a Producer thread and without holding them in memory.
+     * <p>
+     * The iterator must not be used by any other thread once registered.
+     * @param iterator returning messages in order
+     * @param toTimestamp function extracting business timestamp from message
+     * @param sourceName to be associated with this iterator
+     * @param <T> message type; must be a subclass of the synchronized type
+     */
+    <T extends E> void registerIterator(Iterator<? extends T> iterator,
+            ToLongFunction<? super T> toTimestamp, String sourceName);
+    
+    /**
+     * Registers the provided <i>ordered</i> iterator to be synchronized, taking the business
+     * timestamp of each message from the iterator itself. See
+     * {@link #registerIterator(Iterator, ToLongFunction, String)}.
+     * @param iterator returning messages in order, along with their business timestamps
+     * @param sourceName to be associated with this iterator
+     * @param <T> message type; must be a subclass of the synchronized type
+     */
+    <T extends E> void registerIterator(TimestampedIterator<? extends T> iterator, String sourceName);
+    
     /**
      * Registers a new unordered input source to be synchronized.
      * <p>
@@ -158,6 +185,47 @@ public interface Ziploq<E> {
      */
     <T extends E> SynchronizedConsumer<T> registerOrdered(
                 int capacity, BackPressureStrategy strategy, String sourceName);
+    
+    /**
+     * Registers a new ordered input source to be synchronized, spilling its backlog to disk.
+     * <p>
+     * Like {@link BackPressureStrategy#UNBOUNDED}, the producer thread never waits and
+     * messages are never dropped. Messages beyond {@code capacity} are however encoded and
+     * spilled to memory-mapped files according to {@code spillPolicy}, rather than being kept
+     * on heap, and read back in order when consumed. See {@link SpillPolicy}.
+     * @param capacity of the in-memory buffer; rounded up to the next power of 2 (if not already power of 2)
+     * @param spillPolicy determining how to spill messages beyond capacity
+     * @param sourceName to be associated with this input source
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link SynchronizedConsumer} to feed the input data into
+     */
+    <T extends E> SynchronizedConsumer<T> registerOrdered(
+                int capacity, SpillPolicy<T> spillPolicy, String sourceName);
+    
+    /**
+     * Registers a new ordered input source fed by several redundant lines, e.g. the A and B lines
+     * of an exchange feed. The first arrival of each sequence number is forwarded, while
+     * duplicates are discarded by the Producer threads before entering the {@code Ziploq}.
+     * <p>
+     * Each line must deliver messages ordered by sequence number, and the sequence numbers
+     * must be ordered by business time.
+     * @param lines number of redundant lines
+     * @param sequence function extracting the sequence number of a message
+     * @param capacity of the buffer; rounded up to the next power of 2 (if not already power of 2)
+     * @param strategy determining whether messages should be dropped ({@link
+     * BackPressureStrategy#DROP}) when queues are full or if producer threads should have to
+     * wait ({@link BackPressureStrategy#BLOCK}). There's also an option to use unbounded buffers
+     * ({@link BackPressureStrategy#UNBOUNDED}).
+     * @param sourceName to be associated with this input source
+     * @param <T> message type; must be a subclass of the synchronized type
+     * @return {@link ArbitratedFeed} providing one {@link SynchronizedConsumer} per line
+     */
+    default <T extends E> ArbitratedFeed<T> registerArbitrated(int lines, ToLongFunction<? super T> sequence,
+            int capacity, BackPressureStrategy strategy, String sourceName) {
+        ArgChecker.validateLong(lines, 1, false, "lines");
+        ArgChecker.notNull(sequence, "sequence");
+        return new ArbitratedFeedImpl<>(this.<T>registerOrdered(capacity, strategy, sourceName), sequence, lines);
+    }
  
     /**
      * Returns the effective {@code Comparator} used for sequencing messages from the associated
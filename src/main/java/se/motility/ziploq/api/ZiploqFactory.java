@@ -1,11 +1,13 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.api;
 
 import java.util.Comparator;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
 
 import se.motility.ziploq.impl.ZiploqImpl;
 
@@ -41,6 +43,95 @@ public interface ZiploqFactory {
         return new ZiploqImpl<>(systemDelay, comparator);
     }
     
+    /**
+     * Factory method for creating a {@link ZipFlow} which coalesces frequent system time
+     * updates.
+     * <p>
+     * Use this if Producers call {@link FlowConsumer#updateSystemTime} at a much higher rate
+     * than needed to drive the heart-beating mechanism. A system time update is only published
+     * to the {@code ZipFlow} once it has advanced system time by more than {@code
+     * heartbeatCoalescing * systemDelay}, or when it releases held messages of an unordered
+     * source. As a consequence, messages may be emitted up to that amount of system time later
+     * than they otherwise would. Messages are never coalesced.
+     * @param systemDelay maximum amount of <i>system time</i> (wall-clock time; provided by
+     * Producers) that any message can arrive late, compared to other messages from the same
+     * source having the exact same business timestamp. See {@link #create(long, Comparator)}.
+     * Must be non-negative.
+     * @param heartbeatCoalescing fraction of {@code systemDelay} within which consecutive system
+     * time updates from the same source are coalesced. Must be at least {@code 0} (no coalescing)
+     * and less than {@code 1}.
+     * @param comparator to use if multiple messages have the exact same business timestamp.
+     * If {@code null} is provided, no ordering is imposed on ties.
+     * @return a new {@code ZipFlow} instance
+     * @param <E> type of messages to be synchronized
+     */
+    static <E> ZipFlow<E> create(long systemDelay, double heartbeatCoalescing, Comparator<E> comparator) {
+        if(systemDelay <= 0) {
+            throw new IllegalArgumentException("System delay must greater than 0. Provided value was " + systemDelay);
+        }
+        if(!(heartbeatCoalescing >= 0.0 && heartbeatCoalescing < 1.0)) {
+            throw new IllegalArgumentException("Heartbeat coalescing must be in the range [0, 1). Provided value was "
+                    + heartbeatCoalescing);
+        }
+        return new ZiploqImpl<>(systemDelay, heartbeatCoalescing, comparator);
+    }
+    
+    /**
+     * Factory method for creating a {@link ZipFlow} recording the sequence of emission
+     * decisions, for deterministic replay using {@link #createReplaying}.
+     * <p>
+     * Which messages are emitted based on system time progress depends on how Producer and
+     * Consumer threads happen to be scheduled. For each emitted message, the provided recorder
+     * receives the <i>registration ordinal</i> of its source (0 for the first source registered,
+     * 1 for the second, and so on). Late messages rejected by a {@link LateDataPolicy} are
+     * recorded as well.
+     * @param systemDelay maximum amount of <i>system time</i> that any message can arrive late.
+     * See {@link #create(long, Comparator)}. Must be non-negative.
+     * @param comparator to use if multiple messages have the exact same business timestamp.
+     * If {@code null} is provided, no ordering is imposed on ties.
+     * @param recorder receiving the registration ordinal of the source of each emitted message;
+     * invoked by the Consumer thread
+     * @return a new {@code ZipFlow} instance
+     * @param <E> type of messages to be synchronized
+     */
+    static <E> ZipFlow<E> createRecording(long systemDelay, Comparator<E> comparator, IntConsumer recorder) {
+        if(systemDelay <= 0) {
+            throw new IllegalArgumentException("System delay must greater than 0. Provided value was " + systemDelay);
+        }
+        if(recorder == null) {
+            throw new IllegalArgumentException("Argument 'recorder' is null.");
+        }
+        return new ZiploqImpl<>(systemDelay, 0.0, comparator, recorder, null);
+    }
+    
+    /**
+     * Factory method for creating a {@link ZipFlow} replaying a sequence of emission decisions
+     * recorded using {@link #createRecording}.
+     * <p>
+     * Instead of relying on system time progress, messages are emitted from the recorded
+     * sources, in the recorded order. Given that sources are registered in the same order and
+     * provide the same messages as in the recorded session, the output is identical regardless
+     * of thread scheduling. Since there's no need to wait for system time, the session can be
+     * replayed at full speed. Once the replay is exhausted, messages are sequenced as usual.
+     * @param systemDelay maximum amount of <i>system time</i> that any message can arrive late.
+     * See {@link #create(long, Comparator)}. Must be non-negative.
+     * @param comparator to use if multiple messages have the exact same business timestamp.
+     * If {@code null} is provided, no ordering is imposed on ties.
+     * @param replay providing the registration ordinal of the source of each message to emit,
+     * or a negative value once exhausted; invoked by the Consumer thread
+     * @return a new {@code ZipFlow} instance
+     * @param <E> type of messages to be synchronized
+     */
+    static <E> ZipFlow<E> createReplaying(long systemDelay, Comparator<E> comparator, IntSupplier replay) {
+        if(systemDelay <= 0) {
+            throw new IllegalArgumentException("System delay must greater than 0. Provided value was " + systemDelay);
+        }
+        if(replay == null) {
+            throw new IllegalArgumentException("Argument 'replay' is null.");
+        }
+        return new ZiploqImpl<>(systemDelay, 0.0, comparator, null, replay);
+    }
+    
     /**
      * Factory method for creating a {@link Ziploq}
      * <p>
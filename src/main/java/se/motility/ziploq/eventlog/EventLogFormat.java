@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.eventlog;
+
+/**
+ * Layout of event-log files.
+ * <p>
+ * An event log consists of a file header, a sequence of fixed-size blocks, a block index and
+ * a trailer:
+ * <pre>
+ * header   int  magic
+ *          int  format version
+ *          int  block size
+ *          int  reserved
+ * block    int  number of records in the block
+ *          records, each consisting of
+ *            int    message length
+ *            long   business timestamp
+ *            byte[] message, as encoded by the codec
+ *          zero padding up to the block size
+ * index    per block: long min business timestamp, long max business timestamp
+ * trailer  long number of messages
+ *          int  number of blocks
+ *          int  magic
+ * </pre>
+ * The trailer is written when the log is closed, so a file lacking it is incomplete. Values
+ * are stored in little-endian byte order.
+ *
+ * @author M Tegling
+ */
+final class EventLogFormat {
+
+    static final int MAGIC = 0x474F4C5A; //"ZLOG"
+    static final int VERSION = 1;
+
+    static final int FILE_HEADER = 16;
+    static final int BLOCK_HEADER = 4;
+    static final int RECORD_HEADER = 12;
+    static final int INDEX_ENTRY = 16;
+    static final int TRAILER = 16;
+
+    static final int MIN_BLOCK_SIZE = 64;
+    static final int MAX_BLOCK_SIZE = 1 << 30;
+
+    static long blockOffset(int blockSize, int block) {
+        return FILE_HEADER + (long) block * blockSize;
+    }
+
+    private EventLogFormat() {
+        throw new UnsupportedOperationException("Invalid instantiation of utility class");
+    }
+
+}
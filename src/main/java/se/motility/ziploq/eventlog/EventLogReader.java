@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.eventlog;
+
+import static se.motility.ziploq.eventlog.EventLogFormat.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.TimestampedIterator;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Reads an event log written by {@link EventLogWriter}, in order.
+ * <p>
+ * The file is memory-mapped, one window of whole blocks at a time, and messages are decoded
+ * straight from the mapped memory. Using the block index, {@link #seek(long)} positions the
+ * reader at any business timestamp by a binary search, touching only a single block of data.
+ * Register the reader as an ordered source of a {@link Ziploq} using {@link #register}.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see EventLogFormat
+ */
+public final class EventLogReader<E> implements TimestampedIterator<E>, Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final Path file;
+    private final MessageCodec<? extends E> codec;
+    private final FileChannel channel;
+    private final int blockSize;
+    private final int blocks;
+    private final long messages;
+    private final long[] minTs;
+    private final long[] maxTs;
+    private final int windowBlocks;
+
+    private MappedByteBuffer window;
+    private int windowStart = -1; //first block of window
+    private int block = -1;
+    private int position; //in window
+    private int remaining; //records in current block
+    private long timestamp = Long.MIN_VALUE;
+    private boolean registered;
+
+    /**
+     * Opens an event log for reading, positioned at the first message
+     * @param file to read
+     * @param codec decoding messages
+     * @param <E> message type
+     * @return event-log reader
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file isn't a complete event log
+     */
+    public static <E> EventLogReader<E> open(Path file, MessageCodec<? extends E> codec) {
+        if (file == null || codec == null) {
+            throw new IllegalArgumentException("Arguments 'file' and 'codec' must not be null.");
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new EventLogReader<>(file, codec, channel);
+        } catch (IOException e) {
+            close(channel);
+            throw new UncheckedIOException("Failed to open event log " + file, e);
+        } catch (RuntimeException e) {
+            close(channel);
+            throw e;
+        }
+    }
+
+    private EventLogReader(Path file, MessageCodec<? extends E> codec, FileChannel channel) throws IOException {
+        this.file = file;
+        this.codec = codec;
+        this.channel = channel;
+        long size = channel.size();
+        if (size < FILE_HEADER + TRAILER) {
+            throw invalid("too small");
+        }
+        ByteBuffer header = read(0L, FILE_HEADER);
+        ByteBuffer trailer = read(size - TRAILER, TRAILER);
+        if (header.getInt() != MAGIC || trailer.getInt(12) != MAGIC) {
+            throw invalid("missing magic number; incomplete or not an event log");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw invalid("unsupported version " + version);
+        }
+        this.blockSize = header.getInt();
+        this.messages = trailer.getLong(0);
+        this.blocks = trailer.getInt(8);
+        long indexOffset = blockOffset(blockSize, blocks);
+        if (blockSize < MIN_BLOCK_SIZE || indexOffset + (long) blocks * INDEX_ENTRY + TRAILER != size) {
+            throw invalid("inconsistent size");
+        }
+        ByteBuffer index = read(indexOffset, blocks * INDEX_ENTRY);
+        this.minTs = new long[blocks];
+        this.maxTs = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            minTs[i] = index.getLong();
+            maxTs[i] = index.getLong();
+        }
+        this.windowBlocks = (int) Math.max(1L, WINDOW_SIZE / blockSize);
+    }
+
+    /**
+     * Registers this reader as an ordered source of the provided {@code Ziploq}. Messages are
+     * read lazily by the thread retrieving messages from the {@code Ziploq}. The reader must
+     * not be used otherwise once registered, but may be positioned using {@link #seek(long)}
+     * before registering.
+     * @param ziploq to register with
+     * @param sourceName to be associated with this event log
+     * @see Ziploq#registerIterator(TimestampedIterator, String)
+     */
+    public void register(Ziploq<? super E> ziploq, String sourceName) {
+        if (registered) {
+            throw new IllegalStateException("Event log " + file + " is already registered.");
+        }
+        registered = true;
+        ziploq.registerIterator(this, sourceName);
+    }
+
+    /**
+     * Positions the reader at the first message having a business timestamp greater than or
+     * equal to the provided timestamp, or at the end of the log if there is none
+     * @param businessTs to seek to
+     * @throws IllegalStateException if the reader is registered with a {@code Ziploq}
+     */
+    public void seek(long businessTs) {
+        if (registered) {
+            throw new IllegalStateException("Cannot seek event log " + file + " once registered.");
+        }
+        int lo = 0;
+        int hi = blocks;
+        while (lo < hi) { //first block having max timestamp >= businessTs
+            int mid = (lo + hi) >>> 1;
+            if (maxTs[mid] < businessTs) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == blocks) {
+            block = blocks;
+            remaining = 0;
+            return;
+        }
+        load(lo);
+        MappedByteBuffer buf = window;
+        while (buf.getLong(position + 4) < businessTs) {
+            position += RECORD_HEADER + buf.getInt(position);
+            remaining--;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (remaining == 0) {
+            if (block + 1 >= blocks) {
+                return false;
+            }
+            load(block + 1);
+        }
+        return true;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        MappedByteBuffer buf = window;
+        int start = position;
+        int end = start + RECORD_HEADER + buf.getInt(start);
+        timestamp = buf.getLong(start + 4);
+        ((Buffer) buf).limit(end).position(start + RECORD_HEADER); //Buffer methods, for Java 8 compatibility
+        E message = codec.decode(buf);
+        ((Buffer) buf).limit(buf.capacity());
+        position = end;
+        remaining--;
+        return message;
+    }
+
+    /**
+     * Returns the business timestamp of the message last returned by {@link #next()}
+     * @return business timestamp of the last message read
+     */
+    @Override
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the number of messages in the log
+     * @return number of messages
+     */
+    public long getMessageCount() {
+        return messages;
+    }
+
+    /**
+     * Returns the number of blocks in the log
+     * @return number of blocks
+     */
+    public int getBlockCount() {
+        return blocks;
+    }
+
+    /**
+     * Returns the business timestamp of the first message in the log
+     * @return first business timestamp, or {@code Long.MIN_VALUE} if the log is empty
+     */
+    public long getFirstTimestamp() {
+        return blocks > 0 ? minTs[0] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the business timestamp of the last message in the log
+     * @return last business timestamp, or {@code Long.MIN_VALUE} if the log is empty
+     */
+    public long getLastTimestamp() {
+        return blocks > 0 ? maxTs[blocks - 1] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Closes the file. The mapped window is released when garbage collected.
+     */
+    @Override
+    public void close() {
+        window = null;
+        block = blocks;
+        remaining = 0;
+        close(channel);
+    }
+
+    private void load(int b) {
+        if (b < windowStart || b >= windowStart + windowBlocks || window == null) {
+            int start = b - b % windowBlocks;
+            int count = Math.min(windowBlocks, blocks - start);
+            try {
+                window = channel.map(MapMode.READ_ONLY, blockOffset(blockSize, start), (long) count * blockSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map event log " + file, e);
+            }
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = start;
+        }
+        int offset = (b - windowStart) * blockSize;
+        block = b;
+        remaining = window.getInt(offset);
+        position = offset + BLOCK_HEADER;
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) {
+                throw invalid("unexpected end of file");
+            }
+        }
+        ((Buffer) buf).flip();
+        return buf;
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Invalid event log " + file + ": " + reason);
+    }
+
+    private static void close(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close event log", e);
+            }
+        }
+    }
+
+}
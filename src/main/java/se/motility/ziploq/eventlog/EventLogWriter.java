@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.eventlog;
+
+import static se.motility.ziploq.eventlog.EventLogFormat.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import se.motility.ziploq.api.MessageCodec;
+
+/**
+ * Writes an ordered event source to a compact binary event log, to be replayed using
+ * {@link EventLogReader}.
+ * <p>
+ * Messages are encoded using a {@link MessageCodec} into fixed-size blocks. The minimum and
+ * maximum business timestamp of each block is kept in an index, written along with the number
+ * of messages when the log is closed. A log that hasn't been closed cannot be read.
+ * <p>
+ * Messages must be appended in non-decreasing business timestamp order. Not thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see EventLogFormat
+ */
+public final class EventLogWriter<E> implements Closeable {
+
+    /** Default block size; 64 kB */
+    public static final int DEFAULT_BLOCK_SIZE = 64 << 10;
+
+    private final Path file;
+    private final MessageCodec<? super E> codec;
+    private final FileChannel channel;
+    private final ByteBuffer block;
+    private final byte[] padding;
+
+    private long[] minTs = new long[64];
+    private long[] maxTs = new long[64];
+    private int blocks;
+    private int blockCount; //records in current block
+    private long messages;
+    private long lastTs = Long.MIN_VALUE;
+    private boolean closed;
+
+    /**
+     * Creates an event log using the default block size, replacing any existing file
+     * @param file to write
+     * @param codec encoding messages
+     * @param <E> message type
+     * @return event-log writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public static <E> EventLogWriter<E> open(Path file, MessageCodec<? super E> codec) {
+        return open(file, codec, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates an event log, replacing any existing file
+     * @param file to write
+     * @param codec encoding messages
+     * @param blockSize size of each block, in bytes; limits the size of a message. Smaller
+     *        blocks make seeking more precise, at the cost of a larger index.
+     * @param <E> message type
+     * @return event-log writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public static <E> EventLogWriter<E> open(Path file, MessageCodec<? super E> codec, int blockSize) {
+        if (file == null || codec == null) {
+            throw new IllegalArgumentException("Arguments 'file' and 'codec' must not be null.");
+        }
+        if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Block size must be in the range [" + MIN_BLOCK_SIZE
+                    + ", " + MAX_BLOCK_SIZE + "]. Provided value was " + blockSize);
+        }
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new EventLogWriter<>(file, codec, channel, blockSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create event log " + file, e);
+        }
+    }
+
+    private EventLogWriter(Path file, MessageCodec<? super E> codec, FileChannel channel, int blockSize) {
+        this.file = file;
+        this.codec = codec;
+        this.channel = channel;
+        this.block = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.padding = new byte[blockSize];
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(blockSize).putInt(0);
+        write(header);
+        ((Buffer) block).position(BLOCK_HEADER); //Buffer methods, for Java 8 compatibility
+    }
+
+    /**
+     * Appends a message to the log
+     * @param message to append
+     * @param businessTs business timestamp of the message
+     * @throws IllegalArgumentException if the business timestamp is lower than that of the
+     *         previous message, or if the encoded message doesn't fit in a block
+     * @throws IllegalStateException if the log is closed
+     */
+    public void append(E message, long businessTs) {
+        if (closed) {
+            throw new IllegalStateException("Event log " + file + " is closed.");
+        }
+        if (businessTs < lastTs) {
+            throw new IllegalArgumentException("Business timestamps must be non-decreasing. Provided value was "
+                    + businessTs + " after " + lastTs);
+        }
+        if (!tryAppend(message, businessTs)) {
+            flushBlock();
+            if (!tryAppend(message, businessTs)) {
+                throw new IllegalArgumentException("Message does not fit in a block of " + block.capacity()
+                        + " bytes: " + message);
+            }
+        }
+        lastTs = businessTs;
+        messages++;
+    }
+
+    /**
+     * Returns the number of messages appended
+     * @return number of messages
+     */
+    public long getMessageCount() {
+        return messages;
+    }
+
+    /**
+     * Writes the last block, the block index and the trailer, and closes the file
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (blockCount > 0) {
+                flushBlock();
+            }
+            ByteBuffer index = ByteBuffer.allocate(blocks * INDEX_ENTRY + TRAILER).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < blocks; i++) {
+                index.putLong(minTs[i]).putLong(maxTs[i]);
+            }
+            index.putLong(messages).putInt(blocks).putInt(MAGIC);
+            write(index);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close event log " + file, e);
+            }
+        }
+    }
+
+    private boolean tryAppend(E message, long businessTs) {
+        ByteBuffer buf = block;
+        int start = buf.position();
+        if (buf.remaining() < RECORD_HEADER) {
+            return false;
+        }
+        ((Buffer) buf).position(start + RECORD_HEADER);
+        try {
+            codec.encode(message, buf);
+        } catch (BufferOverflowException e) {
+            ((Buffer) buf).position(start);
+            return false;
+        } catch (RuntimeException e) {
+            ((Buffer) buf).position(start);
+            throw e;
+        }
+        buf.putInt(start, buf.position() - start - RECORD_HEADER);
+        buf.putLong(start + 4, businessTs);
+        if (blockCount++ == 0) {
+            if (blocks == minTs.length) {
+                minTs = Arrays.copyOf(minTs, blocks << 1);
+                maxTs = Arrays.copyOf(maxTs, blocks << 1);
+            }
+            minTs[blocks] = businessTs;
+        }
+        maxTs[blocks] = businessTs;
+        return true;
+    }
+
+    private void flushBlock() {
+        ByteBuffer buf = block;
+        if (blockCount == 0) {
+            return; //message too large for an empty block
+        }
+        buf.putInt(0, blockCount);
+        buf.put(padding, 0, buf.remaining());
+        ((Buffer) buf).flip();
+        write(buf);
+        ((Buffer) buf).clear().position(BLOCK_HEADER);
+        blocks++;
+        blockCount = 0;
+    }
+
+    private void write(ByteBuffer buf) {
+        ((Buffer) buf).rewind();
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write event log " + file, e);
+        }
+    }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.ArbitratedFeed;
+import se.motility.ziploq.api.ArbitratedFlow;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.LateDataPolicy;
+import se.motility.ziploq.api.SynchronizedConsumer;
+
+/**
+ * Implementation of {@link ArbitratedFeed}, forwarding to a single {@link SynchronizedConsumer}.
+ * If that consumer is a {@link FlowConsumer}, this is also an {@link ArbitratedFlow}.
+ * <p>
+ * Duplicates are detected without locking by reading the volatile {@code sequence}. A line
+ * holding a new sequence number acquires a spin lock, checks again and forwards the message,
+ * so the underlying single-producer queue only ever sees one Producer at a time. System time
+ * is likewise only forwarded under the lock, and only when it exceeds the highest system time
+ * forwarded.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class ArbitratedFeedImpl<E> implements ArbitratedFlow<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<ArbitratedFeedImpl> SEQUENCE =
+            AtomicLongFieldUpdater.newUpdater(ArbitratedFeedImpl.class, "sequence");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ArbitratedFeedImpl> OWNED =
+            AtomicIntegerFieldUpdater.newUpdater(ArbitratedFeedImpl.class, "owned");
+
+    private final SynchronizedConsumer<E> feed;
+    private final FlowConsumer<E> flow; //null unless feed is a FlowConsumer
+    private final ToLongFunction<? super E> sequenceFunction;
+    private final List<Line> lines;
+    private final AtomicLongArray wins;
+    private final AtomicLongArray duplicates;
+
+    private volatile long sequence = Long.MIN_VALUE;
+    private volatile int owned;
+    private volatile long forwardedSystemTs = Long.MIN_VALUE; //written under lock
+
+    //guarded by owned
+    private long forwardedBusinessTs = Long.MIN_VALUE;
+
+    /**
+     * Creates a new arbitrated feed. System time is only forwarded if {@code feed} is a
+     * {@link FlowConsumer}.
+     * @param feed to forward messages to
+     * @param sequenceFunction extracting the sequence number of messages
+     * @param lines number of redundant lines
+     */
+    public ArbitratedFeedImpl(SynchronizedConsumer<E> feed, ToLongFunction<? super E> sequenceFunction, int lines) {
+        ArgChecker.notNull(feed, "feed");
+        ArgChecker.notNull(sequenceFunction, "sequenceFunction");
+        ArgChecker.validateLong(lines, 1, false, "lines");
+        this.feed = feed;
+        this.flow = feed instanceof FlowConsumer ? (FlowConsumer<E>) feed : null;
+        this.sequenceFunction = sequenceFunction;
+        this.lines = new ArrayList<>(lines);
+        this.wins = new AtomicLongArray(lines);
+        this.duplicates = new AtomicLongArray(lines);
+        for (int i = 0; i < lines; i++) {
+            this.lines.add(new Line(i));
+        }
+    }
+
+    @Override
+    public FlowConsumer<E> getLine(int line) {
+        return lines.get(line);
+    }
+
+    @Override
+    public int getLines() {
+        return lines.size();
+    }
+
+    @Override
+    public long getWinCount(int line) {
+        return wins.get(line);
+    }
+
+    @Override
+    public long getDuplicateCount(int line) {
+        return duplicates.get(line);
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    private void lock() {
+        int attempt = 1;
+        while (!OWNED.compareAndSet(this, 0, 1)) {
+            WaitStrategy.backOffWait(attempt++);
+        }
+    }
+
+    private void unlock() {
+        OWNED.lazySet(this, 0);
+    }
+
+    //Forwards system time if it exceeds the highest forwarded; guarded by owned
+    private void forwardSystemTime(long systemTs) {
+        if (systemTs > forwardedSystemTs) {
+            forwardedSystemTs = systemTs;
+            flow.updateSystemTime(systemTs);
+        }
+    }
+
+    //Lowest business time of all lines not yet completed; guarded by owned
+    private long businessTimeBound() {
+        long bound = Long.MAX_VALUE;
+        for (Line line : lines) {
+            if (!line.complete) {
+                bound = Math.min(bound, line.businessTs);
+            }
+        }
+        return bound;
+    }
+
+    private final class Line implements FlowConsumer<E> {
+
+        private final int index;
+        private final String id;
+
+        //written by the line's Producer thread, read under lock
+        private volatile long businessTs = Long.MIN_VALUE;
+        private volatile boolean complete;
+
+        private Line(int index) {
+            this.index = index;
+            this.id = feed.getId() + "/" + index;
+        }
+
+        @Override
+        public boolean onEvent(E message, long businessTs) {
+            return onEvent(message, businessTs, Long.MIN_VALUE, false);
+        }
+
+        @Override
+        public boolean onEvent(E message, long businessTs, long systemTs) {
+            checkFlow();
+            return onEvent(message, businessTs, systemTs, true);
+        }
+
+        private boolean onEvent(E message, long businessTs, long systemTs, boolean hasSystemTs) {
+            checkNotComplete();
+            long seq = sequenceFunction.applyAsLong(message);
+            this.businessTs = businessTs;
+            if (seq <= sequence) {
+                duplicate(systemTs);
+                return true;
+            }
+            lock();
+            try {
+                if (seq <= sequence) {
+                    duplicates.lazySet(index, duplicates.get(index) + 1);
+                    if (hasSystemTs) {
+                        forwardSystemTime(systemTs);
+                    }
+                    return true;
+                }
+                boolean added;
+                if (hasSystemTs) {
+                    long ts = Math.max(systemTs, forwardedSystemTs); //non-decreasing across lines
+                    forwardedSystemTs = ts;
+                    added = flow.onEvent(message, businessTs, ts);
+                } else {
+                    added = feed.onEvent(message, businessTs);
+                }
+                SEQUENCE.lazySet(ArbitratedFeedImpl.this, seq); //published by unlock
+                wins.lazySet(index, wins.get(index) + 1);
+                forwardedBusinessTs = Math.max(forwardedBusinessTs, businessTs);
+                return added;
+            } finally {
+                unlock();
+            }
+        }
+
+        private void duplicate(long systemTs) {
+            duplicates.lazySet(index, duplicates.get(index) + 1);
+            if (systemTs > forwardedSystemTs) {
+                lock();
+                try {
+                    forwardSystemTime(systemTs);
+                } finally {
+                    unlock();
+                }
+            }
+        }
+
+        @Override
+        public boolean onEvents(List<? extends E> messages, long[] businessTs) {
+            boolean added = true;
+            for (int i = 0; i < messages.size(); i++) {
+                added &= onEvent(messages.get(i), businessTs[i]);
+            }
+            return added;
+        }
+
+        @Override
+        public boolean onEvents(List<? extends E> messages, long[] businessTs, long[] systemTs) {
+            boolean added = true;
+            for (int i = 0; i < messages.size(); i++) {
+                added &= onEvent(messages.get(i), businessTs[i], systemTs[i]);
+            }
+            return added;
+        }
+
+        @Override
+        public void updateSystemTime(long systemTs) {
+            checkFlow();
+            checkNotComplete();
+            if (systemTs > forwardedSystemTs) {
+                lock();
+                try {
+                    forwardSystemTime(systemTs);
+                } finally {
+                    unlock();
+                }
+            }
+        }
+
+        @Override
+        public void advanceBusinessTime(long businessTs) {
+            checkNotComplete();
+            this.businessTs = Math.max(this.businessTs, businessTs);
+            lock();
+            try {
+                long bound = businessTimeBound();
+                if (bound > forwardedBusinessTs) {
+                    forwardedBusinessTs = bound;
+                    feed.advanceBusinessTime(bound);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        @Override
+        public void complete() {
+            checkNotComplete();
+            lock();
+            try {
+                complete = true;
+                long bound = businessTimeBound();
+                if (bound == Long.MAX_VALUE) {
+                    feed.complete(); //all lines completed
+                } else if (bound > forwardedBusinessTs) {
+                    forwardedBusinessTs = bound;
+                    feed.advanceBusinessTime(bound);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return feed.remainingCapacity();
+        }
+
+        @Override
+        public long getBusinessDelay() {
+            return feed.getBusinessDelay();
+        }
+
+        @Override
+        public void setLateDataPolicy(LateDataPolicy<E> policy) {
+            feed.setLateDataPolicy(policy);
+        }
+
+        @Override
+        public long getLateCount() {
+            return feed.getLateCount();
+        }
+
+        @Override
+        public long getSpilledBytes() {
+            return feed.getSpilledBytes();
+        }
+
+        @Override
+        public int getSpillSegments() {
+            return feed.getSpillSegments();
+        }
+
+        @Override
+        public BackPressureStrategy getStrategy() {
+            return feed.getStrategy();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        private void checkFlow() {
+            if (flow == null) {
+                throw new UnsupportedOperationException("Line " + id + " does not carry system time.");
+            }
+        }
+
+        private void checkNotComplete() {
+            if (complete) {
+                throw new IllegalStateException("Line " + id + " has already completed.");
+            }
+        }
+    }
+
+}
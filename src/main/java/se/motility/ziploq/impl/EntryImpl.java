@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -24,14 +24,29 @@ public class EntryImpl<T> implements Entry<T> {
     private final T item;
     private final long businessTs;
     private final long systemTs;
+    private final boolean late;
     private final transient FlowConsumerImpl<T> _queueRef;
 
     EntryImpl(T item, long businessTs, long systemTs, FlowConsumerImpl<T> queueRef) {
+        this(item, businessTs, systemTs, false, queueRef);
+    }
+    
+    private EntryImpl(T item, long businessTs, long systemTs, boolean late, FlowConsumerImpl<T> queueRef) {
         this.item = item;
         this.businessTs = businessTs;
         this.systemTs = systemTs;
+        this.late = late;
         this._queueRef = queueRef;
     }
+    
+    /**
+     * Returns a copy of this entry flagged as late
+     * @param updBusinessTs business timestamp of the copy
+     * @return a late copy of this entry
+     */
+    EntryImpl<T> asLate(long updBusinessTs) {
+        return new EntryImpl<>(item, updBusinessTs, systemTs, true, _queueRef);
+    }
 
     @Override
     public long getBusinessTs() {
@@ -48,6 +63,16 @@ public class EntryImpl<T> implements Entry<T> {
         return item;
     }
     
+    @Override
+    public boolean isLate() {
+        return late;
+    }
+    
+    @Override
+    public int getSourceId() {
+        return _queueRef != null ? _queueRef.getOrdinal() : -1;
+    }
+    
     FlowConsumerImpl<T> getQueueRef() {
         return _queueRef;
     }
@@ -56,6 +81,7 @@ public class EntryImpl<T> implements Entry<T> {
     public String toString() {
         return "businessTs: " + businessTs +
                ", systemTs: " + systemTs +
+               (late ? ", late" : "") +
                ", message: " + item;
     }
 }
@@ -1,14 +1,17 @@
 /*
- * Copyright (c) 2018-2022 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import se.motility.ziploq.api.BackPressureStrategy;
 import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.LateDataPolicy;
 
 /**
  * Implementation of {@link FlowConsumer}.
@@ -18,7 +21,15 @@ import se.motility.ziploq.api.FlowConsumer;
  * <p>
  * This consumer handles disconnects by padding any sudden jumps in system time (from an
  * event perspective) by a recovery time. This guarantees no messages are incorrectly 
- * pushed prematurely after reconnecting to the input source.
+ * pushed prematurely after reconnecting to the input source. The system time is tracked
+ * and published to the Consumer thread by a {@link ProducerClock}.
+ * <p>
+ * Frequent calls to {@link #updateSystemTime} can be coalesced, in which case system time
+ * is only published once it has advanced by more than the configured amount, or when
+ * held messages become ready for sequencing.
+ * <p>
+ * A consumer registered with a {@link HeartbeatTickerImpl} may have its system time advanced
+ * by the ticker thread while idle. Producer methods are then guarded by the clock's lock.
  * 
  * @author M Tegling
  *
@@ -34,43 +45,122 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
     private final SyncQueue<T> queue;
     private final String id;
     private final BackPressureStrategy strategy;
+    private final ProducerClock clock;
     private final long systemDelay;
-    private final Runnable signalUpdate;
+    private final int ordinal;
     
     private volatile boolean isComplete = false;
-    private volatile boolean hasChanged = false;
-    private volatile long system        = 0L;
-    private volatile long graceExpiry   = 0L;
-    private volatile long lastSystem    = 0L; //start from 0 to prevent underflow
+    private volatile boolean autoHeartbeat = false;
+    private volatile LateDataPolicy<T> lateDataPolicy = LateDataPolicy.emit();
+    private volatile long lateCount = 0L; //only written by the Consumer thread
     
     FlowConsumerImpl(SyncQueue<T> queue, long systemDelay,
-            BackPressureStrategy strategy, Runnable signalUpdate, String name) {
+            BackPressureStrategy strategy, String name) {
+        this(queue, systemDelay, 0L, strategy, name, 0);
+    }
+    
+    FlowConsumerImpl(SyncQueue<T> queue, long systemDelay, long heartbeatCoalescing,
+            BackPressureStrategy strategy, String name, int ordinal) {
         this.queue = queue;
         this.id = ID_PREFIX + ID_GEN.incrementAndGet() + "-" + name;
         this.strategy = strategy;
+        this.clock = new ProducerClock(systemDelay, heartbeatCoalescing);
         this.systemDelay = systemDelay;
-        this.signalUpdate = signalUpdate;
+        this.ordinal = ordinal;
     }
     
     long getSystemTs() {
-        return system;
+        return clock.get();
+    }
+    
+    long getSystemDelay() {
+        return systemDelay;
+    }
+    
+    /**
+     * Returns the registration order of this consumer within its {@code ZipFlow}
+     * @return registration ordinal, starting from 0
+     */
+    int getOrdinal() {
+        return ordinal;
     }
     
     boolean verifyCheckpoint() {
-        return !hasChanged;
+        return clock.verifyCheckpoint();
     }
     
     void setCheckpoint() {
-        this.hasChanged = false;
+        clock.setCheckpoint();
     }
     
     boolean isComplete() {
         return isComplete;
     }
     
+    /**
+     * Applies the late data policy to an entry emitted out of sequence. Must only be
+     * called by the Consumer thread.
+     * @param entry emitted out of sequence
+     * @param previousBusinessTs business timestamp of the previously emitted entry
+     * @return entry to emit, or {@code null} if rejected
+     */
+    EntryImpl<T> onLate(EntryImpl<T> entry, long previousBusinessTs) {
+        lateCount++;
+        LateDataPolicy<T> policy = lateDataPolicy;
+        switch (policy.getAction()) {
+            case REJECT:
+                policy.reject(entry);
+                return null;
+            case CLAMP:
+                return entry.asLate(Math.max(previousBusinessTs, entry.getBusinessTs()));
+            case FLAG:
+                return entry.asLate(entry.getBusinessTs());
+            default:
+                return entry;
+        }
+    }
+    
+    LateDataPolicy<T> getLateDataPolicy() {
+        return lateDataPolicy;
+    }
+    
+    /**
+     * Enables or disables heart-beating by a ticker thread. Must be called by the Producer
+     * thread. When disabling, waits for any ongoing heartbeat to finish.
+     * @param enabled {@code true} to enable heart-beating
+     */
+    void setAutoHeartbeat(boolean enabled) {
+        autoHeartbeat = enabled;
+        if (!enabled) {
+            clock.lock(); //wait for any ongoing heartbeat
+            clock.unlock();
+        }
+    }
+    
+    /**
+     * Advances system time on behalf of an idle Producer. Called by a ticker thread.
+     * Skipped if the Producer is currently active or still recovering from a jump in
+     * system time.
+     * @param systemTs to advance to
+     * @return {@code false} if this consumer has completed, otherwise {@code true}
+     */
+    boolean heartbeat(long systemTs) {
+        if (clock.tryLock()) {
+            try {
+                if (autoHeartbeat && !isComplete && systemTs > clock.lastSystemTs()
+                        && clock.isRecovered(systemTs)) {
+                    advanceSystemTs(systemTs);
+                }
+            } finally {
+                clock.unlock();
+            }
+        }
+        return !isComplete;
+    }
+    
     @Override
     public boolean onEvent(T message, long businessTs) {
-        return onEvent(message, businessTs, lastSystem);
+        return onEvent(message, businessTs, clock.lastSystemTs());
     }
     
     @Override
@@ -79,14 +169,67 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
             throw new IllegalStateException(
                     "Consumer has already completed. New events are not allowed.");
         }
+        if (!autoHeartbeat) {
+            return enqueue(message, businessTs, systemTs);
+        }
+        clock.lock();
+        try {
+            //never go back on system time already heart-beaten
+            return enqueue(message, businessTs, Math.max(systemTs, clock.lastSystemTs()));
+        } finally {
+            clock.unlock();
+        }
+    }
+    
+    private boolean enqueue(T message, long businessTs, long systemTs) {
         boolean accepted = strategy == BackPressureStrategy.BLOCK
                 ? queue.put(new EntryImpl<>(message, businessTs, systemTs, this))
                 : queue.offer(new EntryImpl<>(message, businessTs, systemTs, this));
-        if (systemTs - lastSystem > systemDelay) {
-            //The producer has made a sudden jump in system time. Wait for recovery.
-            graceExpiry = systemTs + systemDelay;
+        clock.onMessage(systemTs);
+        clock.publish();
+        return accepted;
+    }
+
+    @Override
+    public boolean onEvents(List<? extends T> messages, long[] businessTs) {
+        return onEvents(messages, businessTs, null);
+    }
+    
+    @Override
+    public boolean onEvents(List<? extends T> messages, long[] businessTs, long[] systemTs) {
+        if (isComplete()) {
+            throw new IllegalStateException(
+                    "Consumer has already completed. New events are not allowed.");
+        }
+        int size = messages.size();
+        ArgChecker.validateLong(businessTs.length, size, false, "businessTs.length");
+        if (systemTs != null) {
+            ArgChecker.validateLong(systemTs.length, size, false, "systemTs.length");
+        }
+        if (!autoHeartbeat) {
+            return enqueue(messages, businessTs, systemTs, Long.MIN_VALUE);
+        }
+        clock.lock();
+        try {
+            //never go back on system time already heart-beaten
+            return enqueue(messages, businessTs, systemTs, clock.lastSystemTs());
+        } finally {
+            clock.unlock();
+        }
+    }
+    
+    private boolean enqueue(List<? extends T> messages, long[] businessTs, long[] systemTs, long minSystemTs) {
+        int size = messages.size();
+        List<EntryImpl<T>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long ts = systemTs != null ? Math.max(systemTs[i], minSystemTs) : clock.lastSystemTs();
+            entries.add(new EntryImpl<>(messages.get(i), businessTs[i], ts, this));
+            clock.onMessage(ts);
         }
-        onEvent(systemTs);
+        boolean accepted = strategy == BackPressureStrategy.DROP
+                ? queue.offer(entries) == size
+                : queue.put(entries); //never blocks for UNBOUNDED
+        clock.publish(); //publish once per batch
         return accepted;
     }
 
@@ -96,12 +239,51 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
             throw new IllegalStateException(
                     "Consumer has already completed. Updating system time is not allowed.");
         }
-        queue.updateSystemTs(systemTs);
-        if (graceExpiry > systemTs) {
-            //Calling updateSystemTime means we've recovered
-            graceExpiry = systemTs;
+        if (!autoHeartbeat) {
+            advanceSystemTs(systemTs);
+            return;
         }
-        onEvent(systemTs);
+        clock.lock();
+        try {
+            advanceSystemTs(Math.max(systemTs, clock.lastSystemTs()));
+        } finally {
+            clock.unlock();
+        }
+    }
+    
+    private void advanceSystemTs(long systemTs) {
+        clock.onUpdate(systemTs);
+        if (clock.isHeartbeatDue(systemTs) || systemTs >= queue.nextPromotionTs()) {
+            queue.updateSystemTs(systemTs);
+            clock.publish();
+        }
+    }
+    
+    long getBusinessWatermark() {
+        return clock.getBusinessWatermark();
+    }
+    
+    @Override
+    public void advanceBusinessTime(long businessTs) {
+        if (isComplete()) {
+            throw new IllegalStateException(
+                    "Consumer has already completed. Advancing business time is not allowed.");
+        }
+        if (!autoHeartbeat) {
+            advanceBusinessTs(businessTs);
+            return;
+        }
+        clock.lock();
+        try {
+            advanceBusinessTs(businessTs);
+        } finally {
+            clock.unlock();
+        }
+    }
+    
+    private void advanceBusinessTs(long businessTs) {
+        queue.updateBusinessTs(businessTs);
+        clock.advanceBusinessTs(businessTs);
     }
     
     @SuppressWarnings("unchecked")
@@ -112,9 +294,23 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
     
     @Override
     public void complete() {
+        if (!autoHeartbeat) {
+            doComplete();
+            return;
+        }
+        clock.lock();
+        try {
+            doComplete();
+        } finally {
+            clock.unlock();
+        }
+    }
+    
+    private void doComplete() {
         queue.updateSystemTs(END); //flush queue
         isComplete = true;
-        onEvent(END);
+        clock.onUpdate(END);
+        clock.publish();
     }
 
     @Override
@@ -122,6 +318,32 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
         return queue.remainingCapacity();
     }
     
+    @Override
+    public long getBusinessDelay() {
+        return queue.getBusinessDelay();
+    }
+    
+    @Override
+    public void setLateDataPolicy(LateDataPolicy<T> policy) {
+        ArgChecker.notNull(policy, "policy");
+        lateDataPolicy = policy;
+    }
+    
+    @Override
+    public long getLateCount() {
+        return lateCount;
+    }
+    
+    @Override
+    public long getSpilledBytes() {
+        return queue.getSpilledBytes();
+    }
+    
+    @Override
+    public int getSpillSegments() {
+        return queue.getSpillSegments();
+    }
+    
     @Override
     public BackPressureStrategy getStrategy() {
         return strategy;
@@ -132,13 +354,4 @@ public class FlowConsumerImpl<T> implements FlowConsumer<T> {
         return id;
     }
     
-    private void onEvent(long ts) {
-        if (ts > system && ts >= graceExpiry) {
-            hasChanged = true; //must come before write to 'system'
-            system = ts;
-            signalUpdate.run();
-        }
-        lastSystem = ts;
-    }
-    
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.HeartbeatTicker;
+
+/**
+ * Implementation of {@link HeartbeatTicker}, running a single daemon thread.
+ *
+ * @author M Tegling
+ */
+public class HeartbeatTickerImpl implements HeartbeatTicker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeartbeatTickerImpl.class);
+    private static final AtomicInteger ID_GEN = new AtomicInteger(0);
+
+    private final CopyOnWriteArrayList<FlowConsumerImpl<?>> consumers = new CopyOnWriteArrayList<>();
+    private final long periodNanos;
+    private final LongSupplier clock;
+    private final Thread thread;
+
+    private volatile long now;
+    private volatile boolean running = true;
+
+    public HeartbeatTickerImpl(long periodMillis, LongSupplier clock) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.clock = clock;
+        this.now = clock.getAsLong();
+        this.thread = new Thread(this::run, "ziploq-ticker-" + ID_GEN.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void register(FlowConsumer<?> consumer) {
+        FlowConsumerImpl<?> q = cast(consumer);
+        if (!running) {
+            throw new IllegalStateException("Ticker has been closed.");
+        }
+        q.setAutoHeartbeat(true);
+        consumers.addIfAbsent(q);
+    }
+
+    @Override
+    public void unregister(FlowConsumer<?> consumer) {
+        FlowConsumerImpl<?> q = cast(consumer);
+        consumers.remove(q);
+        q.setAutoHeartbeat(false);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FlowConsumerImpl<?> q : consumers) {
+            q.setAutoHeartbeat(false);
+        }
+        consumers.clear();
+    }
+
+    private static FlowConsumerImpl<?> cast(FlowConsumer<?> consumer) {
+        ArgChecker.notNull(consumer, "consumer");
+        if (!(consumer instanceof FlowConsumerImpl)) {
+            throw new IllegalArgumentException("Unsupported consumer type: " + consumer.getClass().getName());
+        }
+        return (FlowConsumerImpl<?>) consumer;
+    }
+
+    private void run() {
+        LOG.info("Heartbeat ticker started.");
+        while (running) {
+            long ts = clock.getAsLong();
+            now = ts;
+            for (FlowConsumerImpl<?> q : consumers) {
+                if (!q.heartbeat(ts)) {
+                    consumers.remove(q); //completed
+                }
+            }
+            WaitStrategy.specificWait(periodNanos);
+        }
+        LOG.info("Heartbeat ticker stopped.");
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.TimestampedIterator;
+
+/**
+ * Queue pulling entries lazily from an ordered {@link Iterator}, on demand of the Consumer
+ * thread. There is no Producer thread; all data is available up front, so the associated
+ * consumer is completed upon registration. At most one message is held at a time.
+ * <p>
+ * Business timestamps are either extracted from the messages or, for a
+ * {@link TimestampedIterator}, taken from the iterator.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see SyncQueue
+ */
+public class IteratorSyncQueue<E> implements SyncQueue<E> {
+
+    private final Iterator<? extends E> iterator;
+    private final ToLongFunction<? super E> toTimestamp; //null if timestamped
+    private final TimestampedIterator<? extends E> timestamped; //null unless timestamped
+
+    private FlowConsumerImpl<E> owner;
+    private EntryImpl<E> peeked;
+
+    IteratorSyncQueue(Iterator<? extends E> iterator, ToLongFunction<? super E> toTimestamp) {
+        this.iterator = iterator;
+        this.toTimestamp = toTimestamp;
+        this.timestamped = null;
+    }
+
+    IteratorSyncQueue(TimestampedIterator<? extends E> iterator) {
+        this.iterator = iterator;
+        this.toTimestamp = null;
+        this.timestamped = iterator;
+    }
+
+    /**
+     * Sets the consumer associated with the entries of this queue. Must be called before
+     * the consumer is registered.
+     * @param owner of this queue
+     */
+    void setOwner(FlowConsumerImpl<E> owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean offer(Entry<E> entry) {
+        throw new UnsupportedOperationException("Entries are pulled from an iterator.");
+    }
+
+    @Override
+    public boolean put(Entry<E> entry) {
+        throw new UnsupportedOperationException("Entries are pulled from an iterator.");
+    }
+
+    @Override
+    public int offer(List<? extends Entry<E>> entries) {
+        throw new UnsupportedOperationException("Entries are pulled from an iterator.");
+    }
+
+    @Override
+    public boolean put(List<? extends Entry<E>> entries) {
+        throw new UnsupportedOperationException("Entries are pulled from an iterator.");
+    }
+
+    @Override
+    public void updateSystemTs(long timestamp) {
+        //do nothing
+    }
+
+    @Override
+    public void updateBusinessTs(long timestamp) {
+        //do nothing
+    }
+
+    @Override
+    public long nextPromotionTs() {
+        return Long.MAX_VALUE; //messages are never held
+    }
+
+    @Override
+    public long getBusinessDelay() {
+        return 0L;
+    }
+
+    @Override
+    public Entry<E> poll() {
+        Entry<E> entry = peek();
+        peeked = null;
+        return entry;
+    }
+
+    @Override
+    public Entry<E> peek() {
+        if (peeked == null && iterator.hasNext()) {
+            E message = iterator.next();
+            long businessTs = timestamped != null ? timestamped.getTimestamp() : toTimestamp.applyAsLong(message);
+            peeked = new EntryImpl<>(message, businessTs, 0L, owner);
+        }
+        return peeked;
+    }
+
+    /**
+     * Returns 1 if a message has been pulled but not yet polled, otherwise 0
+     */
+    @Override
+    public int size() {
+        return peeked != null ? 1 : 0;
+    }
+
+    @Override
+    public int readySize() {
+        return size();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.AdaptiveDelay;
+
+/**
+ * Estimates the business delay of an unordered input source from its observed lateness.
+ * <p>
+ * Lateness is recorded in a {@link LogLinearHistogram} written by the Producer thread only,
+ * so recording requires no locking. Once every {@value #WINDOW} samples the effective delay
+ * is shrunk half-way towards the configured percentile plus margin, after which all counts
+ * are halved to let old observations fade out. A message arriving later
+ * than the effective delay makes the delay grow immediately.
+ * <p>
+ * The effective delay is published for other threads to read as a metric.
+ *
+ * @author M Tegling
+ */
+final class LatenessEstimator {
+
+    static final int WINDOW = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(LatenessEstimator.class);
+
+    private final LogLinearHistogram histogram = new LogLinearHistogram();
+    private final long minDelay;
+    private final long maxDelay;
+    private final double percentile;
+    private final long margin;
+
+    private int samples;
+    private long delay; //Producer thread's copy
+    private volatile long published;
+
+    LatenessEstimator(AdaptiveDelay config) {
+        this.minDelay = config.getMinDelay();
+        this.maxDelay = config.getMaxDelay();
+        this.percentile = config.getPercentile();
+        this.margin = config.getMargin();
+        this.delay = maxDelay;
+        this.published = maxDelay;
+    }
+
+    /**
+     * Records the lateness of a message. Must only be called by the Producer thread.
+     * @param lateness of the message; business time behind the latest business timestamp
+     * @return the effective business delay to apply
+     */
+    long record(long lateness) {
+        long value = Math.max(lateness, 0L);
+        histogram.record(value);
+        if (value > delay) {
+            grow(value);
+        }
+        if (++samples == WINDOW) {
+            samples = 0;
+            shrink();
+        }
+        return delay;
+    }
+
+    /**
+     * Returns the effective business delay. May be called by any thread.
+     * @return the effective business delay
+     */
+    long getDelay() {
+        return published;
+    }
+
+    private void grow(long lateness) {
+        long updated = clamp(Math.max(lateness + margin, 2 * delay));
+        if (updated != delay) {
+            LOG.debug("Business delay increased from {} to {} due to message arriving {} late.",
+                    delay, updated, lateness);
+            publish(updated);
+        }
+    }
+
+    private void shrink() {
+        long target = clamp(histogram.valueAtPercentile(percentile) + margin);
+        if (target < delay) {
+            publish(delay - (delay - target + 1) / 2);
+        }
+        histogram.decay();
+    }
+
+    private void publish(long updated) {
+        delay = updated;
+        published = updated;
+    }
+
+    private long clamp(long value) {
+        return Math.min(Math.max(value, minDelay), maxDelay);
+    }
+
+}
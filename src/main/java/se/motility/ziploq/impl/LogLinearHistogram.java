@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values, having 8 linear sub-buckets per power of 2 (relative
+ * error below 12.5%). Values below 16 are recorded exactly.
+ * <p>
+ * Single-writer; only one thread may record values. Counts are published with ordered
+ * stores, so any thread may read percentiles without locking. Readers may observe a
+ * recording in progress, making percentiles approximate while values are being recorded.
+ *
+ * @author M Tegling
+ */
+final class LogLinearHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a value. Negative values are recorded as 0. Must only be called by the writer thread.
+     * @param value to record
+     */
+    void record(long value) {
+        int i = index(Math.max(value, 0L));
+        counts.lazySet(i, counts.get(i) + 1);
+    }
+
+    /**
+     * Halves all counts, letting old observations fade out. Must only be called by the writer thread.
+     */
+    void decay() {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts.get(i);
+            if (c != 0) {
+                counts.lazySet(i, c >>> 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile. May be called by any thread.
+     * @param percentile in the range [0, 1]
+     * @return value at percentile, or 0 if no values have been recorded
+     */
+    long valueAtPercentile(double percentile) {
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        long rank = Math.max((long) Math.ceil(percentile * total), 1L);
+        long cumulative = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= rank) {
+                return upperBound(i);
+            }
+        }
+        return 0L;
+    }
+
+    static int index(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - 1 - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    static long upperBound(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        long sub = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+}
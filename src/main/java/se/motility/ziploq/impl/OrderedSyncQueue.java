@@ -1,13 +1,18 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.impl;
 
+import java.util.Iterator;
+import java.util.List;
+
 import org.jctools.queues.MessagePassingQueue;
 import org.jctools.queues.MpscArrayQueue;
+import org.jctools.queues.MpscChunkedArrayQueue;
 import org.jctools.queues.MpscLinkedQueue;
+import org.jctools.util.Pow2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +21,13 @@ import se.motility.ziploq.api.RuntimeInterruptedException;
 
 /**
  * Queue used for Producers providing an ordered message sequence.
+ * <p>
+ * Bounded queues with a capacity larger than the configured chunk size do not allocate their
+ * full capacity up front. Instead, the buffer grows in linked chunks as messages are enqueued
+ * and each chunk is released as soon as it has been fully consumed. Hence, the memory footprint
+ * follows the actual number of queued messages, which matters when registering thousands of
+ * mostly idle sources. The chunk size is set by the system property {@code ziploq.queue.chunk_size}
+ * (default 1024). A non-positive chunk size disables chunking.
  * 
  * @author M Tegling
  * 
@@ -25,6 +37,7 @@ import se.motility.ziploq.api.RuntimeInterruptedException;
 public class OrderedSyncQueue<E> implements SyncQueue<E> {
     
     private static final long ONE_MILLISECOND = 1_000_000L; //throughput ~ capacity x 1000 events/s
+    static final int CHUNK_SIZE = Integer.getInteger("ziploq.queue.chunk_size", 1024);
     private static final Logger LOG = LoggerFactory.getLogger(OrderedSyncQueue.class);
     
     private final MessagePassingQueue<Entry<E>> ready;
@@ -33,7 +46,11 @@ public class OrderedSyncQueue<E> implements SyncQueue<E> {
     private long lastTs = 0;
     
     OrderedSyncQueue(int capacity) {
-        this.ready = capacity > 0 ? new MpscArrayQueue<>(capacity) : new MpscLinkedQueue<>();
+        this(capacity, CHUNK_SIZE);
+    }
+    
+    OrderedSyncQueue(int capacity, int chunkSize) {
+        this.ready = createBuffer(capacity, chunkSize);
         this.capacity = ready.capacity(); //retrieve actual capacity (power of 2)
     }
 
@@ -55,11 +72,53 @@ public class OrderedSyncQueue<E> implements SyncQueue<E> {
         return true;
     }
     
+    @Override
+    public int offer(List<? extends Entry<E>> entries) {
+        entries.forEach(this::verifyTimestamp);
+        Iterator<? extends Entry<E>> iter = entries.iterator();
+        int added = 0;
+        int filled;
+        do { //fill claims slots up to a cached limit, so may stop short while capacity is free
+            filled = ready.fill(iter::next, entries.size() - added);
+            added += filled;
+        } while (filled > 0 && added < entries.size());
+        return added;
+    }
+    
+    @Override
+    public boolean put(List<? extends Entry<E>> entries) {
+        entries.forEach(this::verifyTimestamp);
+        Iterator<? extends Entry<E>> iter = entries.iterator();
+        int remaining = entries.size();
+        while ((remaining -= ready.fill(iter::next, remaining)) > 0) {
+            if(Thread.currentThread().isInterrupted()) {
+                throw new RuntimeInterruptedException("Thread interrupted");
+            }
+            WaitStrategy.specificWait(ONE_MILLISECOND);
+        }
+        return true;
+    }
+    
     @Override
     public void updateSystemTs(long timestamp) {
         //do nothing
     }
 
+    @Override
+    public void updateBusinessTs(long timestamp) {
+        //do nothing
+    }
+
+    @Override
+    public long nextPromotionTs() {
+        return Long.MAX_VALUE; //messages are never held
+    }
+
+    @Override
+    public long getBusinessDelay() {
+        return 0L;
+    }
+
     @Override
     public Entry<E> poll() {
         return ready.poll();
@@ -85,6 +144,16 @@ public class OrderedSyncQueue<E> implements SyncQueue<E> {
         return capacity - size();
     }
     
+    private static <T> MessagePassingQueue<T> createBuffer(int capacity, int chunkSize) {
+        if (capacity <= 0) {
+            return new MpscLinkedQueue<>(); //unbounded
+        } else if (chunkSize > 1 && Pow2.roundToPowerOfTwo(chunkSize) < Pow2.roundToPowerOfTwo(capacity)) {
+            return new MpscChunkedArrayQueue<>(chunkSize, capacity); //grows on demand
+        } else {
+            return new MpscArrayQueue<>(capacity);
+        }
+    }
+    
     private void verifyTimestamp(Entry<E> entry) {
         if (LOG.isDebugEnabled()) {
             long updTs = entry.getBusinessTs();
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import se.motility.ziploq.api.Pacer;
+
+/**
+ * Implementation of {@link Pacer}. The schedule is kept by the Consumer thread; only
+ * the speed factor and the pacing error histogram are shared with other threads.
+ *
+ * @author M Tegling
+ */
+public class PacerImpl implements Pacer {
+
+    private static final long SPIN_NANOS = Long.getLong("ziploq.pacer.spin_nanos", 50_000L);
+
+    private final LogLinearHistogram errors = new LogLinearHistogram();
+    private final long unitNanos;
+    private final long maxLagNanos;
+
+    private volatile double speed;
+
+    //Consumer thread state
+    private boolean anchored = false;
+    private double anchorSpeed;
+    private long anchorBusinessTs;
+    private long anchorNanos;
+    private long lastBusinessTs;
+    private long lastTarget;
+
+    public PacerImpl(double speed, long unitNanos, long maxLagNanos) {
+        this.unitNanos = unitNanos;
+        this.maxLagNanos = maxLagNanos;
+        setSpeed(speed);
+    }
+
+    @Override
+    public void await(long businessTs) throws InterruptedException {
+        double s = speed;
+        if (s == AS_FAST_AS_POSSIBLE) {
+            anchored = false; //re-anchor when slowing down again
+            lastBusinessTs = businessTs;
+            return;
+        }
+        long now = System.nanoTime();
+        if (!anchored) {
+            anchor(businessTs, now, s);
+        } else if (s != anchorSpeed) {
+            anchor(lastBusinessTs, lastTarget, s); //continue from the latest release
+        }
+        long target = anchorNanos + (long) ((double) (businessTs - anchorBusinessTs) * unitNanos / s);
+        if (now - target > maxLagNanos) {
+            anchor(businessTs, now, s); //drop the backlog rather than bursting to catch up
+            target = now;
+        }
+        if (!WaitStrategy.awaitDeadline(target, SPIN_NANOS)) {
+            throw new InterruptedException("Thread interrupted.");
+        }
+        errors.record(Math.abs(System.nanoTime() - target));
+        lastBusinessTs = businessTs;
+        lastTarget = target;
+    }
+
+    @Override
+    public void setSpeed(double speed) {
+        if (!(speed > 0.0)) {
+            throw new IllegalArgumentException("Speed must be greater than 0. Provided value was " + speed);
+        }
+        this.speed = speed;
+    }
+
+    @Override
+    public double getSpeed() {
+        return speed;
+    }
+
+    @Override
+    public long getPacingError(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 1.0)) {
+            throw new IllegalArgumentException("Percentile must be in the range [0, 1]. Provided value was "
+                    + percentile);
+        }
+        return errors.valueAtPercentile(percentile);
+    }
+
+    private void anchor(long businessTs, long nanos, double s) {
+        anchored = true;
+        anchorSpeed = s;
+        anchorBusinessTs = businessTs;
+        anchorNanos = nanos;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+abstract class ProducerClockPad0 {
+    long p000, p001, p002, p003, p004, p005, p006, p007;
+    long p010, p011, p012, p013, p014, p015, p016;
+}
+
+abstract class ProducerClockSharedFields extends ProducerClockPad0 {
+    //Written by Producer, read by Consumer
+    volatile long system = 0L;
+    volatile long watermark = Long.MIN_VALUE;
+}
+
+abstract class ProducerClockPad1 extends ProducerClockSharedFields {
+    long p100, p101, p102, p103, p104, p105, p106, p107;
+    long p110, p111, p112, p113, p114, p115, p116;
+}
+
+abstract class ProducerClockProducerFields extends ProducerClockPad1 {
+    volatile int owned = 0; //Producer-side lock, only used when heart-beaten by a ticker
+    long published   = 0L;
+    long graceExpiry = 0L;
+    long lastSystem  = 0L; //start from 0 to prevent underflow
+}
+
+abstract class ProducerClockPad2 extends ProducerClockProducerFields {
+    long p200, p201, p202, p203, p204, p205, p206, p207;
+    long p210, p211, p212, p213, p214, p215, p216;
+}
+
+abstract class ProducerClockConsumerFields extends ProducerClockPad2 {
+    long checkpoint  = 0L;
+}
+
+abstract class ProducerClockPad3 extends ProducerClockConsumerFields {
+    long p300, p301, p302, p303, p304, p305, p306, p307;
+    long p310, p311, p312, p313, p314, p315, p316;
+}
+
+/**
+ * System clock of a single input source, shared between its Producer thread and the
+ * Consumer thread of the associated {@link ZiploqImpl}.
+ * <p>
+ * All bookkeeping done by the Producer thread (last seen system time and recovery grace
+ * period) is kept in plain fields. The only state crossing threads is the <i>published</i>
+ * system time, which is written using an ordered (lazy) store. Such a store has release
+ * semantics, but does not require the full fence of a volatile store.
+ * <p>
+ * The Consumer uses the published value as a checkpoint. Before polling the source's queue,
+ * it reads the published system time ({@link #setCheckpoint}). Since the Producer publishes
+ * <i>after</i> enqueuing, everything enqueued before the checkpoint value was published is
+ * visible to the subsequent poll. If the published value is unchanged when the Consumer later
+ * verifies the checkpoint ({@link #verifyCheckpoint}), the Producer has not signalled any
+ * progress in between and the source's system time can be trusted. Published values are
+ * strictly increasing, so a changed value is always detected.
+ * <p>
+ * The published, Producer-private and Consumer-private fields are kept on separate cache
+ * lines by padding through class inheritance (as done in JCTools). This way, Producer
+ * bookkeeping does not invalidate the line read by the Consumer, and the Consumer's
+ * checkpoint does not invalidate the line written by the Producer.
+ * <p>
+ * Along with system time, the Producer may publish a business time low-watermark. It follows
+ * the same protocol: the Consumer reads it before polling and, if nothing was polled, treats
+ * it as a virtual head of the source.
+ * <p>
+ * The Producer handles disconnects by padding any sudden jumps in system time (from an
+ * event perspective) by a recovery time. No system time is published during recovery.
+ * <p>
+ * System time updates without any associated message (heartbeats) may be coalesced. With a
+ * non-zero {@code heartbeatCoalescing}, a heartbeat is only due for publishing when it
+ * advances system time by more than that amount compared to the last published value.
+ * <p>
+ * A source may also be heart-beaten by a ticker thread while idle. In that case, the Producer
+ * side of this clock is guarded by a lightweight lock ({@link #lock}); the Producer always
+ * acquires it for each event whereas the ticker only makes an attempt ({@link #tryLock}).
+ *
+ * @author M Tegling
+ */
+final class ProducerClock extends ProducerClockPad3 {
+
+    private static final AtomicLongFieldUpdater<ProducerClockSharedFields> SYSTEM =
+            AtomicLongFieldUpdater.newUpdater(ProducerClockSharedFields.class, "system");
+    private static final AtomicLongFieldUpdater<ProducerClockSharedFields> WATERMARK =
+            AtomicLongFieldUpdater.newUpdater(ProducerClockSharedFields.class, "watermark");
+    private static final AtomicIntegerFieldUpdater<ProducerClockProducerFields> OWNED =
+            AtomicIntegerFieldUpdater.newUpdater(ProducerClockProducerFields.class, "owned");
+
+    private final long systemDelay;
+    private final long heartbeatCoalescing;
+
+    ProducerClock(long systemDelay, long heartbeatCoalescing) {
+        this.systemDelay = systemDelay;
+        this.heartbeatCoalescing = heartbeatCoalescing;
+    }
+
+    // -- Producer side -- //
+
+    /**
+     * Returns the system time of the latest event or update
+     * @return the system time of the latest event or update
+     */
+    long lastSystemTs() {
+        return lastSystem;
+    }
+
+    /**
+     * Registers a message event at the provided system time. A sudden jump in
+     * system time initiates a recovery period. Nothing is published.
+     * @param systemTs of the message
+     */
+    void onMessage(long systemTs) {
+        if (systemTs - lastSystem > systemDelay) {
+            //The producer has made a sudden jump in system time. Wait for recovery.
+            graceExpiry = systemTs + systemDelay;
+        }
+        lastSystem = systemTs;
+    }
+
+    /**
+     * Registers a system time update without any message. Updating system time
+     * means the Producer has recovered. Nothing is published.
+     * @param systemTs of the update
+     */
+    void onUpdate(long systemTs) {
+        if (graceExpiry > systemTs) {
+            //Calling updateSystemTime means we've recovered
+            graceExpiry = systemTs;
+        }
+        lastSystem = systemTs;
+    }
+
+    /**
+     * Checks whether a heartbeat at the provided system time should be published,
+     * or if it can be coalesced with subsequent heartbeats
+     * @param systemTs of the heartbeat
+     * @return {@code true} if the heartbeat should be published
+     */
+    boolean isHeartbeatDue(long systemTs) {
+        return heartbeatCoalescing == 0L || systemTs - published > heartbeatCoalescing;
+    }
+
+    /**
+     * Publishes the latest system time to the Consumer, unless it has already
+     * been published or the Producer is recovering. Must be called after the
+     * associated messages have been enqueued.
+     */
+    void publish() {
+        long ts = lastSystem;
+        if (ts > published && ts >= graceExpiry) {
+            published = ts;
+            SYSTEM.lazySet(this, ts);
+        }
+    }
+
+    /**
+     * Publishes the lowest business timestamp of any subsequent message to the Consumer.
+     * Must be called after any associated messages have been enqueued.
+     * @param businessTs business time low-watermark
+     */
+    void advanceBusinessTs(long businessTs) {
+        if (businessTs > watermark) {
+            WATERMARK.lazySet(this, businessTs);
+        }
+    }
+
+    /**
+     * Checks whether the Producer has recovered from any sudden jump in system time
+     * @param systemTs to check
+     * @return {@code true} if not recovering at the provided system time
+     */
+    boolean isRecovered(long systemTs) {
+        return systemTs >= graceExpiry;
+    }
+
+    /**
+     * Acquires the Producer side of this clock, spinning if held by a ticker
+     */
+    void lock() {
+        int attempt = 1;
+        while (!OWNED.compareAndSet(this, 0, 1)) {
+            WaitStrategy.backOffWait(attempt++);
+        }
+    }
+
+    /**
+     * Acquires the Producer side of this clock, unless already held
+     * @return {@code true} if acquired
+     */
+    boolean tryLock() {
+        return OWNED.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * Releases the Producer side of this clock
+     */
+    void unlock() {
+        OWNED.lazySet(this, 0);
+    }
+
+    // -- Consumer side -- //
+
+    /**
+     * Returns the published system time
+     * @return the published system time
+     */
+    long get() {
+        return system;
+    }
+
+    /**
+     * Returns the published business time low-watermark. If read before polling
+     * and the poll returns nothing, no subsequent message will have a lower business
+     * timestamp than this.
+     * @return the published business time low-watermark
+     */
+    long getBusinessWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Records the published system time. Must be called before polling.
+     */
+    void setCheckpoint() {
+        checkpoint = system;
+    }
+
+    /**
+     * Checks that no system time has been published since the last checkpoint
+     * @return {@code true} if no system time has been published since checkpoint
+     */
+    boolean verifyCheckpoint() {
+        return system == checkpoint;
+    }
+
+}
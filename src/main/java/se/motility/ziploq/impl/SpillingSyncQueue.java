@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.impl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.SpillPolicy;
+
+/**
+ * Unbounded queue for ordered input, holding at most {@code capacity} messages in memory.
+ * Messages beyond that are spilled to memory-mapped segment files, see {@link SpillPolicy}.
+ * <p>
+ * Once the in-memory queue is full, all subsequent messages are spilled until the Consumer
+ * thread has read back every spilled message. Hence, spilled messages are always newer than
+ * the messages in memory, and the Consumer thread keeps FIFO order by draining memory first.
+ * <p>
+ * Spilled records consist of an {@code int} record length, business and system timestamps
+ * and the encoded message. A record length of -1 means that the next record is found at the
+ * start of the next segment.
+ * <p>
+ * Signals when the desired maximum capacity has been reached, like {@link UnboundedSyncQueue}.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ * @see SyncQueue
+ */
+public class SpillingSyncQueue<E> implements SyncQueue<E> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillingSyncQueue.class);
+
+    private static final int HEADER = 20;
+    private static final int NEXT_SEGMENT = -1;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SpillingSyncQueue> SPILLED =
+            AtomicLongFieldUpdater.newUpdater(SpillingSyncQueue.class, "spilled");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SpillingSyncQueue> UNSPILLED =
+            AtomicLongFieldUpdater.newUpdater(SpillingSyncQueue.class, "unspilled");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SpillingSyncQueue> SPILLED_BYTES =
+            AtomicLongFieldUpdater.newUpdater(SpillingSyncQueue.class, "spilledBytes");
+
+    private final SyncQueue<E> memory;
+    private final MessageCodec<E> codec;
+    private final Path dir;
+    private final int segmentSize;
+    private final Queue<ByteBuffer> segments = new ConcurrentLinkedQueue<>(); //handed over to Consumer
+
+    //Producer fields
+    private ByteBuffer writeBuffer;
+    private boolean spilling;
+    private volatile FlowConsumerImpl<E> owner; //published along with the first spilled record
+
+    //Consumer fields
+    private ByteBuffer readBuffer;
+    private long read;
+    private EntryImpl<E> peeked;
+
+    //Shared fields
+    private volatile long spilled;
+    private volatile long unspilled;
+    private volatile long spilledBytes;
+    private volatile int spillSegments;
+
+    SpillingSyncQueue(int capacity, SpillPolicy<E> policy) {
+        this.memory = new OrderedSyncQueue<>(capacity);
+        this.codec = policy.getCodec();
+        this.dir = policy.getDir();
+        this.segmentSize = policy.getSegmentSize();
+    }
+
+    /**
+     * Immediately puts entry in memory or spills it to disk. Never blocks.
+     * @return {@code true} if the entry was kept in memory, {@code false} if spilled
+     */
+    @Override
+    public boolean offer(Entry<E> entry) {
+        if (!spilling) {
+            if (memory.offer(entry)) {
+                return true;
+            }
+            spilling = true;
+        } else if (spilled == unspilled && memory.offer(entry)) {
+            spilling = false; //Consumer has caught up
+            return true;
+        }
+        spill(entry);
+        return false;
+    }
+
+    /**
+     * Immediately puts entry in memory or spills it to disk. Never blocks.
+     * @return {@code true} if the entry was kept in memory, {@code false} if spilled
+     */
+    @Override
+    public boolean put(Entry<E> entry) {
+        return offer(entry);
+    }
+
+    /**
+     * Immediately puts all entries in memory or spills them to disk. Never blocks.
+     * @return the number of entries in {@code entries}
+     */
+    @Override
+    public int offer(List<? extends Entry<E>> entries) {
+        for (Entry<E> entry : entries) {
+            offer(entry);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Immediately puts all entries in memory or spills them to disk. Never blocks.
+     * @return {@code true} if all entries were kept in memory, {@code false} otherwise
+     */
+    @Override
+    public boolean put(List<? extends Entry<E>> entries) {
+        boolean inMemory = true;
+        for (Entry<E> entry : entries) {
+            inMemory &= offer(entry);
+        }
+        return inMemory;
+    }
+
+    @Override
+    public void updateSystemTs(long timestamp) {
+        //do nothing
+    }
+
+    @Override
+    public void updateBusinessTs(long timestamp) {
+        //do nothing
+    }
+
+    @Override
+    public long nextPromotionTs() {
+        return Long.MAX_VALUE; //messages are never held
+    }
+
+    @Override
+    public long getBusinessDelay() {
+        return 0L;
+    }
+
+    @Override
+    public Entry<E> poll() {
+        if (peeked != null) {
+            Entry<E> entry = peeked;
+            peeked = null;
+            UNSPILLED.lazySet(this, unspilled + 1);
+            return entry;
+        }
+        Entry<E> entry = memory.poll();
+        if (entry != null) {
+            return entry;
+        }
+        entry = readSpilled();
+        if (entry != null) {
+            UNSPILLED.lazySet(this, unspilled + 1);
+        }
+        return entry;
+    }
+
+    @Override
+    public Entry<E> peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+        Entry<E> entry = memory.peek();
+        if (entry != null) {
+            return entry;
+        }
+        return peeked = readSpilled();
+    }
+
+    @Override
+    public int size() {
+        return memory.size() + (int) Math.min(spilled - unspilled, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int readySize() {
+        return size();
+    }
+
+    /**
+     * Returns remaining in-memory capacity. The value 0 means that messages are being spilled.
+     * @return number of entries the queue can accept until messages are spilled
+     */
+    @Override
+    public int remainingCapacity() {
+        return spilled != unspilled ? 0 : memory.remainingCapacity();
+    }
+
+    @Override
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    @Override
+    public int getSpillSegments() {
+        return spillSegments;
+    }
+
+    private void spill(Entry<E> entry) {
+        if (owner == null) {
+            owner = ((EntryImpl<E>) entry).getQueueRef();
+        }
+        if (writeBuffer == null) {
+            writeBuffer = newSegment();
+        }
+        int start = writeBuffer.position();
+        if (!tryEncode(entry, start)) {
+            writeBuffer.putInt(start, NEXT_SEGMENT);
+            writeBuffer = newSegment();
+            start = 0;
+            if (!tryEncode(entry, start)) {
+                throw new IllegalArgumentException("Message does not fit in a spill segment of "
+                        + segmentSize + " bytes: " + entry.getMessage());
+            }
+        }
+        SPILLED_BYTES.lazySet(this, spilledBytes + writeBuffer.position() - start);
+        SPILLED.lazySet(this, spilled + 1); //publishes the record
+    }
+
+    private boolean tryEncode(Entry<E> entry, int start) {
+        ByteBuffer buf = writeBuffer;
+        //keep room for the next-segment marker
+        if (start + HEADER + Integer.BYTES > buf.capacity()) {
+            return false;
+        }
+        ((Buffer) buf).limit(buf.capacity() - Integer.BYTES).position(start + HEADER); //Buffer methods, for Java 8 compatibility
+        try {
+            codec.encode(entry.getMessage(), buf);
+        } catch (BufferOverflowException e) {
+            ((Buffer) buf).limit(buf.capacity()).position(start);
+            return false;
+        }
+        int end = buf.position();
+        ((Buffer) buf).limit(buf.capacity());
+        buf.putInt(start, end - start);
+        buf.putLong(start + 4, entry.getBusinessTs());
+        buf.putLong(start + 12, entry.getSystemTs());
+        return true;
+    }
+
+    private EntryImpl<E> readSpilled() {
+        if (read == spilled) {
+            return null;
+        }
+        if (readBuffer == null) {
+            readBuffer = segments.poll();
+        }
+        read++;
+        ByteBuffer buf = readBuffer;
+        int start = buf.position();
+        int length = buf.getInt(start);
+        if (length == NEXT_SEGMENT) {
+            buf = readBuffer = segments.poll();
+            start = 0;
+            length = buf.getInt(start);
+        }
+        long businessTs = buf.getLong(start + 4);
+        long systemTs = buf.getLong(start + 12);
+        ((Buffer) buf).limit(start + length).position(start + HEADER);
+        E message = codec.decode(buf);
+        ((Buffer) buf).limit(buf.capacity()).position(start + length);
+        return new EntryImpl<>(message, businessTs, systemTs, owner);
+    }
+
+    private ByteBuffer newSegment() {
+        Path file = null;
+        try {
+            Files.createDirectories(dir);
+            file = Files.createTempFile(dir, "ziploq-spill-", ".segment");
+            MappedByteBuffer mapped;
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                    FileChannel channel = raf.getChannel()) {
+                raf.setLength(segmentSize);
+                mapped = channel.map(MapMode.READ_WRITE, 0L, segmentSize); //valid after close
+            }
+            deleteMapped(file);
+            ByteBuffer write = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            segments.offer(write.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+            spillSegments++;
+            LOG.debug("Spilling to new segment {} (segments created: {}).", file, spillSegments);
+            return write;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spill segment in " + dir, e);
+        }
+    }
+
+    private static void deleteMapped(Path file) {
+        try {
+            Files.delete(file); //space is reclaimed once unmapped
+        } catch (IOException e) {
+            file.toFile().deleteOnExit(); //platform doesn't permit deleting mapped files
+        }
+    }
+
+}
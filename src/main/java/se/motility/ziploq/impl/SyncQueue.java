@@ -1,10 +1,12 @@
 /*
- * Copyright (c) 2018 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.impl;
 
+import java.util.List;
+
 import se.motility.ziploq.api.Entry;
 import se.motility.ziploq.api.RuntimeInterruptedException;
 
@@ -34,6 +36,26 @@ public interface SyncQueue<E> {
      * @throws RuntimeInterruptedException if blocking thread was interrupted
      */
     boolean put(Entry<E> entry);
+    
+    /**
+     * Tries to enqueue the provided entries, in order, using as few synchronization operations
+     * as possible. If the queue cannot fit all entries, the remaining tail of entries is
+     * <i>dropped</i>. For queues with an internal vector clock, all entries will advance the
+     * clock, even if being dropped.
+     * @param entries to enqueue
+     * @return the number of entries enqueued, counted from the start of {@code entries}
+     */
+    int offer(List<? extends Entry<E>> entries);
+    
+    /**
+     * Enqueues the provided entries, in order, using as few synchronization operations as
+     * possible. If the queue cannot fit all entries, it will <i>block</i> until capacity is
+     * available.
+     * @param entries to enqueue
+     * @return {@code true}
+     * @throws RuntimeInterruptedException if blocking thread was interrupted
+     */
+    boolean put(List<? extends Entry<E>> entries);
  
     /**
      * Updates last seen system timestamp. May release held messages in queues with
@@ -42,6 +64,29 @@ public interface SyncQueue<E> {
      */
     void updateSystemTs(long timestamp);
     
+    /**
+     * Updates the lowest business timestamp of any subsequent entry. May release held messages
+     * in queues with sorting functionality. Not applicable for other queues (no-op).
+     * @param timestamp business timestamp (epoch)
+     */
+    void updateBusinessTs(long timestamp);
+    
+    /**
+     * Returns the lowest system timestamp which, if provided to {@link #updateSystemTs},
+     * would release held messages. Queues without sorting functionality never hold any
+     * messages. Must only be called by the Producer thread.
+     * @return the lowest system timestamp releasing held messages, or {@code Long.MAX_VALUE}
+     * if no messages are being held
+     */
+    long nextPromotionTs();
+    
+    /**
+     * Returns the business delay currently applied by queues with sorting functionality.
+     * Queues without sorting functionality always return 0. May be called by any thread.
+     * @return the current business delay
+     */
+    long getBusinessDelay();
+    
     /**
      * Retrieves and removes the head of the queue, or returns {@code null} if the
      * queue is empty.
@@ -75,4 +120,20 @@ public interface SyncQueue<E> {
      */
     int remainingCapacity();
     
+    /**
+     * Returns the total number of bytes spilled to disk, see {@link SpillingSyncQueue}
+     * @return number of bytes spilled, or 0 if the queue doesn't spill
+     */
+    default long getSpilledBytes() {
+        return 0L;
+    }
+    
+    /**
+     * Returns the number of segment files created for spilling to disk
+     * @return number of spill segments created, or 0 if the queue doesn't spill
+     */
+    default int getSpillSegments() {
+        return 0;
+    }
+    
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -7,6 +7,9 @@ package se.motility.ziploq.impl;
 
 import java.util.Comparator;
 
+import se.motility.ziploq.api.AdaptiveDelay;
+import se.motility.ziploq.api.SpillPolicy;
+
 /**
  * Factory for creating instances of {@link SyncQueue}
  * to use in e.g. {@link ZiploqImpl} 
@@ -54,6 +57,34 @@ public interface SyncQueueFactory {
 
     }
     
+    /**
+     * Factory method for creating a {@link SyncQueue} for unordered input, having its business
+     * delay estimated from observed lateness
+     * @param businessDelay configuration of the adaptive business delay. Its maximum delay
+     * must not be greater than {@code systemDelay}.
+     * @param systemDelay maximum amount of <i>system time</i> (wall-clock time; provided by
+     * Producer) that any message can arrive late, compared to other messages with the exact
+     * same business timestamp. Must be non-negative.
+     * @param softCapacity of the queue; rounded up to the next power of 2 (if not already
+     * power of 2). Messages having business timestamps within the current business delay
+     * won't count towards the total capacity.
+     * @param capacityType of the queue ({@link CapacityType#BOUNDED}/{@link CapacityType#UNBOUNDED})
+     * @param comparator to use if multiple messages have the exact same business
+     * timestamp. If {@code null} is provided, no ordering is imposed on ties.
+     * @param <E> message type
+     * @return {@code SyncQueue} to use with unordered input
+     */
+    static <E> SyncQueue<E> createUnordered(AdaptiveDelay businessDelay, long systemDelay,
+            int softCapacity, CapacityType capacityType, Comparator<E> comparator) {
+        ArgChecker.notNull(businessDelay, "businessDelay");
+        ArgChecker.validateLong(businessDelay.getMaxDelay(), systemDelay, true, "businessDelay");
+        ArgChecker.validateLong(softCapacity, 1, false, "capacity");
+        ArgChecker.notNull(capacityType, "capacityType");
+        return capacityType == CapacityType.UNBOUNDED
+                ? UnboundedSyncQueue.unorderedSyncQueue(businessDelay, systemDelay, softCapacity, comparator)
+                : new UnorderedSyncQueue<>(businessDelay, systemDelay, softCapacity, comparator);
+    }
+    
     /**
      * Factory method for creating a {@link SyncQueue} for ordered input
      * @param capacity of the queue; rounded up to the next power of 2 (if not already power of 2) 
@@ -62,11 +93,40 @@ public interface SyncQueueFactory {
      * @return {@code SyncQueue} to use with ordered input
      */
     static <E> SyncQueue<E> createOrdered(int capacity, CapacityType capacityType) {
+        return createOrdered(capacity, OrderedSyncQueue.CHUNK_SIZE, capacityType);
+    }
+    
+    /**
+     * Factory method for creating a {@link SyncQueue} for ordered input with an explicit chunk
+     * size. Bounded queues having a capacity larger than the chunk size allocate their buffer
+     * lazily, one chunk at a time, and release chunks once they have been consumed.
+     * @param capacity of the queue; rounded up to the next power of 2 (if not already power of 2)
+     * @param chunkSize number of entries to allocate at a time; rounded up to the next power of 2
+     * (if not already power of 2). A non-positive value means the full capacity is allocated up front
+     * @param capacityType of the queue ({@link CapacityType#BOUNDED}/{@link CapacityType#UNBOUNDED})
+     * @param <E> message type
+     * @return {@code SyncQueue} to use with ordered input
+     */
+    static <E> SyncQueue<E> createOrdered(int capacity, int chunkSize, CapacityType capacityType) {
         ArgChecker.validateLong(capacity, 1, false, "capacity");
         ArgChecker.notNull(capacityType, "capacityType");
         return capacityType == CapacityType.UNBOUNDED
                 ? UnboundedSyncQueue.orderedSyncQueue(capacity)
-                : new OrderedSyncQueue<>(capacity);
+                : new OrderedSyncQueue<>(capacity, chunkSize);
+    }
+    
+    /**
+     * Factory method for creating an unbounded {@link SyncQueue} for ordered input, spilling
+     * entries beyond capacity to disk
+     * @param capacity of the in-memory queue; rounded up to the next power of 2 (if not already power of 2)
+     * @param spillPolicy determining how to spill entries beyond capacity
+     * @param <E> message type
+     * @return {@code SyncQueue} to use with ordered input
+     */
+    static <E> SyncQueue<E> createSpilling(int capacity, SpillPolicy<E> spillPolicy) {
+        ArgChecker.validateLong(capacity, 1, false, "capacity");
+        ArgChecker.notNull(spillPolicy, "spillPolicy");
+        return new SpillingSyncQueue<>(capacity, spillPolicy);
     }
     
 }
@@ -1,12 +1,14 @@
 /*
- * Copyright (c) 2019 Måns Tegling
+ * Copyright (c) 2019-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.impl;
 
 import java.util.Comparator;
+import java.util.List;
 
+import se.motility.ziploq.api.AdaptiveDelay;
 import se.motility.ziploq.api.Entry;
 
 /**
@@ -46,6 +48,13 @@ public class UnboundedSyncQueue<E> implements SyncQueue<E> {
         return new UnboundedSyncQueue<>(queue, capacity);
     }
     
+    static <T> UnboundedSyncQueue<T> unorderedSyncQueue(AdaptiveDelay businessDelay,
+            long systemDelay, int capacity, Comparator<T> comparator) {
+        SyncQueue<T> queue = new UnorderedSyncQueue<>(
+                businessDelay, systemDelay, Integer.MAX_VALUE, comparator);
+        return new UnboundedSyncQueue<>(queue, capacity);
+    }
+    
     private UnboundedSyncQueue(SyncQueue<E> delegate, int capacity) {
         this.delegate = delegate;
         this.desiredCapacity = capacity;
@@ -77,11 +86,51 @@ public class UnboundedSyncQueue<E> implements SyncQueue<E> {
         return checkCapacity();
     }
 
+    /**
+     * Immediately puts all entries on the unbounded queue and returns. Never blocks.
+     * @return the number of entries in {@code entries}
+     */
+    @Override
+    public int offer(List<? extends Entry<E>> entries) {
+        if (delegate.offer(entries) != entries.size()) {
+            throw new IllegalStateException("Delegate does not accept new entries. Class: " 
+                    + delegate.getClass());
+        }
+        checkCapacity(entries.size());
+        return entries.size();
+    }
+    
+    /**
+     * Immediately puts all entries on the unbounded queue and returns. Never blocks.
+     * @return {@code true} if there's still space left until the desired
+     * maximum capacity has been reached, {@code false} otherwise
+     */
+    @Override
+    public boolean put(List<? extends Entry<E>> entries) {
+        delegate.put(entries);
+        return checkCapacity(entries.size());
+    }
+
     @Override
     public void updateSystemTs(long timestamp) {
         delegate.updateSystemTs(timestamp);
     }
 
+    @Override
+    public void updateBusinessTs(long timestamp) {
+        delegate.updateBusinessTs(timestamp);
+    }
+
+    @Override
+    public long nextPromotionTs() {
+        return delegate.nextPromotionTs();
+    }
+
+    @Override
+    public long getBusinessDelay() {
+        return delegate.getBusinessDelay();
+    }
+
     @Override
     public Entry<E> poll() {
         return delegate.poll();
@@ -121,4 +170,13 @@ public class UnboundedSyncQueue<E> implements SyncQueue<E> {
         return true;
     }
     
+    private boolean checkCapacity(int added) {
+        int previous = counter;
+        counter += added;
+        if (added > MASK || (previous & ~MASK) != (counter & ~MASK)) {
+            return readySize() <= desiredCapacity;
+        }
+        return true;
+    }
+    
 }
@@ -1,11 +1,12 @@
 /*
- * Copyright (c) 2018-2019 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
 package se.motility.ziploq.impl;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 
@@ -13,6 +14,7 @@ import org.jctools.queues.MpscLinkedQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import se.motility.ziploq.api.AdaptiveDelay;
 import se.motility.ziploq.api.Entry;
 import se.motility.ziploq.api.RuntimeInterruptedException;
 
@@ -21,6 +23,8 @@ import se.motility.ziploq.api.RuntimeInterruptedException;
  * <p>
  * Messages are sequenced first according to <i>business timestamp</i>, then by associated
  * {@code Ziploq}'s {@code Comparator} and last by configured {@code Comparator}.
+ * <p>
+ * The business delay is either fixed or estimated from observed lateness; see {@link AdaptiveDelay}.
  * 
  * @author M Tegling
  *
@@ -36,21 +40,33 @@ public class UnorderedSyncQueue<E> implements SyncQueue<E> {
     
     private final Queue<Entry<E>> staging;
     private final Queue<Entry<E>> ready;
-    private final long businessDelay;
+    private final LatenessEstimator estimator; //null if business delay is fixed
     private final long systemDelay;
     private final int softCapacity;
     
     private long ts1Max = 0L; //start from 0 to prevent underflow
     private long ts2Max = 0L;
+    private long watermark = Long.MIN_VALUE; //no subsequent entries below this business timestamp
+    private long businessDelay;
     private int lSize; //store Producer thread's local size guess to avoid unnecessary size() traversals
     
     UnorderedSyncQueue(long businessDelay, long systemDelay, int softCapacity, Comparator<E> comparator) {
+        this(businessDelay, null, systemDelay, softCapacity, comparator);
+    }
+    
+    UnorderedSyncQueue(AdaptiveDelay businessDelay, long systemDelay, int softCapacity, Comparator<E> comparator) {
+        this(businessDelay.getMaxDelay(), new LatenessEstimator(businessDelay), systemDelay, softCapacity, comparator);
+    }
+    
+    private UnorderedSyncQueue(long businessDelay, LatenessEstimator estimator, long systemDelay,
+            int softCapacity, Comparator<E> comparator) {
         Comparator<Entry<E>> cmp = comparator != null
                 ? this.comparator.thenComparing(Entry::getMessage, comparator)
                 : this.comparator;
         this.staging = new PriorityQueue<>(cmp);
         this.ready = new MpscLinkedQueue<>(); //unbounded
         this.businessDelay = businessDelay;
+        this.estimator = estimator;
         this.systemDelay = systemDelay;
         this.softCapacity = softCapacity;
     }
@@ -83,6 +99,31 @@ public class UnorderedSyncQueue<E> implements SyncQueue<E> {
         return true;
     }
     
+    @Override
+    public int offer(List<? extends Entry<E>> entries) {
+        //sequencing is local to the Producer thread; only promotion to 'ready' is shared
+        int accepted = 0;
+        boolean dropping = false;
+        for (Entry<E> entry : entries) {
+            verifyTimestamps(entry.getBusinessTs(), entry.getSystemTs());
+            if (dropping) {
+                updateVectorClock(entry); //drop the remaining tail but keep advancing the clock
+            } else if (enqueue(entry)) {
+                accepted++;
+            } else {
+                dropping = true; //the clock has already been advanced by enqueue
+            }
+        }
+        promoteMessages();
+        return accepted;
+    }
+    
+    @Override
+    public boolean put(List<? extends Entry<E>> entries) {
+        entries.forEach(this::put);
+        return true;
+    }
+    
     private void verifyTimestamps(long businessTs, long systemTs) {
         if (LOG.isDebugEnabled()) {
             if (ts1Max - businessTs > businessDelay) {
@@ -107,6 +148,28 @@ public class UnorderedSyncQueue<E> implements SyncQueue<E> {
         promoteMessages();
     }
     
+    @Override
+    public void updateBusinessTs(long businessTs) {
+        if (businessTs > watermark) {
+            watermark = businessTs;
+        }
+        promoteMessages();
+    }
+    
+    @Override
+    public long nextPromotionTs() {
+        Entry<E> tmpPeek = staging.peek();
+        if (tmpPeek == null || tmpPeek.getSystemTs() > Long.MAX_VALUE - systemDelay - 1) {
+            return Long.MAX_VALUE;
+        }
+        return tmpPeek.getSystemTs() + systemDelay + 1;
+    }
+    
+    @Override
+    public long getBusinessDelay() {
+        return estimator != null ? estimator.getDelay() : businessDelay;
+    }
+    
     @Override
     public int size() {
         //Total size; including messages not ready yet
@@ -135,6 +198,9 @@ public class UnorderedSyncQueue<E> implements SyncQueue<E> {
     
     private void updateVectorClock(Entry<E> entry) {
         long businessTs = entry.getBusinessTs();
+        if (estimator != null) {
+            businessDelay = estimator.record(ts1Max - businessTs);
+        }
         if (businessTs > ts1Max) {
             ts1Max = businessTs;
         }
@@ -148,6 +214,7 @@ public class UnorderedSyncQueue<E> implements SyncQueue<E> {
         Entry<E> tmpPeek = staging.peek();
         return tmpPeek != null && (
                 ts1Max - tmpPeek.getBusinessTs() >= businessDelay ||
+                tmpPeek.getBusinessTs() < watermark ||
                 ts2Max - tmpPeek.getSystemTs() > systemDelay);
     }
     
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  * 
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -42,4 +42,26 @@ public interface WaitStrategy {
         LockSupport.parkNanos(nanos);
     }
     
+    /**
+     * Wait until {@link System#nanoTime()} reaches the provided deadline. Parks until
+     * {@code spinNanos} remain, then busy-spins to avoid the scheduling jitter of
+     * waking up from park.
+     * @param deadline in {@code System.nanoTime()} terms
+     * @param spinNanos to busy-spin before the deadline
+     * @return {@code false} if the thread was interrupted before the deadline
+     */
+    static boolean awaitDeadline(long deadline, long spinNanos) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > spinNanos) {
+            LockSupport.parkNanos(remaining - spinNanos);
+            if (Thread.interrupted()) {
+                return false;
+            }
+        }
+        while (deadline - System.nanoTime() > 0) {
+            //busy-spin
+        }
+        return true;
+    }
+    
 }
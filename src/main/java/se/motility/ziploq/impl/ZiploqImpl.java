@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018-2022 Måns Tegling
+ * Copyright (c) 2018-2026 Måns Tegling
  *
  * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
  */
@@ -13,14 +13,23 @@ import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import se.motility.ziploq.api.AdaptiveDelay;
 import se.motility.ziploq.api.BackPressureStrategy;
 import se.motility.ziploq.api.Entry;
 import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.SpillPolicy;
+import se.motility.ziploq.api.TimestampedIterator;
+import se.motility.ziploq.api.LateDataPolicy.Action;
 import se.motility.ziploq.api.ZipFlow;
 import se.motility.ziploq.api.Ziploq;
 import se.motility.ziploq.impl.SyncQueueFactory.CapacityType;
@@ -73,24 +82,59 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
     private final UnorderedCollection<FlowConsumerImpl<? extends E>> outsideHeads = new UnorderedCollection<>();
     private final PriorityQueue<EntryImpl<E>> heads;
     private final long systemDelay;
+    private final double heartbeatCoalescing;
     private final Comparator<Entry<E>> effectiveComparator;
     private final Comparator<E> secondaryComparator;
+    private final AtomicInteger ordinals = new AtomicInteger();
+    private final IntConsumer recorder; //null unless recording emission decisions
+    
+    private IntSupplier replay; //null unless replaying; cleared once exhausted
+    private int replayOrdinal = -1;
     
     private volatile boolean dirtyQueues   = true;
-    private volatile boolean dirtySystemTs = true;
     private volatile boolean complete      = false;
-    private long systemTs = 0L;  //start from 0 to prevent underflow
+    private long businessWatermark = Long.MIN_VALUE; //lowest low-watermark among outside heads
     private EntryImpl<E> previous;
     private long lastLoggedWait;
     private final int[] delayStats = new int[8];
     
     public ZiploqImpl(long systemDelay, Comparator<E> comparator) {
+        this(systemDelay, 0.0, comparator);
+    }
+    
+    /**
+     * Creates a new instance coalescing system time updates (heartbeats) which advance
+     * system time by no more than the provided fraction of {@code systemDelay}
+     * @param systemDelay maximum system time delay
+     * @param heartbeatCoalescing fraction of {@code systemDelay}; {@code 0} disables coalescing
+     * @param comparator for resolving business timestamp ties
+     */
+    public ZiploqImpl(long systemDelay, double heartbeatCoalescing, Comparator<E> comparator) {
+        this(systemDelay, heartbeatCoalescing, comparator, null, null);
+    }
+    
+    /**
+     * Creates a new instance either recording or replaying the sequence of sources that
+     * messages are emitted from
+     * @param systemDelay maximum system time delay
+     * @param heartbeatCoalescing fraction of {@code systemDelay}; {@code 0} disables coalescing
+     * @param comparator for resolving business timestamp ties
+     * @param recorder receiving the registration ordinal of the source of each emitted
+     * message; {@code null} disables recording
+     * @param replay providing the registration ordinal of the source to emit the next message
+     * from, or a negative value once exhausted; {@code null} disables replay
+     */
+    public ZiploqImpl(long systemDelay, double heartbeatCoalescing, Comparator<E> comparator,
+            IntConsumer recorder, IntSupplier replay) {
         Comparator<Entry<E>> primaryCmp = Comparator.comparingLong(Entry::getBusinessTs);
         this.effectiveComparator = comparator == null ? primaryCmp :
             primaryCmp.thenComparing(Entry::getMessage, comparator);
         this.heads = new PriorityQueue<>(effectiveComparator);
         this.systemDelay = systemDelay;
+        this.heartbeatCoalescing = heartbeatCoalescing;
         this.secondaryComparator = comparator;
+        this.recorder = recorder;
+        this.replay = replay;
     }
     
     @Override
@@ -126,29 +170,87 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
     public <T extends E> FlowConsumer<T> registerUnordered(
             long businessDelay, int softCapacity, BackPressureStrategy strategy,
             String sourceName, Comparator<T> comparator) {
-        Comparator<T> effectiveCmp;
+        return registerUnordered(businessDelay, softCapacity, strategy, sourceName, comparator, systemDelay);
+    }
+    
+    @Override
+    public <T extends E> FlowConsumer<T> registerUnordered(
+            long businessDelay, int softCapacity, BackPressureStrategy strategy,
+            String sourceName, Comparator<T> comparator, long sourceSystemDelay) {
+        ArgChecker.validateLong(sourceSystemDelay, systemDelay > 0 ? 1 : 0, false, "systemDelay");
+        CapacityType type = strategy == BackPressureStrategy.UNBOUNDED ?
+                CapacityType.UNBOUNDED : CapacityType.BOUNDED;
+        SyncQueue<T> queue = SyncQueueFactory.createUnordered(
+                businessDelay, sourceSystemDelay, softCapacity, type, effectiveComparator(comparator));
+        return register(queue, false, strategy, sourceName, sourceSystemDelay);
+    }
+    
+    @Override
+    public <T extends E> FlowConsumer<T> registerUnordered(
+            AdaptiveDelay businessDelay, int softCapacity, BackPressureStrategy strategy,
+            String sourceName, Comparator<T> comparator) {
+        CapacityType type = strategy == BackPressureStrategy.UNBOUNDED ?
+                CapacityType.UNBOUNDED : CapacityType.BOUNDED;
+        SyncQueue<T> queue = SyncQueueFactory.createUnordered(
+                businessDelay, systemDelay, softCapacity, type, effectiveComparator(comparator));
+        return register(queue, false, strategy, sourceName, systemDelay);
+    }
+    
+    private <T extends E> Comparator<T> effectiveComparator(Comparator<T> comparator) {
         if (secondaryComparator != null) {
             @SuppressWarnings("unchecked") //downcasting type parameter for Comparator is safe
             Comparator<T> cmp = (Comparator<T>) secondaryComparator;
-            effectiveCmp = comparator != null ?
+            return comparator != null ?
                     cmp.thenComparing(comparator) : cmp;
         } else {
-            effectiveCmp = comparator;
+            return comparator;
         }
-        CapacityType type = strategy == BackPressureStrategy.UNBOUNDED ?
-                CapacityType.UNBOUNDED : CapacityType.BOUNDED;
-        SyncQueue<T> queue = SyncQueueFactory.createUnordered(
-                businessDelay, systemDelay, softCapacity, type, effectiveCmp);
-        return register(queue, false, strategy, sourceName);
     }
     
     @Override
     public <T extends E> FlowConsumer<T> registerOrdered(int capacity,
             BackPressureStrategy strategy, String sourceName) {
+        return registerOrdered(capacity, strategy, sourceName, systemDelay);
+    }
+    
+    @Override
+    public <T extends E> FlowConsumer<T> registerOrdered(int capacity,
+            BackPressureStrategy strategy, String sourceName, long sourceSystemDelay) {
+        ArgChecker.validateLong(sourceSystemDelay, systemDelay > 0 ? 1 : 0, false, "systemDelay");
         CapacityType type = strategy == BackPressureStrategy.UNBOUNDED ?
                 CapacityType.UNBOUNDED : CapacityType.BOUNDED;
         SyncQueue<T> queue = SyncQueueFactory.createOrdered(capacity, type);
-        return register(queue, true, strategy, sourceName);
+        return register(queue, true, strategy, sourceName, sourceSystemDelay);
+    }
+    
+    @Override
+    public <T extends E> void registerIterator(Iterator<? extends T> iterator,
+            ToLongFunction<? super T> toTimestamp, String sourceName) {
+        ArgChecker.notNull(iterator, "iterator");
+        ArgChecker.notNull(toTimestamp, "toTimestamp");
+        registerIterator(new IteratorSyncQueue<>(iterator, toTimestamp), sourceName);
+    }
+    
+    @Override
+    public <T extends E> void registerIterator(TimestampedIterator<? extends T> iterator, String sourceName) {
+        ArgChecker.notNull(iterator, "iterator");
+        registerIterator(new IteratorSyncQueue<>(iterator), sourceName);
+    }
+    
+    private <T extends E> void registerIterator(IteratorSyncQueue<T> queue, String sourceName) {
+        FlowConsumerImpl<T> consumer = new FlowConsumerImpl<>(queue, systemDelay,
+                (long) (systemDelay * heartbeatCoalescing), BackPressureStrategy.UNBOUNDED, sourceName,
+                ordinals.getAndIncrement());
+        queue.setOwner(consumer);
+        consumer.complete(); //all data is available
+        register(consumer, true, sourceName);
+    }
+    
+    @Override
+    public <T extends E> FlowConsumer<T> registerOrdered(int capacity,
+            SpillPolicy<T> spillPolicy, String sourceName) {
+        SyncQueue<T> queue = SyncQueueFactory.createSpilling(capacity, spillPolicy);
+        return register(queue, true, BackPressureStrategy.UNBOUNDED, sourceName, systemDelay);
     }
     
     @Override
@@ -165,33 +267,38 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
     }
     
     private <T extends E> FlowConsumer<T> register(SyncQueue<T> queue,
-            boolean ordered, BackPressureStrategy strategy, String name) {
+            boolean ordered, BackPressureStrategy strategy, String name, long sourceSystemDelay) {
         ArgChecker.notNull(strategy, "backPressureStrategy");
-        FlowConsumerImpl<T> q = new FlowConsumerImpl<>(
-                queue, systemDelay, strategy, this::signalDirtySystemTs, name);
+        FlowConsumerImpl<T> q = new FlowConsumerImpl<>(queue, sourceSystemDelay,
+                (long) (sourceSystemDelay * heartbeatCoalescing), strategy, name, ordinals.getAndIncrement());
+        register(q, ordered, name);
+        return q;
+    }
+    
+    private void register(FlowConsumerImpl<? extends E> q, boolean ordered, String name) {
         LOG.info("Registering {} input source with name '{}' (ID: {})",
                 ordered ? "ordered" : "unordered", name, q.getId());
         updQueues.add(q);
         complete = false; //possibility to re-use Ziploq
         dirtyQueues = true;
-        return q;
-    }
-    
-    private void signalDirtySystemTs() {
-        this.dirtySystemTs = true;
     }
     
     private Entry<E> dequeue() {
         while (true) {
             updateQueues();
             updateHeads();
-            EntryImpl<E> ready = pollReadyMsg();
+            EntryImpl<E> ready = replay != null ? pollReplayedMsg() : pollReadyMsg();
             if (ready == OUT_OF_SYNC) {
                 //perform one more cycle
             } else if (ready != null) {
                 outsideHeads.add(ready.getQueueRef());
-                checkMessageOrder(ready);
-                return ready;
+                if (recorder != null) {
+                    recorder.accept(ready.getQueueRef().getOrdinal());
+                }
+                EntryImpl<E> checked = checkMessageOrder(ready);
+                if (checked != null) {
+                    return checked;
+                } //else rejected; perform one more cycle
             } else {
                 return null;
             }
@@ -206,25 +313,29 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
                 queues.add(q);
                 outsideHeads.add(q);
             }
-            dirtySystemTs = true;
         }
     }
 
     private void updateHeads() {
         int deregister = 0;
+        long watermark = Long.MAX_VALUE;
         Iterator<FlowConsumerImpl<? extends E>> iter = outsideHeads.iterator();
         FlowConsumerImpl<? extends E> queue;
         while (iter.hasNext()) {
             queue = iter.next();
             queue.setCheckpoint();
+            long w = queue.getBusinessWatermark(); //must be read before polling
             EntryImpl<E> polled = queue.poll();
             if (polled != null) {
                 heads.offer(polled); //always true
                 iter.remove();
             } else if (queue.isComplete()) {
                 deregister++;
+            } else if (w < watermark) {
+                watermark = w;
             }
         }
+        businessWatermark = watermark;
         if (deregister > 0) {
             queues.removeIf(q -> {
                 if (q.isComplete() && outsideHeads.remove(q)) {
@@ -246,49 +357,95 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
         if (heads.size() == queues.size()) {
             return heads.poll();
         }
+        EntryImpl<E> peeked = heads.peek();
+        if (peeked != null && peeked.getBusinessTs() < businessWatermark) {
+            return heads.poll(); //all silent sources have promised not to go below
+        }
         return systemDelay > 0 ? pollSystemReadyMsg() : null;
     }
     
+    @Override
+    public long getBusinessWatermark() {
+        return businessWatermark(null);
+    }
+    
+    @Override
+    public long getBusinessWatermark(LongUnaryOperator systemToBusiness) {
+        ArgChecker.notNull(systemToBusiness, "systemToBusiness");
+        return businessWatermark(systemToBusiness);
+    }
+    
+    private long businessWatermark(LongUnaryOperator systemToBusiness) {
+        updateQueues();
+        updateHeads(); //refresh low-watermarks of all sources without a head, e.g. the one last emitted
+        if (queues.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        long watermark = businessWatermark;
+        if (systemToBusiness != null && systemDelay > 0 && !outsideHeads.isEmpty()) {
+            watermark = Math.max(watermark, systemToBusiness.applyAsLong(lowestReleasedSystemTs()));
+        }
+        EntryImpl<E> head = heads.peek();
+        return head != null ? Math.min(watermark, head.getBusinessTs()) : watermark;
+    }
+    
+    //Emits from the recorded source only, regardless of system time progress
+    private EntryImpl<E> pollReplayedMsg() {
+        if (replayOrdinal < 0 && (replayOrdinal = replay.getAsInt()) < 0) {
+            LOG.info("Replay exhausted. Resuming regular sequencing.");
+            replay = null;
+            return pollReadyMsg();
+        }
+        for (EntryImpl<E> head : heads) {
+            if (head.getQueueRef().getOrdinal() == replayOrdinal) {
+                heads.remove(head);
+                replayOrdinal = -1;
+                return head;
+            }
+        }
+        return null; //wait for the recorded source
+    }
+    
     private EntryImpl<E> pollSystemReadyMsg() {
         EntryImpl<E> peeked = heads.peek();
         if (peeked != null) {
-            if (dirtySystemTs) {
-                if (!updateLatestSystemTs()) {
-                    return getOutOfSyncMarker();
+            //other sources holding a head cannot deliver earlier messages, while the message's own
+            //source and each silent one must have passed its system timestamp by their own delay
+            long msgTs = peeked.getSystemTs();
+            if (!hasPassed(peeked.getQueueRef(), msgTs)) {
+                return null;
+            }
+            for (FlowConsumerImpl<? extends E> q : outsideHeads) {
+                if (!hasPassed(q, msgTs)) {
+                    return null;
                 }
-                dirtySystemTs = false;
             }
-            if (systemTs - peeked.getSystemTs() > systemDelay) {
-                if (LOG.isTraceEnabled()) {
-                    LOG.trace("Message with business timestamp {} dequeued based on system timestamp progress. "
-                            + "Global system timestamp: {}, Message system timestamp: {}",
-                            peeked.getBusinessTs(), systemTs, peeked.getSystemTs());
+            for (FlowConsumerImpl<? extends E> q : outsideHeads) {
+                if (!q.verifyCheckpoint()) {
+                    return getOutOfSyncMarker(); //need to restart dequeue cycle
                 }
-                return heads.poll();
             }
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Message with business timestamp {} dequeued based on system timestamp progress. "
+                        + "Lowest released system timestamp: {}, Message system timestamp: {}",
+                        peeked.getBusinessTs(), lowestReleasedSystemTs(), msgTs);
+            }
+            return heads.poll();
         }
         return null;
     }
     
-    //'false' means out-of-sync; need to restart dequeue cycle
-    boolean updateLatestSystemTs() {
-        long ts2Update = Long.MAX_VALUE;
-        for (int i = 0; i < queues.size(); i++) {
-            FlowConsumerImpl<? extends E> q = queues.get(i);
-            if (q.getSystemTs() < ts2Update) {
-                ts2Update = q.getSystemTs();
-            }
-        }
-        Iterator<FlowConsumerImpl<? extends E>> iter = outsideHeads.iterator();
-        FlowConsumerImpl<? extends E> q;
-        while (iter.hasNext()) {
-            q = iter.next();
-            if (!q.verifyCheckpoint()) {
-                return false;
-            }
+    private static boolean hasPassed(FlowConsumerImpl<?> source, long systemTs) {
+        return source.getSystemTs() - source.getSystemDelay() > systemTs;
+    }
+    
+    //Messages having a lower system timestamp may be emitted, as far as the sources without a head are concerned
+    private long lowestReleasedSystemTs() {
+        long ts = Long.MAX_VALUE;
+        for (FlowConsumerImpl<? extends E> q : outsideHeads) {
+            ts = Math.min(ts, q.getSystemTs() - q.getSystemDelay());
         }
-        systemTs = ts2Update;
-        return true;
+        return ts;
     }
     
     private void checkWait(int attempt) {
@@ -307,17 +464,26 @@ public class ZiploqImpl<E> implements ZipFlow<E> {
         }
     }
     
-    private void checkMessageOrder(EntryImpl<E> next) {
+    //Returns the entry to emit, or 'null' if rejected by the source's late data policy
+    private EntryImpl<E> checkMessageOrder(EntryImpl<E> next) {
         if (previous != null) {
             boolean outOfSequence = COMPARATOR_COMPLIANT
                     ? effectiveComparator.compare(previous, next) > 0 
                     : previous.getBusinessTs() > next.getBusinessTs();
             if (outOfSequence) {
-                LOG.warn("Entry dispatched out-of-sequence. The source of one of the following messages has "
-                        + "violated the contract. Previous message: {}, New message: {}", previous, next);
+                FlowConsumerImpl<E> source = next.getQueueRef();
+                if (source.getLateDataPolicy().getAction() == Action.EMIT) {
+                    LOG.warn("Entry dispatched out-of-sequence. The source of one of the following messages has "
+                            + "violated the contract. Previous message: {}, New message: {}", previous, next);
+                }
+                next = source.onLate(next, previous.getBusinessTs());
+                if (next == null) {
+                    return null;
+                }
             }
         }
         previous = next;
+        return next;
     }
     
     @SuppressWarnings("unchecked")
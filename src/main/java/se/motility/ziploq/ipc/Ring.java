@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ipc;
+
+import static org.jctools.util.UnsafeAccess.UNSAFE;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * Memory-mapped ring buffer file shared between a writer process and a reader process.
+ * <p>
+ * The file starts with a header, keeping fields written by different processes on separate
+ * cache lines:
+ * <pre>
+ * 0   int  magic; written last when the reader creates the ring
+ * 4   int  version
+ * 8   int  capacity of the ring, in bytes; a power of 2
+ * 12  int  1 once claimed by a writer
+ * 64  long write position; published by the writer
+ * 128 long read position; published by the reader
+ * 192 long heartbeat system timestamp; published by the writer
+ * 200 int  1 once the writer is closed
+ * </pre>
+ * The ring follows the header. Positions increase monotonically and wrap around the ring.
+ * Each record is aligned to 8 bytes and consists of
+ * <pre>
+ * int    record length, including this header (negative for padding up to the end of the ring)
+ * int    reserved
+ * long   business timestamp
+ * long   system timestamp
+ * byte[] message, as encoded by the codec
+ * </pre>
+ * Records are published by an ordered store of the write position, so the reader never sees
+ * a partial record. Values are stored in native byte order.
+ *
+ * @author M Tegling
+ */
+final class Ring {
+
+    static final int MAGIC = 0x4349505A; //"ZPIC"
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CAPACITY_OFFSET = 8;
+    static final int WRITER_OFFSET = 12;
+    static final int WRITE_POSITION_OFFSET = 64;
+    static final int READ_POSITION_OFFSET = 128;
+    static final int HEARTBEAT_OFFSET = 192;
+    static final int CLOSED_OFFSET = 200;
+    static final int DATA_OFFSET = 256;
+
+    static final int LENGTH_OFFSET = 0;
+    static final int BUSINESS_TS_OFFSET = 8;
+    static final int SYSTEM_TS_OFFSET = 16;
+    static final int RECORD_HEADER = 24;
+    static final int ALIGNMENT = 8;
+
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Maps a ring file
+     * @param file to map
+     * @param size of the file, if created; 0 to map an existing file
+     * @return buffer mapping the file in native byte order
+     */
+    static MappedByteBuffer map(Path file, long size) {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                FileChannel channel = raf.getChannel()) {
+            if (size > 0L) {
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0L, raf.length()); //valid after close
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map ring " + file, e);
+        }
+    }
+
+    /**
+     * Returns the native address of a direct buffer, for ordered and volatile access
+     * @param buffer direct buffer
+     * @return address of the first byte of the buffer
+     */
+    static long address(MappedByteBuffer buffer) {
+        return UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+    }
+
+    static long getLongVolatile(long address) {
+        return UNSAFE.getLongVolatile(null, address);
+    }
+
+    static void putLongOrdered(long address, long value) {
+        UNSAFE.putOrderedLong(null, address, value);
+    }
+
+    static int getIntVolatile(long address) {
+        return UNSAFE.getIntVolatile(null, address);
+    }
+
+    static void putIntOrdered(long address, int value) {
+        UNSAFE.putOrderedInt(null, address, value);
+    }
+
+    static boolean compareAndSetInt(long address, int expected, int value) {
+        return UNSAFE.compareAndSwapInt(null, address, expected, value);
+    }
+
+    static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private Ring() {
+        throw new UnsupportedOperationException("Invalid instantiation of utility class");
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ipc;
+
+import static se.motility.ziploq.ipc.Ring.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.RuntimeInterruptedException;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.impl.WaitStrategy;
+
+/**
+ * Ordered input source reading messages written by a {@link SharedMemoryWriter}, typically
+ * in another process on the same host, through a memory-mapped ring file.
+ * <p>
+ * Creates the ring and registers an ordered source with the {@link ZipFlow}. A daemon thread
+ * polls the ring, decodes messages straight from the mapped memory and enqueues them in
+ * batches, using the business and system timestamps of each record. Heartbeats written using
+ * {@link SharedMemoryWriter#heartbeat(long)} advance the system time of the source, so silent
+ * writers don't hold back the output. The source is completed once the writer is closed and
+ * all messages have been read.
+ * <p>
+ * The polling thread spins briefly, then backs off while the ring is empty (see
+ * {@link WaitStrategy#backOffWait(int)}), trading a few microseconds of wake-up latency after
+ * idle periods for not occupying a core.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ */
+public final class SharedMemorySource<T> implements Closeable {
+
+    /** Default size of the ring; 16 MB */
+    public static final int DEFAULT_RING_SIZE = 16 << 20;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedMemorySource.class);
+    private static final AtomicInteger ID_GEN = new AtomicInteger();
+    private static final int MAX_BATCH = 256;
+
+    private final Path file;
+    private final MessageCodec<? extends T> codec;
+    private final FlowConsumer<T> consumer;
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final int mask;
+    private final Thread thread;
+
+    private final List<T> messages = new ArrayList<>(MAX_BATCH);
+    private final long[] businessTs = new long[MAX_BATCH];
+    private final long[] systemTs = new long[MAX_BATCH];
+    private long position;
+    private long lastSystemTs = Long.MIN_VALUE;
+
+    private volatile long received;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a ring of the default size and registers it as an ordered source, see
+     * {@link #open(ZipFlow, Path, MessageCodec, int, int, BackPressureStrategy, String)}
+     * @param zipFlow to register the source with
+     * @param file of the ring; replaced if it exists
+     * @param codec decoding messages
+     * @param sourceName to be associated with the source
+     * @param <T> message type
+     * @return running source
+     * @throws UncheckedIOException if the ring cannot be created
+     */
+    public static <T> SharedMemorySource<T> open(ZipFlow<? super T> zipFlow, Path file,
+            MessageCodec<? extends T> codec, String sourceName) {
+        return open(zipFlow, file, codec, DEFAULT_RING_SIZE, 1024, BackPressureStrategy.BLOCK, sourceName);
+    }
+
+    /**
+     * Creates a ring and registers it as an ordered source
+     * @param zipFlow to register the source with
+     * @param file of the ring; replaced if it exists
+     * @param codec decoding messages
+     * @param ringSize size of the ring, in bytes; rounded up to the next power of 2, and
+     * limits the size of a message
+     * @param capacity of the source; see {@link ZipFlow#registerOrdered(int, BackPressureStrategy, String)}
+     * @param strategy of the source; with {@link BackPressureStrategy#BLOCK}, a full source
+     * leaves messages in the ring, eventually making the writer wait
+     * @param sourceName to be associated with the source
+     * @param <T> message type
+     * @return running source
+     * @throws UncheckedIOException if the ring cannot be created
+     */
+    public static <T> SharedMemorySource<T> open(ZipFlow<? super T> zipFlow, Path file,
+            MessageCodec<? extends T> codec, int ringSize, int capacity, BackPressureStrategy strategy,
+            String sourceName) {
+        if (zipFlow == null || file == null || codec == null || strategy == null) {
+            throw new IllegalArgumentException("Arguments 'zipFlow', 'file', 'codec' and 'strategy' must not be null.");
+        }
+        if (ringSize < 64 || ringSize > 1 << 30) {
+            throw new IllegalArgumentException("Ring size must be between 64 bytes and 1 GB. Provided value was " + ringSize);
+        }
+        int size = Integer.highestOneBit(ringSize - 1) << 1;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replace ring " + file, e);
+        }
+        MappedByteBuffer buffer = Ring.map(file, (long) DATA_OFFSET + size);
+        FlowConsumer<T> consumer = register(zipFlow, capacity, strategy, sourceName);
+        return new SharedMemorySource<>(file, codec, consumer, buffer, size);
+    }
+
+    private static <E, T extends E> FlowConsumer<T> register(ZipFlow<E> zipFlow, int capacity,
+            BackPressureStrategy strategy, String sourceName) {
+        return zipFlow.registerOrdered(capacity, strategy, sourceName);
+    }
+
+    private SharedMemorySource(Path file, MessageCodec<? extends T> codec, FlowConsumer<T> consumer,
+            MappedByteBuffer buffer, int size) {
+        this.file = file;
+        this.codec = codec;
+        this.consumer = consumer;
+        this.buffer = buffer;
+        this.address = Ring.address(buffer);
+        this.mask = size - 1;
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, size);
+        putIntOrdered(address + MAGIC_OFFSET, MAGIC); //initializes the ring
+        this.thread = new Thread(this::run, "ziploq-ipc-" + ID_GEN.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Shared-memory source reading ring {} of {} bytes.", file, size);
+    }
+
+    /**
+     * Returns the ring file
+     * @return file of the ring
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of messages read from the ring
+     * @return number of messages read
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Stops reading, completes the source and deletes the ring file. The mapped ring is
+     * released when garbage collected.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt(); //in case of waiting for a full source
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete ring {}.", file, e);
+        }
+    }
+
+    private void run() {
+        try {
+            int attempts = 0;
+            while (running) {
+                if (poll()) {
+                    attempts = 0;
+                } else if (getIntVolatile(address + CLOSED_OFFSET) != 0 && !poll()) {
+                    LOG.info("Writer of ring {} closed after {} messages.", file, received);
+                    break;
+                } else {
+                    WaitStrategy.backOffWait(++attempts);
+                }
+            }
+        } catch (RuntimeInterruptedException e) {
+            LOG.debug("Stopped reading ring {} while waiting for a full source.", file);
+        } catch (RuntimeException e) {
+            LOG.error("Failed to read ring {}.", file, e);
+        } finally {
+            consumer.complete();
+        }
+    }
+
+    /**
+     * Reads published records and propagates the latest heartbeat
+     * @return {@code true} if any record was read or system time advanced
+     */
+    private boolean poll() {
+        //read the heartbeat first; records published before it are then visible
+        long heartbeat = getLongVolatile(address + HEARTBEAT_OFFSET);
+        long limit = getLongVolatile(address + WRITE_POSITION_OFFSET);
+        boolean progress = false;
+        while (position < limit) {
+            progress = true;
+            readBatch(limit);
+        }
+        if (heartbeat > lastSystemTs && heartbeat != 0L) {
+            lastSystemTs = heartbeat;
+            consumer.updateSystemTime(heartbeat);
+            progress = true;
+        }
+        return progress;
+    }
+
+    private void readBatch(long limit) {
+        MappedByteBuffer buf = buffer;
+        int n = 0;
+        while (position < limit && n < MAX_BATCH) {
+            int start = DATA_OFFSET + ((int) position & mask);
+            int length = buf.getInt(start + LENGTH_OFFSET);
+            if (length < 0) {
+                position -= length; //padding
+                continue;
+            }
+            ((Buffer) buf).limit(start + length).position(start + RECORD_HEADER); //Buffer methods, for Java 8 compatibility
+            messages.add(codec.decode(buf));
+            ((Buffer) buf).limit(buf.capacity());
+            businessTs[n] = buf.getLong(start + BUSINESS_TS_OFFSET);
+            lastSystemTs = Math.max(lastSystemTs, buf.getLong(start + SYSTEM_TS_OFFSET));
+            systemTs[n++] = lastSystemTs;
+            position += Ring.align(length);
+        }
+        if (n > 0) {
+            consumer.onEvents(messages, businessTs, systemTs);
+            messages.clear();
+            received += n;
+        }
+        putLongOrdered(address + READ_POSITION_OFFSET, position); //frees the space for the writer
+    }
+
+}
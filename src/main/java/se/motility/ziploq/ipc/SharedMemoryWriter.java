@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ipc;
+
+import static se.motility.ziploq.ipc.Ring.*;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.RuntimeInterruptedException;
+import se.motility.ziploq.impl.WaitStrategy;
+
+/**
+ * Writes messages to a shared-memory ring created by a {@link SharedMemorySource}, typically
+ * in another process on the same host.
+ * <p>
+ * Messages are encoded using a {@link MessageCodec} straight into the mapped ring and published
+ * by an ordered store of the write position, so appending a message is a handful of memory
+ * writes and no system calls. Messages must be written in non-decreasing business timestamp
+ * order, like to any ordered source. Call {@link #heartbeat(long)} while there's nothing to
+ * write, to let the reader's system time advance.
+ * <p>
+ * There can be only one writer per ring. Not thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class SharedMemoryWriter<E> implements Closeable {
+
+    private final Path file;
+    private final MessageCodec<? super E> codec;
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final int capacity;
+    private final int mask;
+
+    private long position;
+    private long readPosition; //cached; refreshed when the ring appears full
+    private long systemTs = Long.MIN_VALUE;
+    private boolean closed;
+
+    /**
+     * Opens the single writer of an existing ring
+     * @param file of the ring; see {@link SharedMemorySource#open}
+     * @param codec encoding messages
+     * @param <E> message type
+     * @return writer positioned after the last written message
+     * @throws IllegalStateException if the file is not an initialized ring, or if the ring
+     * already has a writer
+     * @throws UncheckedIOException if the ring cannot be mapped
+     */
+    public static <E> SharedMemoryWriter<E> open(Path file, MessageCodec<? super E> codec) {
+        if (file == null || codec == null) {
+            throw new IllegalArgumentException("Arguments 'file' and 'codec' must not be null.");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("No ring found at " + file);
+        }
+        return new SharedMemoryWriter<>(file, codec, Ring.map(file, 0L));
+    }
+
+    private SharedMemoryWriter(Path file, MessageCodec<? super E> codec, MappedByteBuffer buffer) {
+        this.file = file;
+        this.codec = codec;
+        this.buffer = buffer;
+        this.address = Ring.address(buffer);
+        if (buffer.capacity() < DATA_OFFSET || getIntVolatile(address + MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("File " + file + " is not an initialized ring.");
+        }
+        if (!compareAndSetInt(address + WRITER_OFFSET, 0, 1)) {
+            throw new IllegalStateException("Ring " + file + " already has a writer.");
+        }
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.mask = capacity - 1;
+        this.position = getLongVolatile(address + WRITE_POSITION_OFFSET);
+        this.readPosition = getLongVolatile(address + READ_POSITION_OFFSET);
+    }
+
+    /**
+     * Writes a message to the ring unless the ring is full
+     * @param message to write
+     * @param businessTs business timestamp of the message
+     * @param systemTs system timestamp of the message
+     * @return {@code true} if written, {@code false} if the ring is full
+     * @throws IllegalArgumentException if the encoded message doesn't fit in the ring
+     * @throws IllegalStateException if the writer is closed
+     */
+    public boolean offer(E message, long businessTs, long systemTs) {
+        if (closed) {
+            throw new IllegalStateException("Writer of ring " + file + " is closed.");
+        }
+        if (tryWrite(message, businessTs, systemTs)) {
+            return true;
+        }
+        readPosition = getLongVolatile(address + READ_POSITION_OFFSET);
+        return tryWrite(message, businessTs, systemTs);
+    }
+
+    /**
+     * Writes a message to the ring, waiting for the reader to make room if the ring is full
+     * @param message to write
+     * @param businessTs business timestamp of the message
+     * @param systemTs system timestamp of the message
+     * @throws IllegalArgumentException if the encoded message doesn't fit in the ring
+     * @throws IllegalStateException if the writer is closed
+     * @throws RuntimeInterruptedException if interrupted while waiting
+     */
+    public void put(E message, long businessTs, long systemTs) {
+        int attempts = 0;
+        while (!offer(message, businessTs, systemTs)) {
+            if (Thread.interrupted()) {
+                throw new RuntimeInterruptedException("Interrupted while waiting for ring " + file);
+            }
+            WaitStrategy.backOffWait(++attempts);
+        }
+    }
+
+    /**
+     * Publishes the system time while there are no messages to write, letting the reader
+     * advance the system time of its source
+     * @param systemTs system timestamp (epoch); ignored unless greater than all previously
+     * written system timestamps
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void heartbeat(long systemTs) {
+        if (closed) {
+            throw new IllegalStateException("Writer of ring " + file + " is closed.");
+        }
+        if (systemTs > this.systemTs) {
+            this.systemTs = systemTs;
+            putLongOrdered(address + HEARTBEAT_OFFSET, systemTs);
+        }
+    }
+
+    /**
+     * Returns the number of bytes written but not yet read
+     * @return backlog of the ring, in bytes
+     */
+    public long getBacklog() {
+        return position - getLongVolatile(address + READ_POSITION_OFFSET);
+    }
+
+    /**
+     * Closes the writer, letting the reader complete its source once all messages have
+     * been read. The mapped ring is released when garbage collected.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            putIntOrdered(address + CLOSED_OFFSET, 1);
+        }
+    }
+
+    private boolean tryWrite(E message, long businessTs, long systemTs) {
+        int index = (int) position & mask;
+        int free = (int) (capacity - (position - readPosition));
+        int contiguous = capacity - index;
+        if (tryEncode(message, Math.min(free, contiguous), businessTs, systemTs)) {
+            return true;
+        }
+        if (free <= contiguous) {
+            checkFits(free);
+            return false;
+        }
+        buffer.putInt(DATA_OFFSET + index + LENGTH_OFFSET, -contiguous);
+        publish(position + contiguous); //pads to the end of the ring
+        if (tryEncode(message, free - contiguous, businessTs, systemTs)) {
+            return true;
+        }
+        checkFits(free - contiguous);
+        return false;
+    }
+
+    private boolean tryEncode(E message, int available, long businessTs, long systemTs) {
+        if (available < RECORD_HEADER) {
+            return false;
+        }
+        MappedByteBuffer buf = buffer;
+        int start = DATA_OFFSET + ((int) position & mask);
+        ((Buffer) buf).limit(start + available).position(start + RECORD_HEADER); //Buffer methods, for Java 8 compatibility
+        try {
+            codec.encode(message, buf);
+        } catch (BufferOverflowException e) {
+            return false;
+        } finally {
+            ((Buffer) buf).limit(buf.capacity());
+        }
+        int length = buf.position() - start;
+        int aligned = Ring.align(length);
+        buf.putInt(start + LENGTH_OFFSET, length);
+        buf.putLong(start + BUSINESS_TS_OFFSET, businessTs);
+        buf.putLong(start + SYSTEM_TS_OFFSET, systemTs);
+        this.systemTs = Math.max(this.systemTs, systemTs);
+        publish(position + aligned);
+        return true;
+    }
+
+    private void publish(long end) {
+        position = end;
+        putLongOrdered(address + WRITE_POSITION_OFFSET, end);
+    }
+
+    private void checkFits(int available) {
+        if (available == capacity) {
+            throw new IllegalArgumentException("Message does not fit in a ring of " + capacity + " bytes.");
+        }
+    }
+
+}
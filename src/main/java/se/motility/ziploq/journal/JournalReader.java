@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.journal;
+
+import static se.motility.ziploq.journal.Segments.*;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.impl.Splitr;
+
+/**
+ * Reads a journal written by {@link JournalWriter}, replaying entries in the order they
+ * were emitted by the {@link Ziploq}.
+ * <p>
+ * Segments are memory-mapped and messages decoded straight from the mapped memory, one
+ * segment at a time. Entries appended after the reader has reached the end of the last
+ * segment are not read.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class JournalReader<E> implements Closeable {
+
+    private final MessageCodec<? extends E> codec;
+    private final List<Path> segments;
+
+    private int segment;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Opens a journal for reading
+     * @param dir directory of the journal
+     * @param codec decoding messages
+     * @param <E> message type
+     * @return journal reader positioned at the first entry
+     * @throws UncheckedIOException if the journal cannot be opened
+     */
+    public static <E> JournalReader<E> open(Path dir, MessageCodec<? extends E> codec) {
+        if (dir == null || codec == null) {
+            throw new IllegalArgumentException("Arguments 'dir' and 'codec' must not be null.");
+        }
+        return new JournalReader<>(codec, Segments.list(dir));
+    }
+
+    private JournalReader(MessageCodec<? extends E> codec, List<Path> segments) {
+        this.codec = codec;
+        this.segments = segments;
+        this.segment = -1;
+    }
+
+    /**
+     * Reads the next entry
+     * @return next entry, or {@code null} if there are no more entries
+     */
+    public Entry<E> next() {
+        MappedByteBuffer buf = buffer;
+        while (buf == null || endOfSegment(buf)) {
+            if (++segment >= segments.size()) {
+                buffer = null;
+                segment = segments.size();
+                return null;
+            }
+            buf = buffer = Segments.map(segments.get(segment), MapMode.READ_ONLY, 0L);
+        }
+        int start = buf.position();
+        int end = start + buf.getInt(start + LENGTH_OFFSET);
+        long businessTs = buf.getLong(start + BUSINESS_TS_OFFSET);
+        long systemTs = buf.getLong(start + SYSTEM_TS_OFFSET);
+        int sourceId = buf.getInt(start + SOURCE_ID_OFFSET);
+        ((Buffer) buf).limit(end).position(start + HEADER); //Buffer methods, for Java 8 compatibility
+        E message = codec.decode(buf);
+        ((Buffer) buf).limit(buf.capacity()).position(end);
+        return new JournalEntry<>(message, businessTs, systemTs, sourceId);
+    }
+
+    /**
+     * Returns a sequential stream of the remaining entries, ordered by business timestamp
+     * like {@link Ziploq#stream()}
+     * @return stream of the remaining entries
+     */
+    public Stream<Entry<E>> stream() {
+        Entry<E> end = Ziploq.getEndSignal();
+        Comparator<Entry<E>> comparator = Comparator.comparingLong(Entry::getBusinessTs);
+        return Splitr.stream(() -> {
+            Entry<E> entry = next();
+            return entry != null ? entry : end;
+        }, end, comparator);
+    }
+
+    /**
+     * Closes the reader. The mapped segment is released when garbage collected.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+        segment = segments.size();
+    }
+
+    private static boolean endOfSegment(MappedByteBuffer buf) {
+        int pos = buf.position();
+        return pos + HEADER > buf.capacity() || buf.getInt(pos + LENGTH_OFFSET) == 0;
+    }
+
+    private static final class JournalEntry<E> implements Entry<E> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final E message;
+        private final long businessTs;
+        private final long systemTs;
+        private final int sourceId;
+
+        private JournalEntry(E message, long businessTs, long systemTs, int sourceId) {
+            this.message = message;
+            this.businessTs = businessTs;
+            this.systemTs = systemTs;
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public E getMessage() {
+            return message;
+        }
+
+        @Override
+        public long getBusinessTs() {
+            return businessTs;
+        }
+
+        @Override
+        public long getSystemTs() {
+            return systemTs;
+        }
+
+        @Override
+        public int getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public String toString() {
+            return "businessTs: " + businessTs +
+                   ", systemTs: " + systemTs +
+                   ", sourceId: " + sourceId +
+                   ", message: " + message;
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.journal;
+
+import static se.motility.ziploq.journal.Segments.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Write-ahead journal of the sequenced output of a {@link Ziploq}, for replaying exactly
+ * what was emitted, e.g. after a restart. Read the journal using {@link JournalReader}.
+ * <p>
+ * Entries are appended to memory-mapped, pre-allocated segment files, encoding messages
+ * straight into the mapped memory using a {@link MessageCodec}. Appending is therefore a
+ * handful of memory writes; entries survive a crash of the process once appended, since the
+ * operating system owns the mapped pages. To survive a crash of the operating system as well,
+ * mapped pages are forced to the storage device once every {@code forceInterval} bytes
+ * written, when a segment is full and when the journal is flushed or closed.
+ * <p>
+ * Opening an existing journal appends after its last complete entry.
+ * <p>
+ * Not thread-safe; use from the thread consuming the sequenced output, e.g.
+ * {@code ziploq.stream().peek(journal).forEach(...)}.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type of the {@code Ziploq}
+ */
+public final class JournalWriter<E> implements Consumer<Entry<E>>, Closeable {
+
+    /** Default segment size; 64 MB */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    /** Default number of bytes written between forcing mapped pages to storage; 8 MB */
+    public static final int DEFAULT_FORCE_INTERVAL = 8 << 20;
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalWriter.class);
+
+    private final Path dir;
+    private final MessageCodec<? super E> codec;
+    private final int segmentSize;
+    private final int forceInterval;
+
+    private MappedByteBuffer buffer;
+    private long segment;
+    private int forcedPosition;
+    private boolean closed;
+
+    /**
+     * Opens a journal for writing, using default segment size and force interval
+     * @param dir directory of the journal; created if it doesn't exist
+     * @param codec encoding messages
+     * @param <E> message type
+     * @return journal positioned after its last entry
+     * @throws UncheckedIOException if the journal cannot be opened
+     */
+    public static <E> JournalWriter<E> open(Path dir, MessageCodec<? super E> codec) {
+        return open(dir, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_FORCE_INTERVAL);
+    }
+
+    /**
+     * Opens a journal for writing
+     * @param dir directory of the journal; created if it doesn't exist
+     * @param codec encoding messages
+     * @param segmentSize size of each segment file, in bytes; limits the size of an entry
+     * @param forceInterval number of bytes written between forcing mapped pages to storage;
+     *        0 to only force when a segment is full or the journal is flushed
+     * @param <E> message type
+     * @return journal positioned after its last entry
+     * @throws UncheckedIOException if the journal cannot be opened
+     */
+    public static <E> JournalWriter<E> open(Path dir, MessageCodec<? super E> codec, int segmentSize, int forceInterval) {
+        if (dir == null || codec == null) {
+            throw new IllegalArgumentException("Arguments 'dir' and 'codec' must not be null.");
+        }
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("Segment size must be greater than " + HEADER
+                    + ". Provided value was " + segmentSize);
+        }
+        if (forceInterval < 0) {
+            throw new IllegalArgumentException("Force interval must be non-negative. Provided value was " + forceInterval);
+        }
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory " + dir, e);
+        }
+        return new JournalWriter<>(dir, codec, segmentSize, forceInterval);
+    }
+
+    private JournalWriter(Path dir, MessageCodec<? super E> codec, int segmentSize, int forceInterval) {
+        this.dir = dir;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.forceInterval = forceInterval;
+        List<Path> segments = Segments.list(dir);
+        if (segments.isEmpty()) {
+            this.segment = 0L;
+            this.buffer = Segments.map(Segments.path(dir, segment), MapMode.READ_WRITE, segmentSize);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            this.segment = Segments.index(last);
+            this.buffer = Segments.map(last, MapMode.READ_WRITE, segmentSize);
+            ((Buffer) buffer).position(Segments.end(buffer));
+            LOG.info("Appending to journal {} at segment {}, position {}.", dir, segment, buffer.position());
+        }
+        this.forcedPosition = buffer.position();
+    }
+
+    @Override
+    public void accept(Entry<E> entry) {
+        append(entry.getMessage(), entry.getBusinessTs(), entry.getSystemTs(), entry.getSourceId());
+    }
+
+    /**
+     * Appends an entry to the journal
+     * @param message to append
+     * @param businessTs business timestamp of the message
+     * @param systemTs system timestamp of the message
+     * @param sourceId id of the input source; see {@link Entry#getSourceId()}
+     * @throws IllegalArgumentException if the encoded entry doesn't fit in a segment
+     * @throws IllegalStateException if the journal is closed
+     */
+    public void append(E message, long businessTs, long systemTs, int sourceId) {
+        if (!tryAppend(message, businessTs, systemTs, sourceId)) {
+            roll();
+            if (!tryAppend(message, businessTs, systemTs, sourceId)) {
+                throw new IllegalArgumentException("Entry does not fit in a segment of " + segmentSize
+                        + " bytes: " + message);
+            }
+        }
+        if (forceInterval > 0 && buffer.position() - forcedPosition >= forceInterval) {
+            force();
+        }
+    }
+
+    /**
+     * Forces all appended entries to the storage device
+     */
+    public void flush() {
+        checkOpen();
+        force();
+    }
+
+    /**
+     * Forces all appended entries to the storage device and closes the journal. The mapped
+     * segment is released when garbage collected.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            force();
+            closed = true;
+            buffer = null;
+        }
+    }
+
+    private boolean tryAppend(E message, long businessTs, long systemTs, int sourceId) {
+        MappedByteBuffer buf = checkOpen();
+        int start = buf.position();
+        if (buf.remaining() < HEADER) {
+            return false;
+        }
+        ((Buffer) buf).position(start + HEADER); //Buffer methods, for Java 8 compatibility
+        try {
+            codec.encode(message, buf);
+        } catch (BufferOverflowException e) {
+            ((Buffer) buf).position(start);
+            return false;
+        } catch (RuntimeException e) {
+            ((Buffer) buf).position(start);
+            throw e;
+        }
+        buf.putLong(start + BUSINESS_TS_OFFSET, businessTs);
+        buf.putLong(start + SYSTEM_TS_OFFSET, systemTs);
+        buf.putInt(start + SOURCE_ID_OFFSET, sourceId);
+        int end = buf.position();
+        if (end + HEADER <= buf.capacity()) {
+            buf.putInt(end + LENGTH_OFFSET, 0); //terminates the segment, overwriting any failed attempt
+        }
+        buf.putInt(start + LENGTH_OFFSET, end - start); //commits the entry
+        return true;
+    }
+
+    private void roll() {
+        force();
+        segment++;
+        buffer = Segments.map(Segments.path(dir, segment), MapMode.READ_WRITE, segmentSize);
+        forcedPosition = 0;
+    }
+
+    private void force() {
+        if (buffer != null && buffer.position() != forcedPosition) {
+            buffer.force();
+            forcedPosition = buffer.position();
+        }
+    }
+
+    private MappedByteBuffer checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal " + dir + " is closed.");
+        }
+        return buffer;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Layout of journal segment files.
+ * <p>
+ * A journal is a directory of pre-allocated segment files, named by a zero-padded index.
+ * Each segment holds a sequence of records:
+ * <pre>
+ * int  record length, including this header (0 marks the end of the segment)
+ * long business timestamp
+ * long system timestamp
+ * int  source id
+ * byte[] message, as encoded by the codec
+ * </pre>
+ * The record length is written last, so a record is never visible before it is complete.
+ * Values are stored in little-endian byte order.
+ *
+ * @author M Tegling
+ */
+final class Segments {
+
+    static final int LENGTH_OFFSET = 0;
+    static final int BUSINESS_TS_OFFSET = 4;
+    static final int SYSTEM_TS_OFFSET = 12;
+    static final int SOURCE_ID_OFFSET = 20;
+    static final int HEADER = 24;
+
+    private static final String SUFFIX = ".journal";
+
+    static Path path(Path dir, long index) {
+        return dir.resolve(String.format("%016d%s", index, SUFFIX));
+    }
+
+    static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Lists the segments of the journal in the provided directory
+     * @param dir of the journal
+     * @return segments in order, or an empty list if none
+     */
+    static List<Path> list(Path dir) {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal segments in " + dir, e);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Maps a segment file, creating and pre-allocating it if necessary
+     * @param segment file
+     * @param mode of the mapping
+     * @param size of the segment, if created
+     * @return buffer mapping the segment in little-endian byte order
+     */
+    static MappedByteBuffer map(Path segment, MapMode mode, long size) {
+        boolean write = mode == MapMode.READ_WRITE;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), write ? "rw" : "r");
+                FileChannel channel = file.getChannel()) {
+            if (write && file.length() == 0L) {
+                file.setLength(size);
+            }
+            MappedByteBuffer buffer = channel.map(mode, 0L, file.length()); //valid after close
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Returns the position after the last complete record of a segment
+     * @param buffer mapping the segment
+     * @return end position of the segment's records
+     */
+    static int end(MappedByteBuffer buffer) {
+        int pos = 0;
+        int length;
+        while (pos + HEADER <= buffer.capacity() && (length = buffer.getInt(pos + LENGTH_OFFSET)) != 0) {
+            pos += length;
+        }
+        return pos;
+    }
+
+    private Segments() {
+        throw new UnsupportedOperationException("Invalid instantiation of utility class");
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.load;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.TimestampedIterator;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Dataset loaded by {@link DatasetLoader}, held as a column of messages and a column of
+ * business timestamps, in file order.
+ * <p>
+ * Registering the dataset with a {@link Ziploq} doesn't copy it; messages are read lazily
+ * from the columns, see {@link Ziploq#registerIterator(TimestampedIterator, String)}.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class Dataset<E> {
+
+    private final E[] messages;
+    private final long[] timestamps;
+
+    Dataset(E[] messages, long[] timestamps) {
+        this.messages = messages;
+        this.timestamps = timestamps;
+    }
+
+    /**
+     * Returns the number of messages in the dataset
+     * @return number of messages
+     */
+    public int size() {
+        return messages.length;
+    }
+
+    /**
+     * Returns the message at the provided index
+     * @param index of the message, in file order
+     * @return message
+     */
+    public E getMessage(int index) {
+        return messages[index];
+    }
+
+    /**
+     * Returns the business timestamp of the message at the provided index
+     * @param index of the message, in file order
+     * @return business timestamp
+     */
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Registers the dataset as a single ordered source. The file must be ordered by business
+     * timestamp.
+     * @param ziploq to register with
+     * @param sourceName to be associated with the dataset
+     */
+    public void register(Ziploq<? super E> ziploq, String sourceName) {
+        ziploq.registerIterator(new Cursor(null, messages.length), sourceName);
+    }
+
+    /**
+     * Registers the dataset as one ordered source per key, named {@code sourceName-key}. The
+     * messages of each key must be ordered by business timestamp.
+     * @param ziploq to register with
+     * @param key function extracting key from message
+     * @param sourceName prefix of the names of the sources
+     * @return number of sources registered
+     */
+    public int register(Ziploq<? super E> ziploq, ToLongFunction<? super E> key, String sourceName) {
+        Map<Long, Positions> keys = new HashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            keys.computeIfAbsent(key.applyAsLong(messages[i]), k -> new Positions()).add(i);
+        }
+        for (Map.Entry<Long, Positions> e : keys.entrySet()) {
+            Positions positions = e.getValue();
+            ziploq.registerIterator(new Cursor(positions.array, positions.size), sourceName + "-" + e.getKey());
+        }
+        return keys.size();
+    }
+
+    private static final class Positions {
+
+        private int[] array = new int[16];
+        private int size;
+
+        private void add(int position) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size << 1);
+            }
+            array[size++] = position;
+        }
+    }
+
+    /**
+     * Iterates over all messages, or the provided positions
+     */
+    private final class Cursor implements TimestampedIterator<E> {
+
+        private final int[] positions;
+        private final int size;
+        private int next;
+        private long timestamp;
+
+        private Cursor(int[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public E next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            int i = positions == null ? next : positions[next];
+            next++;
+            timestamp = timestamps[i];
+            return messages[i];
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+}
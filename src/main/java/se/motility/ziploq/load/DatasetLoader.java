@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Loads dataset files in parallel, for registering with a {@link Ziploq} without a
+ * single-threaded parsing step.
+ * <p>
+ * The file is split into chunks of roughly {@code chunkSize} bytes, aligned to record
+ * boundaries, and each chunk is memory-mapped. Chunks are processed on a {@link ForkJoinPool}
+ * in two passes: the first counts the records of each chunk, the second parses them straight
+ * into their place in the columns of the resulting {@link Dataset}. No intermediate
+ * collections are created.
+ * <p>
+ * Records are either lines, terminated by {@code '\n'} or {@code "\r\n"}, or of fixed length.
+ * Empty lines are skipped.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class DatasetLoader<E> {
+
+    /** Default chunk size; 4 MB */
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 13;
+
+    private final RecordParser<E> parser;
+    private final ToLongFunction<? super E> toTimestamp;
+    private final int recordSize; //0 for lines
+    private final int headerLines;
+
+    /**
+     * Creates a loader of files consisting of lines, e.g. CSV files
+     * @param parser parsing each line, excluding the line terminator
+     * @param toTimestamp function extracting business timestamp from message
+     * @param headerLines number of lines to skip at the start of the file
+     * @param <E> message type
+     * @return dataset loader
+     */
+    public static <E> DatasetLoader<E> lines(RecordParser<E> parser,
+            ToLongFunction<? super E> toTimestamp, int headerLines) {
+        if (headerLines < 0) {
+            throw new IllegalArgumentException("Header lines must be non-negative. Provided value was " + headerLines);
+        }
+        return create(parser, toTimestamp, 0, headerLines);
+    }
+
+    /**
+     * Creates a loader of files consisting of fixed-length binary records
+     * @param recordSize size of each record, in bytes
+     * @param parser parsing each record
+     * @param toTimestamp function extracting business timestamp from message
+     * @param <E> message type
+     * @return dataset loader
+     */
+    public static <E> DatasetLoader<E> fixedLength(int recordSize, RecordParser<E> parser,
+            ToLongFunction<? super E> toTimestamp) {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("Record size must be positive. Provided value was " + recordSize);
+        }
+        return create(parser, toTimestamp, recordSize, 0);
+    }
+
+    private static <E> DatasetLoader<E> create(RecordParser<E> parser,
+            ToLongFunction<? super E> toTimestamp, int recordSize, int headerLines) {
+        if (parser == null || toTimestamp == null) {
+            throw new IllegalArgumentException("Arguments 'parser' and 'toTimestamp' must not be null.");
+        }
+        return new DatasetLoader<>(parser, toTimestamp, recordSize, headerLines);
+    }
+
+    private DatasetLoader(RecordParser<E> parser, ToLongFunction<? super E> toTimestamp,
+            int recordSize, int headerLines) {
+        this.parser = parser;
+        this.toTimestamp = toTimestamp;
+        this.recordSize = recordSize;
+        this.headerLines = headerLines;
+    }
+
+    /**
+     * Loads a file using the common {@code ForkJoinPool} and the default chunk size
+     * @param file to load
+     * @return loaded dataset
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public Dataset<E> load(Path file) {
+        return load(file, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Loads a file
+     * @param file to load
+     * @param pool to parse chunks on
+     * @param chunkSize approximate size of each chunk, in bytes
+     * @return loaded dataset
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file contains more than {@code Integer.MAX_VALUE}
+     *         records, or a partial fixed-length record
+     */
+    public Dataset<E> load(Path file, ForkJoinPool pool, int chunkSize) {
+        if (file == null || pool == null) {
+            throw new IllegalArgumentException("Arguments 'file' and 'pool' must not be null.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive. Provided value was " + chunkSize);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = bounds(channel, chunkSize);
+            int chunks = bounds.length - 1;
+            MappedByteBuffer[] mapped = new MappedByteBuffer[chunks];
+            for (int c = 0; c < chunks; c++) {
+                mapped[c] = channel.map(MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+            }
+            //first pass: count records
+            List<ForkJoinTask<Integer>> counts = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                ByteBuffer chunk = mapped[c];
+                counts.add(pool.submit(() -> count(chunk)));
+            }
+            int[] offsets = new int[chunks + 1];
+            for (int c = 0; c < chunks; c++) {
+                long offset = (long) offsets[c] + counts.get(c).join();
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("File " + file + " contains too many records.");
+                }
+                offsets[c + 1] = (int) offset;
+            }
+            //second pass: parse records into columns
+            @SuppressWarnings("unchecked")
+            E[] messages = (E[]) new Object[offsets[chunks]];
+            long[] timestamps = new long[offsets[chunks]];
+            List<ForkJoinTask<?>> parsed = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                ByteBuffer chunk = mapped[c];
+                int offset = offsets[c];
+                parsed.add(pool.submit(() -> parse(chunk, messages, timestamps, offset)));
+            }
+            parsed.forEach(ForkJoinTask::join);
+            return new Dataset<>(messages, timestamps);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load dataset " + file, e);
+        }
+    }
+
+    /**
+     * Returns chunk boundaries, aligned to the start of records
+     */
+    private long[] bounds(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        long start = 0L;
+        for (int i = 0; i < headerLines; i++) {
+            start = nextLine(channel, start, size);
+        }
+        if (recordSize > 0 && size % recordSize != 0) {
+            throw new IllegalArgumentException("File size " + size + " is not a multiple of the record size "
+                    + recordSize + ".");
+        }
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+        long bound = start;
+        while (bound < size) {
+            long nominal = Math.min(size, bound + chunkSize);
+            if (recordSize > 0) {
+                bound = Math.min(size, (nominal + recordSize - 1) / recordSize * recordSize);
+            } else {
+                bound = nominal == size ? size : nextLine(channel, nominal - 1, size);
+            }
+            bounds.add(bound);
+        }
+        long[] array = new long[bounds.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = bounds.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Returns the position after the first line terminator at or after {@code from}, or the
+     * end of the file if there is none
+     */
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long pos = from;
+        while (pos < size) {
+            ((Buffer) buf).clear(); //Buffer methods, for Java 8 compatibility
+            int read = channel.read(buf, pos);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private int count(ByteBuffer chunk) {
+        int limit = chunk.limit();
+        if (recordSize > 0) {
+            return limit / recordSize;
+        }
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) == '\n') {
+                if (end(chunk, start, i) > start) {
+                    count++;
+                }
+                start = i + 1;
+            }
+        }
+        return start < limit && end(chunk, start, limit) > start ? count + 1 : count;
+    }
+
+    private Void parse(ByteBuffer chunk, E[] messages, long[] timestamps, int offset) {
+        ByteBuffer buf = chunk.duplicate();
+        int limit = chunk.limit();
+        int n = offset;
+        if (recordSize > 0) {
+            for (int start = 0; start < limit; start += recordSize) {
+                n = parse(buf, start, start + recordSize, messages, timestamps, n);
+            }
+            return null;
+        }
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) == '\n') {
+                n = parse(buf, start, end(chunk, start, i), messages, timestamps, n);
+                start = i + 1;
+            }
+        }
+        if (start < limit) {
+            parse(buf, start, end(chunk, start, limit), messages, timestamps, n);
+        }
+        return null;
+    }
+
+    private int parse(ByteBuffer buf, int start, int end, E[] messages, long[] timestamps, int n) {
+        if (end == start) {
+            return n; //empty line
+        }
+        ((Buffer) buf).limit(end).position(start);
+        E message = parser.parse(buf);
+        messages[n] = message;
+        timestamps[n] = toTimestamp.applyAsLong(message);
+        ((Buffer) buf).limit(buf.capacity());
+        return n + 1;
+    }
+
+    /**
+     * Returns the end of a line, excluding any carriage return
+     */
+    private static int end(ByteBuffer chunk, int start, int terminator) {
+        return terminator > start && chunk.get(terminator - 1) == '\r' ? terminator - 1 : terminator;
+    }
+
+}
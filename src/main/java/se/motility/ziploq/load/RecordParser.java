@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.load;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses a single record of a dataset file. Called concurrently from multiple threads by
+ * {@link DatasetLoader}, so implementations must be thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+@FunctionalInterface
+public interface RecordParser<E> {
+
+    /**
+     * Parses a record
+     * @param record bytes of the record, between position and limit; only valid during the
+     *        call and must not be retained
+     * @return message parsed from the record
+     */
+    E parse(ByteBuffer record);
+
+}
@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.net;
+
+import static se.motility.ziploq.net.Frames.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Publishes the sequenced output of a {@link Ziploq} to any number of TCP subscribers, as
+ * frames readable by {@link IngressServer} (see {@link Frames}).
+ * <p>
+ * Frames only carry the business timestamp and the message of each entry. The system
+ * timestamp and the source ID ({@link Entry#getSourceId()}) are not published, so the stream
+ * cannot be used to replay the original emission decisions; use a {@code JournalWriter} for that.
+ * Receivers assign their own system time, like {@code IngressServer} does.
+ * <p>
+ * Entries are encoded using a {@link MessageCodec} into direct batch buffers, by the thread
+ * consuming the output, e.g. {@code ziploq.stream().forEach(publisher)}. A batch is handed
+ * over to the I/O thread as soon as the I/O thread has taken the previous one, or once full,
+ * so batches grow with load while latency stays low when the I/O thread keeps up. The I/O
+ * thread is only woken when idle, so a busy I/O thread costs the publisher no system calls. Call
+ * {@link #flush()} to hand over a partial batch without waiting for further entries, e.g. when
+ * {@code ZipFlow.poll()} returns {@code null}.
+ * <p>
+ * The I/O thread writes batches to all subscribers using gathering writes, sharing batch
+ * buffers between subscribers. Each subscriber has a bounded backlog of {@code maxPendingBytes}.
+ * A subscriber exceeding it is disconnected, or misses batches until it has caught up,
+ * according to the {@link SlowSubscriberPolicy}. Subscribers receive entries published
+ * after they have connected.
+ * <p>
+ * {@link #accept}, {@link #publish} and {@link #flush} must be called by a single thread.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class EgressPublisher<E> implements Consumer<Entry<E>>, Closeable {
+
+    /** Default batch size; 64 kB */
+    public static final int DEFAULT_BATCH_SIZE = 64 << 10;
+    /** Default maximum backlog of a subscriber; 16 MB */
+    public static final int DEFAULT_MAX_PENDING_BYTES = 16 << 20;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EgressPublisher.class);
+    private static final AtomicInteger ID_GEN = new AtomicInteger();
+    private static final int MAX_GATHER = 64;
+    private static final long TICK_MILLIS = 10L;
+
+    private final MessageCodec<? super E> codec;
+    private final int batchSize;
+    private final int maxPendingBytes;
+    private final SlowSubscriberPolicy policy;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Batch> handover = new ConcurrentLinkedQueue<>();
+    private final Queue<Batch> pool = new ConcurrentLinkedQueue<>();
+
+    //Publisher fields
+    private Batch batch;
+    private long publishedEntries;
+    private long publishedBytes;
+
+    //I/O thread fields
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocateDirect(256);
+
+    //Metrics, published by the I/O thread
+    private volatile long sentBytes;
+    private volatile long droppedBatches;
+    private volatile long disconnects;
+    private volatile int subscriberCount;
+    private volatile long maxLagBytes;
+    private volatile long maxLagNanos;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    /**
+     * Opens a publisher using the default batch size and maximum backlog
+     * @param address to accept subscribers on
+     * @param codec encoding messages
+     * @param policy for subscribers exceeding the maximum backlog
+     * @param <E> message type
+     * @return running publisher
+     * @throws UncheckedIOException if the publisher cannot be opened
+     */
+    public static <E> EgressPublisher<E> open(InetSocketAddress address, MessageCodec<? super E> codec,
+            SlowSubscriberPolicy policy) {
+        return open(address, codec, DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING_BYTES, policy);
+    }
+
+    /**
+     * Opens a publisher
+     * @param address to accept subscribers on
+     * @param codec encoding messages
+     * @param batchSize size of each batch buffer, in bytes; limits the size of a frame
+     * @param maxPendingBytes maximum backlog of a subscriber, in bytes
+     * @param policy for subscribers exceeding the maximum backlog
+     * @param <E> message type
+     * @return running publisher
+     * @throws UncheckedIOException if the publisher cannot be opened
+     */
+    public static <E> EgressPublisher<E> open(InetSocketAddress address, MessageCodec<? super E> codec,
+            int batchSize, int maxPendingBytes, SlowSubscriberPolicy policy) {
+        if (address == null || codec == null || policy == null) {
+            throw new IllegalArgumentException("Arguments 'address', 'codec' and 'policy' must not be null.");
+        }
+        if (batchSize <= HEADER) {
+            throw new IllegalArgumentException("Batch size must be greater than " + HEADER
+                    + ". Provided value was " + batchSize);
+        }
+        if (maxPendingBytes < batchSize) {
+            throw new IllegalArgumentException("Max pending bytes must be at least the batch size. Provided value was "
+                    + maxPendingBytes);
+        }
+        try {
+            return new EgressPublisher<>(address, codec, batchSize, maxPendingBytes, policy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open egress publisher on " + address, e);
+        }
+    }
+
+    private EgressPublisher(InetSocketAddress address, MessageCodec<? super E> codec, int batchSize,
+            int maxPendingBytes, SlowSubscriberPolicy policy) throws IOException {
+        this.codec = codec;
+        this.batchSize = batchSize;
+        this.maxPendingBytes = maxPendingBytes;
+        this.policy = policy;
+        this.selector = Selector.open();
+        try {
+            this.server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "ziploq-egress-" + ID_GEN.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Egress publisher listening on {}.", server.getLocalAddress());
+    }
+
+    @Override
+    public void accept(Entry<E> entry) {
+        publish(entry.getMessage(), entry.getBusinessTs());
+    }
+
+    /**
+     * Publishes a message to all subscribers
+     * @param message to publish
+     * @param businessTs business timestamp of the message
+     * @throws IllegalArgumentException if the encoded frame doesn't fit in a batch
+     * @throws IllegalStateException if the publisher is closed
+     */
+    public void publish(E message, long businessTs) {
+        if (!running) {
+            throw new IllegalStateException("Egress publisher is closed.");
+        }
+        if (batch == null) {
+            batch = newBatch();
+        }
+        if (!tryEncode(message, businessTs)) {
+            flush();
+            batch = newBatch();
+            if (!tryEncode(message, businessTs)) {
+                throw new IllegalArgumentException("Frame does not fit in a batch of " + batchSize
+                        + " bytes: " + message);
+            }
+        }
+        publishedEntries++;
+        if (handover.isEmpty()) {
+            flush(); //I/O thread has caught up
+        }
+    }
+
+    /**
+     * Hands over any partial batch to the I/O thread
+     */
+    public void flush() {
+        Batch b = batch;
+        if (b != null && b.buffer.position() > 0) {
+            batch = null;
+            ((Buffer) b.buffer).flip(); //Buffer methods, for Java 8 compatibility
+            publishedBytes += b.buffer.limit();
+            b.handedOver = System.nanoTime();
+            handover.offer(b);
+            if (parked) {
+                selector.wakeup(); //the I/O thread is busy otherwise, and takes the batch when done
+            }
+        }
+    }
+
+    /**
+     * Returns the address accepting subscribers
+     * @return bound address
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) server.socket().getLocalSocketAddress();
+    }
+
+    /**
+     * Returns the number of entries published. Only to be called by the publishing thread.
+     * @return number of entries published
+     */
+    public long getPublishedEntries() {
+        return publishedEntries;
+    }
+
+    /**
+     * Returns the number of encoded bytes handed over to the I/O thread. Only to be called by
+     * the publishing thread.
+     * @return number of bytes published
+     */
+    public long getPublishedBytes() {
+        return publishedBytes;
+    }
+
+    /**
+     * Returns the total number of bytes written to subscribers
+     * @return number of bytes sent
+     */
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    /**
+     * Returns the number of connected subscribers
+     * @return number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    /**
+     * Returns the total number of batches not sent to slow subscribers, see
+     * {@link SlowSubscriberPolicy#DROP}
+     * @return number of dropped batches, counted once per subscriber
+     */
+    public long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    /**
+     * Returns the number of subscribers disconnected for being slow, see
+     * {@link SlowSubscriberPolicy#DISCONNECT}
+     * @return number of disconnected slow subscribers
+     */
+    public long getSlowDisconnects() {
+        return disconnects;
+    }
+
+    /**
+     * Returns the largest backlog of any subscriber, as of the latest write
+     * @return largest backlog, in bytes
+     */
+    public long getMaxLagBytes() {
+        return maxLagBytes;
+    }
+
+    /**
+     * Returns the longest time that the oldest unsent batch of any subscriber has been
+     * waiting, as of the latest write
+     * @return largest lag, in nanoseconds
+     */
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    /**
+     * Flushes any partial batch, stops accepting subscribers and closes all connections
+     * once pending batches have been written, or after at most one second
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        flush();
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Egress publisher closed.");
+    }
+
+    private boolean tryEncode(E message, long businessTs) {
+        ByteBuffer buf = batch.buffer;
+        int start = buf.position();
+        if (buf.remaining() < HEADER) {
+            return false;
+        }
+        ((Buffer) buf).position(start + HEADER);
+        try {
+            codec.encode(message, buf);
+        } catch (BufferOverflowException e) {
+            ((Buffer) buf).position(start);
+            return false;
+        } catch (RuntimeException e) {
+            ((Buffer) buf).position(start);
+            throw e;
+        }
+        buf.putInt(start, buf.position() - start - LENGTH_FIELD);
+        buf.putLong(start + LENGTH_FIELD, businessTs);
+        return true;
+    }
+
+    private Batch newBatch() {
+        Batch b = pool.poll();
+        return b != null ? b : new Batch(batchSize);
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                park();
+                handleKeys();
+                distribute();
+                updateLag();
+            }
+            drain();
+        } catch (IOException | ClosedSelectorException e) {
+            LOG.error("Egress I/O thread failed.", e);
+        } finally {
+            for (Subscriber s : new ArrayList<>(subscribers)) {
+                disconnect(s);
+            }
+            closeQuietly(server);
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * Selects, blocking only if no batch is waiting. Publishers wake the selector only while
+     * parked; checking the handover after raising the flag ensures no batch is left waiting.
+     */
+    private void park() throws IOException {
+        parked = true;
+        try {
+            if (handover.isEmpty()) {
+                selector.select(TICK_MILLIS);
+            } else {
+                selector.selectNow();
+            }
+        } finally {
+            parked = false;
+        }
+    }
+
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    Subscriber s = new Subscriber(channel);
+                    s.key = channel.register(selector, SelectionKey.OP_READ, s);
+                    subscribers.add(s);
+                    subscriberCount = subscribers.size();
+                    LOG.info("Subscriber {} connected.", channel.getRemoteAddress());
+                }
+                continue;
+            }
+            Subscriber s = (Subscriber) key.attachment();
+            if (key.isReadable() && !discardInput(s)) {
+                disconnect(s);
+            } else if (key.isValid() && key.isWritable()) {
+                write(s);
+            }
+        }
+    }
+
+    /**
+     * Reads and discards anything sent by the subscriber, detecting disconnects
+     * @return {@code false} if the subscriber has disconnected
+     */
+    private boolean discardInput(Subscriber s) {
+        try {
+            int read;
+            do {
+                ((Buffer) scratch).clear();
+                read = s.channel.read(scratch);
+            } while (read > 0);
+            return read == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void distribute() {
+        Batch b;
+        while ((b = handover.poll()) != null) {
+            int size = b.buffer.limit();
+            b.refs = 0;
+            for (int i = subscribers.size() - 1; i >= 0; i--) {
+                Subscriber s = subscribers.get(i);
+                if (s.pendingBytes + size > maxPendingBytes && !makeRoom(s, size)) {
+                    continue;
+                }
+                b.refs++;
+                s.pending.add(new Pending(b, b.buffer.duplicate()));
+                s.pendingBytes += size;
+            }
+            if (b.refs == 0) {
+                release(b);
+            }
+        }
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            tryWrite(subscribers.get(i));
+        }
+    }
+
+    /**
+     * Attempts to write pending batches, applying the {@link SlowSubscriberPolicy} if the
+     * backlog of the subscriber remains too large for another batch
+     * @return {@code true} if the batch can be added to the backlog
+     */
+    private boolean makeRoom(Subscriber s, int size) {
+        if (!tryWrite(s)) {
+            return false;
+        }
+        if (s.pendingBytes + size <= maxPendingBytes) {
+            return true;
+        }
+        if (policy == SlowSubscriberPolicy.DISCONNECT) {
+            LOG.warn("Disconnecting slow subscriber {} having {} bytes pending.", s, s.pendingBytes);
+            disconnects++;
+            disconnect(s);
+        } else {
+            droppedBatches++;
+        }
+        return false;
+    }
+
+    /**
+     * Writes pending batches unless the subscriber is waiting for its socket to become writable
+     * @return {@code false} if the subscriber has been disconnected
+     */
+    private boolean tryWrite(Subscriber s) {
+        if (!s.pending.isEmpty() && (s.key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+            write(s);
+        }
+        return s.key.isValid();
+    }
+
+    private void write(Subscriber s) {
+        ByteBuffer[] gather = s.gather;
+        int n = 0;
+        for (Pending p : s.pending) {
+            if (n == gather.length) {
+                break;
+            }
+            gather[n++] = p.buffer;
+        }
+        long written;
+        try {
+            written = s.channel.write(gather, 0, n);
+        } catch (IOException e) {
+            LOG.info("Subscriber {} disconnected: {}", s, e.getMessage());
+            disconnect(s);
+            return;
+        } finally {
+            for (int i = 0; i < n; i++) {
+                gather[i] = null;
+            }
+        }
+        sentBytes += written;
+        s.pendingBytes -= written;
+        Pending p;
+        while ((p = s.pending.peek()) != null && !p.buffer.hasRemaining()) {
+            s.pending.poll();
+            if (--p.batch.refs == 0) {
+                release(p.batch);
+            }
+        }
+        s.key.interestOps(s.pending.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void updateLag() {
+        long now = System.nanoTime();
+        long bytes = 0L;
+        long nanos = 0L;
+        for (Subscriber s : subscribers) {
+            bytes = Math.max(bytes, s.pendingBytes);
+            Pending p = s.pending.peek();
+            if (p != null) {
+                nanos = Math.max(nanos, now - p.batch.handedOver);
+            }
+        }
+        maxLagBytes = bytes;
+        maxLagNanos = nanos;
+    }
+
+    /**
+     * Writes remaining batches when closing, for at most one second
+     */
+    private void drain() throws IOException {
+        distribute();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (System.nanoTime() < deadline && subscribers.stream().anyMatch(s -> !s.pending.isEmpty())) {
+            selector.select(TICK_MILLIS);
+            handleKeys();
+        }
+    }
+
+    private void disconnect(Subscriber s) {
+        if (subscribers.remove(s)) {
+            subscriberCount = subscribers.size();
+            Pending p;
+            while ((p = s.pending.poll()) != null) {
+                if (--p.batch.refs == 0) {
+                    release(p.batch);
+                }
+            }
+            if (s.key != null) {
+                s.key.cancel();
+            }
+            closeQuietly(s.channel);
+        }
+    }
+
+    private void release(Batch b) {
+        ((Buffer) b.buffer).clear();
+        pool.offer(b);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close {}.", closeable, e);
+        }
+    }
+
+    private static final class Batch {
+
+        private final ByteBuffer buffer;
+        private int refs; //subscribers yet to write the batch; I/O thread only
+        private long handedOver;
+
+        private Batch(int size) {
+            this.buffer = ByteBuffer.allocateDirect(size);
+        }
+    }
+
+    private static final class Pending {
+
+        private final Batch batch;
+        private final ByteBuffer buffer;
+
+        private Pending(Batch batch, ByteBuffer buffer) {
+            this.batch = batch;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SocketChannel channel;
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        private SelectionKey key;
+        private long pendingBytes;
+
+        private Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public String toString() {
+            return channel.socket().getRemoteSocketAddress() + "";
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.net;
+
+/**
+ * Layout of frames sent over the network.
+ * <p>
+ * Each frame consists of
+ * <pre>
+ * int    frame length, excluding this field
+ * long   business timestamp
+ * byte[] message, as encoded by the codec
+ * </pre>
+ * Values are stored in big-endian (network) byte order. Over UDP, each datagram holds one
+ * or more complete frames.
+ *
+ * @author M Tegling
+ */
+final class Frames {
+
+    static final int LENGTH_FIELD = 4;
+    static final int HEADER = 12;
+
+    /** Default maximum size of a frame, including header; 64 kB */
+    static final int DEFAULT_MAX_FRAME_SIZE = 64 << 10;
+
+    private Frames() {
+        throw new UnsupportedOperationException("Invalid instantiation of utility class");
+    }
+
+}
@@ -0,0 +1,601 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.net;
+
+import static se.motility.ziploq.net.Frames.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.ZipFlow;
+
+/**
+ * Selector-based server feeding messages received over TCP and UDP into a {@link ZipFlow}.
+ * <p>
+ * Each TCP connection, and each remote UDP address, is registered as an ordered input source
+ * of the {@code ZipFlow}. Messages are received as length-prefixed frames (see
+ * {@link Frames}) into direct buffers and decoded in place using a {@link MessageCodec}. All
+ * frames received by a single read are enqueued as a batch, using the current system time.
+ * A handful of I/O threads, each owning a {@link Selector}, serve any number of connections.
+ * <p>
+ * To let the {@code ZipFlow} progress while sources are silent, system time of all sources is
+ * advanced every {@value #TICK_MILLIS} milliseconds. A TCP source is completed when its
+ * connection is closed by the peer or fails, or when a frame cannot be decoded; the server
+ * keeps serving other connections. UDP sources are completed when a datagram cannot be
+ * decoded, when no datagram has been received from the address for {@code udpIdleMillis},
+ * and when the server is closed. At most {@code maxUdpPeers} remote UDP addresses are
+ * registered at a time; datagrams from further addresses are discarded until an address has
+ * been completed.
+ * <p>
+ * An I/O thread enqueuing into a full {@link BackPressureStrategy#BLOCK BLOCK} source stalls
+ * all connections of that thread (and, through TCP flow control, their peers). Prefer
+ * {@link BackPressureStrategy#DROP DROP} or {@link BackPressureStrategy#UNBOUNDED UNBOUNDED}
+ * unless that is intended.
+ *
+ * @author M Tegling
+ *
+ * @param <T> message type
+ */
+public final class IngressServer<T> implements Closeable {
+
+    /** Interval, in milliseconds, of advancing system time of silent sources */
+    public static final long TICK_MILLIS = 10L;
+    /** Default time, in milliseconds, without datagrams after which a remote UDP address is completed */
+    public static final long DEFAULT_UDP_IDLE_MILLIS = 10_000L;
+    /** Default maximum number of remote UDP addresses registered at a time */
+    public static final int DEFAULT_MAX_UDP_PEERS = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngressServer.class);
+    private static final AtomicInteger ID_GEN = new AtomicInteger();
+
+    private final ZipFlow<? super T> zipFlow;
+    private final MessageCodec<T> codec;
+    private final int capacity;
+    private final BackPressureStrategy strategy;
+    private final int maxFrameSize;
+    private final long udpIdleMillis;
+    private final int maxUdpPeers;
+    private final ServerSocketChannel tcp;
+    private final DatagramChannel udp;
+    private final List<IoThread> ioThreads;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private int nextThread;
+    private volatile boolean running = true;
+
+    /**
+     * Opens a server, listening on the provided addresses, using the default UDP idle time
+     * and maximum number of UDP addresses
+     * @param zipFlow to register sources with
+     * @param codec decoding messages
+     * @param tcpAddress to accept TCP connections on, or {@code null} for none
+     * @param udpAddress to receive UDP datagrams on, or {@code null} for none
+     * @param ioThreads number of I/O threads
+     * @param capacity of each source; see {@link ZipFlow#registerOrdered(int, BackPressureStrategy, String)}
+     * @param strategy of each source
+     * @param <T> message type
+     * @return running server
+     * @throws UncheckedIOException if the server cannot be opened
+     */
+    public static <T> IngressServer<T> open(ZipFlow<? super T> zipFlow, MessageCodec<T> codec,
+            InetSocketAddress tcpAddress, InetSocketAddress udpAddress, int ioThreads,
+            int capacity, BackPressureStrategy strategy) {
+        return open(zipFlow, codec, tcpAddress, udpAddress, ioThreads, capacity, strategy,
+                DEFAULT_UDP_IDLE_MILLIS, DEFAULT_MAX_UDP_PEERS);
+    }
+
+    /**
+     * Opens a server, listening on the provided addresses
+     * @param zipFlow to register sources with
+     * @param codec decoding messages
+     * @param tcpAddress to accept TCP connections on, or {@code null} for none
+     * @param udpAddress to receive UDP datagrams on, or {@code null} for none
+     * @param ioThreads number of I/O threads
+     * @param capacity of each source; see {@link ZipFlow#registerOrdered(int, BackPressureStrategy, String)}
+     * @param strategy of each source
+     * @param udpIdleMillis time without datagrams after which a remote UDP address is completed
+     * @param maxUdpPeers maximum number of remote UDP addresses registered at a time
+     * @param <T> message type
+     * @return running server
+     * @throws UncheckedIOException if the server cannot be opened
+     */
+    public static <T> IngressServer<T> open(ZipFlow<? super T> zipFlow, MessageCodec<T> codec,
+            InetSocketAddress tcpAddress, InetSocketAddress udpAddress, int ioThreads,
+            int capacity, BackPressureStrategy strategy, long udpIdleMillis, int maxUdpPeers) {
+        if (zipFlow == null || codec == null || strategy == null) {
+            throw new IllegalArgumentException("Arguments 'zipFlow', 'codec' and 'strategy' must not be null.");
+        }
+        if (tcpAddress == null && udpAddress == null) {
+            throw new IllegalArgumentException("At least one of 'tcpAddress' and 'udpAddress' must be provided.");
+        }
+        if (ioThreads < 1) {
+            throw new IllegalArgumentException("Number of I/O threads must be positive. Provided value was " + ioThreads);
+        }
+        if (udpIdleMillis < TICK_MILLIS) {
+            throw new IllegalArgumentException("UDP idle time must be at least " + TICK_MILLIS
+                    + " ms. Provided value was " + udpIdleMillis);
+        }
+        if (maxUdpPeers < 1) {
+            throw new IllegalArgumentException("Max number of UDP peers must be positive. Provided value was " + maxUdpPeers);
+        }
+        try {
+            return new IngressServer<>(zipFlow, codec, tcpAddress, udpAddress, ioThreads, capacity, strategy,
+                    udpIdleMillis, maxUdpPeers);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ingress server.", e);
+        }
+    }
+
+    private IngressServer(ZipFlow<? super T> zipFlow, MessageCodec<T> codec, InetSocketAddress tcpAddress,
+            InetSocketAddress udpAddress, int ioThreads, int capacity, BackPressureStrategy strategy,
+            long udpIdleMillis, int maxUdpPeers) throws IOException {
+        this.zipFlow = zipFlow;
+        this.codec = codec;
+        this.capacity = capacity;
+        this.strategy = strategy;
+        this.maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+        this.udpIdleMillis = udpIdleMillis;
+        this.maxUdpPeers = maxUdpPeers;
+        this.ioThreads = new ArrayList<>(ioThreads);
+        ServerSocketChannel server = null;
+        DatagramChannel datagram = null;
+        try {
+            for (int i = 0; i < ioThreads; i++) {
+                this.ioThreads.add(new IoThread(i));
+            }
+            if (tcpAddress != null) {
+                server = ServerSocketChannel.open();
+                server.bind(tcpAddress);
+                server.configureBlocking(false);
+                server.register(this.ioThreads.get(0).selector, SelectionKey.OP_ACCEPT);
+            }
+            if (udpAddress != null) {
+                datagram = DatagramChannel.open();
+                datagram.bind(udpAddress);
+                datagram.configureBlocking(false);
+                IoThread owner = this.ioThreads.get(ioThreads - 1);
+                datagram.register(owner.selector, SelectionKey.OP_READ, new UdpEndpoint(datagram, owner));
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(server);
+            closeQuietly(datagram);
+            for (IoThread t : this.ioThreads) {
+                closeQuietly(t.selector);
+            }
+            throw e;
+        }
+        this.tcp = server;
+        this.udp = datagram;
+        int id = ID_GEN.incrementAndGet();
+        for (IoThread t : this.ioThreads) {
+            t.thread = new Thread(t, "ziploq-ingress-" + id + "-" + t.index);
+            t.thread.setDaemon(true);
+            t.thread.start();
+        }
+        LOG.info("Ingress server listening on TCP {} and UDP {} using {} I/O threads.",
+                tcp != null ? tcp.getLocalAddress() : "-", udp != null ? udp.getLocalAddress() : "-", ioThreads);
+    }
+
+    /**
+     * Returns the address accepting TCP connections
+     * @return bound TCP address, or {@code null} if not accepting TCP connections
+     */
+    public InetSocketAddress getTcpAddress() {
+        return tcp != null ? localAddress(tcp.socket().getLocalSocketAddress()) : null;
+    }
+
+    /**
+     * Returns the address receiving UDP datagrams
+     * @return bound UDP address, or {@code null} if not receiving UDP datagrams
+     */
+    public InetSocketAddress getUdpAddress() {
+        return udp != null ? localAddress(udp.socket().getLocalSocketAddress()) : null;
+    }
+
+    /**
+     * Returns the number of registered sources, i.e. TCP connections and remote UDP addresses,
+     * that have not yet been completed
+     * @return number of active sources
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Stops accepting connections, completes all sources and closes all connections
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (IoThread t : ioThreads) {
+            t.selector.wakeup();
+        }
+        for (IoThread t : ioThreads) {
+            try {
+                t.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closeQuietly(tcp);
+        closeQuietly(udp);
+        LOG.info("Ingress server closed.");
+    }
+
+    private FlowConsumer<T> register(String sourceName) {
+        connections.incrementAndGet();
+        return register(zipFlow, sourceName);
+    }
+
+    private <E> FlowConsumer<T> register(ZipFlow<E> flow, String sourceName) {
+        @SuppressWarnings("unchecked") //T is a subtype of E
+        FlowConsumer<T> consumer = (FlowConsumer<T>) flow.registerOrdered(capacity, strategy, sourceName);
+        return consumer;
+    }
+
+    private void complete(Source source) {
+        if (!source.completed) {
+            source.completed = true;
+            source.consumer.complete();
+            connections.decrementAndGet();
+        }
+    }
+
+    private static InetSocketAddress localAddress(SocketAddress address) {
+        return (InetSocketAddress) address;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close {}.", closeable, e);
+            }
+        }
+    }
+
+    /**
+     * Input source, i.e. a TCP connection or a remote UDP address
+     */
+    private final class Source {
+
+        private final FlowConsumer<T> consumer;
+        private long systemTs = Long.MIN_VALUE;
+        private long lastReceived;
+        private boolean completed;
+
+        private Source(String sourceName) {
+            this.consumer = register(sourceName);
+        }
+
+        private void tick(long now) {
+            if (now > systemTs && !completed) {
+                systemTs = now;
+                consumer.updateSystemTime(now);
+            }
+        }
+    }
+
+    /**
+     * Attachment of the selection key of a TCP connection or the UDP channel
+     */
+    private interface Attachment {
+
+        void onSelected(SelectionKey key, long now) throws IOException;
+
+        void tick(long now);
+
+        /** Closes the channel, if owned, and completes its sources */
+        void close();
+    }
+
+    private final class TcpConnection implements Attachment {
+
+        private final SocketChannel channel;
+        private final IoThread owner;
+        private final Source source;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(maxFrameSize);
+
+        private TcpConnection(SocketChannel channel, IoThread owner, String sourceName) {
+            this.channel = channel;
+            this.owner = owner;
+            this.source = new Source(sourceName);
+        }
+
+        @Override
+        public void onSelected(SelectionKey key, long now) {
+            owner.read(key, this, now);
+        }
+
+        @Override
+        public void tick(long now) {
+            source.tick(now);
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(channel);
+            complete(source);
+        }
+    }
+
+    private final class UdpEndpoint implements Attachment {
+
+        private final DatagramChannel channel;
+        private final IoThread owner;
+        private final Map<SocketAddress, Source> peers = new HashMap<>();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(maxFrameSize);
+
+        private UdpEndpoint(DatagramChannel channel, IoThread owner) {
+            this.channel = channel;
+            this.owner = owner;
+        }
+
+        @Override
+        public void onSelected(SelectionKey key, long now) throws IOException {
+            owner.receive(this, now);
+        }
+
+        @Override
+        public void tick(long now) {
+            Iterator<Map.Entry<SocketAddress, Source>> it = peers.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<SocketAddress, Source> peer = it.next();
+                Source source = peer.getValue();
+                if (now - source.lastReceived >= udpIdleMillis) {
+                    it.remove();
+                    complete(source);
+                    LOG.debug("Completed idle source of {}.", peer.getKey());
+                } else {
+                    source.tick(now);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            peers.values().forEach(IngressServer.this::complete); //the channel is closed by the server
+        }
+    }
+
+    private final class IoThread implements Runnable {
+
+        private final int index;
+        private final Selector selector;
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final List<T> messages = new ArrayList<>();
+        private long[] businessTs = new long[256];
+        private long[] systemTs = new long[256];
+        private Thread thread;
+        private long lastTick;
+
+        private IoThread(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(TICK_MILLIS);
+                    registerAccepted();
+                    long now = System.currentTimeMillis();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel());
+                        } else {
+                            ((Attachment) key.attachment()).onSelected(key, now);
+                        }
+                    }
+                    if (now - lastTick >= TICK_MILLIS) {
+                        tick(now);
+                        lastTick = now;
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                LOG.error("I/O thread {} failed.", index, e);
+            } finally {
+                shutdown();
+            }
+        }
+
+        private void accept(ServerSocketChannel server) throws IOException {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                IoThread owner = ioThreads.get(nextThread++ % ioThreads.size());
+                owner.accepted.offer(channel);
+                if (owner != this) {
+                    owner.selector.wakeup();
+                }
+            }
+        }
+
+        private void registerAccepted() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    String sourceName = "tcp:" + channel.getRemoteAddress();
+                    //register the key first; the source must not be registered unless it can be read
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new TcpConnection(channel, this, sourceName));
+                    LOG.debug("Accepted connection from {}.", channel.getRemoteAddress());
+                } catch (IOException e) {
+                    LOG.warn("Failed to register connection {}.", channel, e);
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void read(SelectionKey key, TcpConnection connection, long now) {
+            ByteBuffer buf = connection.buffer;
+            boolean open;
+            try {
+                open = connection.channel.read(buf) >= 0;
+            } catch (IOException e) {
+                LOG.warn("Connection {} failed: {}", connection.source.consumer.getId(), e.getMessage());
+                open = false;
+            }
+            ((Buffer) buf).flip(); //Buffer methods, for Java 8 compatibility
+            boolean valid = decode(buf, connection.source, now);
+            buf.compact();
+            if (!open || !valid) {
+                key.cancel();
+                connection.close();
+                LOG.debug("Connection {} closed.", connection.source.consumer.getId());
+            }
+        }
+
+        private void receive(UdpEndpoint endpoint, long now) throws IOException {
+            ByteBuffer buf = endpoint.buffer;
+            SocketAddress peer;
+            while ((peer = endpoint.channel.receive(buf)) != null) {
+                Source source = endpoint.peers.get(peer);
+                if (source == null) {
+                    if (endpoint.peers.size() >= maxUdpPeers) {
+                        LOG.debug("Discarding datagram from {}; {} UDP peers registered.", peer, maxUdpPeers);
+                        ((Buffer) buf).clear();
+                        continue;
+                    }
+                    source = new Source("udp:" + peer);
+                    endpoint.peers.put(peer, source);
+                }
+                source.lastReceived = now;
+                ((Buffer) buf).flip();
+                if (!decode(buf, source, now)) {
+                    LOG.warn("Completing source of {} after malformed datagram.", peer);
+                    endpoint.peers.remove(peer);
+                    complete(source);
+                } else if (buf.hasRemaining()) {
+                    LOG.warn("Discarding partial frame from {}.", peer);
+                }
+                ((Buffer) buf).clear();
+            }
+        }
+
+        /**
+         * Decodes all complete frames between position and limit and enqueues them as a batch.
+         * Leaves the position at the start of any partial frame. Frames decoded before an
+         * invalid one are still enqueued.
+         * @return {@code false} if a frame exceeds the maximum frame size, or if decoding or
+         *         enqueuing fails
+         */
+        private boolean decode(ByteBuffer buf, Source source, long now) {
+            boolean valid = true;
+            int n = 0;
+            try {
+                while (buf.remaining() >= LENGTH_FIELD) {
+                    int start = buf.position();
+                    int length = buf.getInt(start);
+                    if (length < HEADER - LENGTH_FIELD || length > maxFrameSize - LENGTH_FIELD) {
+                        LOG.warn("Invalid frame length {} from {}.", length, source.consumer.getId());
+                        valid = false;
+                        break;
+                    }
+                    int end = start + LENGTH_FIELD + length;
+                    if (end > buf.limit()) {
+                        break; //partial frame
+                    }
+                    int limit = buf.limit();
+                    ((Buffer) buf).limit(end).position(start + HEADER);
+                    try {
+                        messages.add(codec.decode(buf));
+                    } finally {
+                        ((Buffer) buf).limit(limit).position(end);
+                    }
+                    if (n == businessTs.length) {
+                        businessTs = Arrays.copyOf(businessTs, n << 1);
+                        systemTs = Arrays.copyOf(systemTs, n << 1);
+                    }
+                    businessTs[n] = buf.getLong(start + LENGTH_FIELD);
+                    systemTs[n++] = Math.max(now, source.systemTs);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to decode frame from {}.", source.consumer.getId(), e);
+                valid = false;
+            }
+            try {
+                if (n > 0 && !source.completed) {
+                    source.systemTs = systemTs[n - 1];
+                    source.consumer.onEvents(messages, businessTs, systemTs);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to enqueue frames from {}.", source.consumer.getId(), e);
+                valid = false;
+            } finally {
+                messages.clear();
+            }
+            return valid;
+        }
+
+        private void tick(long now) {
+            for (SelectionKey key : selector.keys()) {
+                Object attachment = key.attachment();
+                if (attachment instanceof Attachment) {
+                    ((Attachment) attachment).tick(now);
+                }
+            }
+        }
+
+        private void shutdown() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    Object attachment = key.attachment();
+                    if (attachment instanceof Attachment) {
+                        ((Attachment) attachment).close();
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                //already closed
+            }
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                closeQuietly(channel);
+            }
+            closeQuietly(selector);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.net;
+
+/**
+ * Action taken by {@link EgressPublisher} when the backlog of a subscriber exceeds its bound
+ *
+ * @author M Tegling
+ */
+public enum SlowSubscriberPolicy {
+
+    /** Disconnects the subscriber */
+    DISCONNECT,
+
+    /** Drops batches for the subscriber until its backlog is within bounds again */
+    DROP;
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ops;
+
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Event-time <i>as-of join</i> of two kinds of messages in the sequenced output of a
+ * {@link Ziploq}, e.g. joining each trade with the latest quote for the same instrument.
+ * <p>
+ * Since the output is already ordered by business time, the latest right-side message seen
+ * for a key is exactly the latest one <i>as of</i> the business timestamp of the left-side
+ * message being joined. Right-side messages are therefore kept in a plain map, one value per
+ * key, without any time index. For right-side and left-side messages having the same business
+ * timestamp, the sequence imposed by the {@code Ziploq}'s {@code Comparator} decides whether
+ * the right-side message is included in the join.
+ * <p>
+ * Keys are primitive {@code long}s held in an open-addressing map. Joined records are passed
+ * to a {@link Handler} as separate arguments, so no objects are allocated per message.
+ * Messages of neither kind are ignored. To join with several right sides, chain multiple
+ * instances using {@link Consumer#andThen}.
+ * <p>
+ * Not thread-safe; use from the thread consuming the sequenced output, e.g.
+ * {@code ziploq.stream().forEach(join)}.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type of the {@code Ziploq}
+ * @param <L> left-side message type, e.g. trade
+ * @param <R> right-side message type, e.g. quote
+ */
+public final class AsOfJoin<E, L, R> implements Consumer<Entry<E>> {
+
+    /**
+     * Receives joined records
+     *
+     * @param <L> left-side message type
+     * @param <R> right-side message type
+     */
+    @FunctionalInterface
+    public interface Handler<L, R> {
+        /**
+         * Called for each left-side message
+         * @param left message
+         * @param businessTs of the left message
+         * @param right latest right-side message having the same key, or {@code null} if none
+         */
+        void onJoin(L left, long businessTs, R right);
+    }
+
+    private final Class<L> leftType;
+    private final ToLongFunction<? super L> leftKey;
+    private final Class<R> rightType;
+    private final ToLongFunction<? super R> rightKey;
+    private final Handler<? super L, ? super R> handler;
+    private final LongObjectMap<R> latest;
+
+    /**
+     * Creates a new as-of join
+     * @param leftType class of left-side messages
+     * @param leftKey extracting the join key of left-side messages
+     * @param rightType class of right-side messages
+     * @param rightKey extracting the join key of right-side messages
+     * @param handler receiving joined records
+     * @param expectedKeys number of distinct right-side keys expected; used for sizing
+     * @param <E> message type of the {@code Ziploq}
+     * @param <L> left-side message type
+     * @param <R> right-side message type
+     * @return a new {@code AsOfJoin}
+     */
+    public static <E, L, R> AsOfJoin<E, L, R> create(
+            Class<L> leftType, ToLongFunction<? super L> leftKey,
+            Class<R> rightType, ToLongFunction<? super R> rightKey,
+            Handler<? super L, ? super R> handler, int expectedKeys) {
+        notNull(leftType, "leftType");
+        notNull(leftKey, "leftKey");
+        notNull(rightType, "rightType");
+        notNull(rightKey, "rightKey");
+        notNull(handler, "handler");
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("Expected keys must be non-negative. Provided value was " + expectedKeys);
+        }
+        return new AsOfJoin<>(leftType, leftKey, rightType, rightKey, handler, expectedKeys);
+    }
+
+    private AsOfJoin(Class<L> leftType, ToLongFunction<? super L> leftKey,
+            Class<R> rightType, ToLongFunction<? super R> rightKey,
+            Handler<? super L, ? super R> handler, int expectedKeys) {
+        this.leftType = leftType;
+        this.leftKey = leftKey;
+        this.rightType = rightType;
+        this.rightKey = rightKey;
+        this.handler = handler;
+        this.latest = new LongObjectMap<>(expectedKeys);
+    }
+
+    @Override
+    public void accept(Entry<E> entry) {
+        Object msg = entry.getMessage();
+        if (rightType.isInstance(msg)) {
+            R right = rightType.cast(msg);
+            latest.put(rightKey.applyAsLong(right), right);
+        } else if (leftType.isInstance(msg)) {
+            L left = leftType.cast(msg);
+            handler.onJoin(left, entry.getBusinessTs(), latest.get(leftKey.applyAsLong(left)));
+        }
+    }
+
+    /**
+     * Returns the latest right-side message having the provided key
+     * @param key to look up
+     * @return latest right-side message, or {@code null} if none
+     */
+    public R getLatest(long key) {
+        return latest.get(key);
+    }
+
+    /**
+     * Returns the number of distinct right-side keys seen
+     * @return the number of distinct right-side keys
+     */
+    public int size() {
+        return latest.size();
+    }
+
+    private static void notNull(Object value, String argName) {
+        if (value == null) {
+            throw new IllegalArgumentException("Argument '" + argName + "' is null.");
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ops;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to non-negative {@code int}
+ * values, using linear probing. Nothing is allocated, except when growing. Entries cannot
+ * be removed.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author M Tegling
+ * @see LongObjectMap
+ */
+final class LongIntMap {
+
+    static final int MISSING = -1;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongIntMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity < MAX_CAPACITY && capacity * 3L / 4 <= expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value associated with the key
+     * @param key to look up
+     * @return associated value, or {@link #MISSING} if none
+     */
+    int get(long key) {
+        int i = LongObjectMap.index(key, mask);
+        int v;
+        while ((v = values[i]) != MISSING) {
+            if (keys[i] == key) {
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value
+     * @param key to associate the value with
+     * @param value to associate; must be non-negative
+     */
+    void put(long key, int value) {
+        int i = LongObjectMap.index(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size == resizeAt) {
+            grow();
+            put(key, value);
+            return;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        resizeAt = capacity / 2 + capacity / 4; //load factor 0.75
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Map is full. Size: " + size);
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ops;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to non-null values, using
+ * linear probing. Keys are never boxed and no objects are allocated, except when growing.
+ * Entries cannot be removed.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author M Tegling
+ *
+ * @param <V> value type
+ */
+final class LongObjectMap<V> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongObjectMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity < MAX_CAPACITY && capacity * 3L / 4 <= expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value associated with the key
+     * @param key to look up
+     * @return associated value, or {@code null} if none
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int i = index(key, mask);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value
+     * @param key to associate the value with
+     * @param value to associate; must not be {@code null}
+     */
+    void put(long key, V value) {
+        int i = index(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size == resizeAt) {
+            grow();
+            put(key, value);
+            return;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static int index(long key, int mask) {
+        //MurmurHash3 finalizer; spreads sequential keys across the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 2 + capacity / 4; //load factor 0.75
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Map is full. Size: " + size);
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(keys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+}
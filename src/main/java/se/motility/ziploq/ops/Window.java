@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ops;
+
+/**
+ * Business time window specification used by {@link WindowAggregator}.
+ * <p>
+ * Tumbling and sliding windows are aligned to business timestamp 0, i.e. window end
+ * timestamps are multiples of the slide. Window start is inclusive and end exclusive.
+ *
+ * @author M Tegling
+ */
+public final class Window {
+
+    private final long size;
+    private final long slide;
+    private final boolean session;
+
+    /**
+     * Creates a specification of non-overlapping windows of fixed size
+     * @param size of each window, in business time units
+     * @return tumbling window specification
+     */
+    public static Window tumbling(long size) {
+        return sliding(size, size);
+    }
+
+    /**
+     * Creates a specification of overlapping windows of fixed size, starting every
+     * {@code slide} business time units. Each message belongs to {@code size / slide} windows.
+     * @param size of each window, in business time units
+     * @param slide between window starts; {@code size} must be a multiple of {@code slide}
+     * @return sliding window specification
+     */
+    public static Window sliding(long size, long slide) {
+        if (slide <= 0) {
+            throw new IllegalArgumentException("Slide must be positive. Provided value was " + slide);
+        }
+        if (size < slide || size % slide != 0) {
+            throw new IllegalArgumentException("Size must be a multiple of slide. Provided values were "
+                    + size + " and " + slide);
+        }
+        if (size / slide > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Size must be at most Integer.MAX_VALUE slides. Provided values were "
+                    + size + " and " + slide);
+        }
+        return new Window(size, slide, false);
+    }
+
+    /**
+     * Creates a specification of per-key windows spanning messages less than {@code gap}
+     * business time units apart. A session window ends {@code gap} after its last message.
+     * @param gap of inactivity closing a session, in business time units
+     * @return session window specification
+     */
+    public static Window session(long gap) {
+        if (gap <= 0) {
+            throw new IllegalArgumentException("Gap must be positive. Provided value was " + gap);
+        }
+        return new Window(gap, gap, true);
+    }
+
+    private Window(long size, long slide, boolean session) {
+        this.size = size;
+        this.slide = slide;
+        this.session = session;
+    }
+
+    /**
+     * Returns window size, or gap for session windows
+     * @return window size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns window slide, or gap for session windows
+     * @return window slide
+     */
+    public long getSlide() {
+        return slide;
+    }
+
+    public boolean isSession() {
+        return session;
+    }
+
+    int panes() {
+        return session ? 1 : (int) (size / slide);
+    }
+
+    @Override
+    public String toString() {
+        return session
+                ? "Window [session, gap=" + size + "]"
+                : "Window [size=" + size + ", slide=" + slide + "]";
+    }
+
+}
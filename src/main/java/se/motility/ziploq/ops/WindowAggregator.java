@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.ops;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+
+/**
+ * Keyed business time <i>window aggregation</i> of messages in the sequenced output of a
+ * {@link Ziploq}, e.g. computing per-instrument traded volume every minute.
+ * <p>
+ * Since the output is already ordered by business time, no out-of-order buffering is
+ * needed. Each message is folded into count, sum, min, max and an optional user-defined
+ * reducer as it arrives, and a window is closed exactly when business time reaches its end.
+ * Sliding windows are split into panes of {@link Window#getSlide() slide} length, so each
+ * message updates a single pane and a closing window combines {@code size / slide} panes.
+ * <p>
+ * Business time advances with each message. To close windows during silent periods, call
+ * {@link #advanceTo(long)} with {@link ZipFlow#getBusinessWatermark(java.util.function.LongUnaryOperator)}
+ * whenever {@link ZipFlow#poll()} returns {@code null}. That requires business time to be
+ * mappable from system time; otherwise, only {@link ZipFlow#getBusinessWatermark()} is a valid
+ * bound, which doesn't advance with system time. Messages having a business timestamp below
+ * business time already advanced to are dropped and counted, see {@link #getLateCount()}.
+ * <p>
+ * Aggregates are kept in primitive arrays indexed via an open-addressing map of {@code long}
+ * keys. Nothing is allocated per message, except when growing. State is kept for every
+ * distinct key seen. Windows closing at the same time are emitted in order of their latest
+ * update.
+ * <p>
+ * Not thread-safe; use from the thread consuming the sequenced output.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type of the {@code Ziploq}
+ * @param <M> aggregated message type
+ */
+public final class WindowAggregator<E, M> implements Consumer<Entry<E>> {
+
+    /**
+     * Receives closed windows
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Called for each closed window holding at least one message
+         * @param key of the window
+         * @param start business timestamp of the window (inclusive)
+         * @param end business timestamp of the window (exclusive)
+         * @param aggregate of the window; only valid during the call
+         */
+        void onWindow(long key, long start, long end, Aggregate aggregate);
+    }
+
+    /**
+     * Aggregated values of a window. Instances are reused; do not keep references.
+     */
+    public static final class Aggregate {
+
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private double reduced;
+
+        private Aggregate() {}
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return sum / count;
+        }
+
+        /**
+         * Returns the result of the user-defined reducer, or its identity if none was provided
+         * @return reduced value
+         */
+        public double getReduced() {
+            return reduced;
+        }
+
+        @Override
+        public String toString() {
+            return "Aggregate [count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max
+                    + ", reduced=" + reduced + "]";
+        }
+    }
+
+    private static final int NIL = -1;
+
+    private final Window window;
+    private final Class<M> type;
+    private final ToLongFunction<? super M> keyFunction;
+    private final ToDoubleFunction<? super M> valueFunction;
+    private final double identity;
+    private final DoubleBinaryOperator reducer;
+    private final Handler handler;
+    private final int panes;
+    private final LongIntMap slots;
+    private final Aggregate aggregate = new Aggregate();
+
+    //Per slot, i.e. per key
+    private long[] keys;
+    private long[] last;
+    private int[] prev;
+    private int[] next;
+    private boolean[] linked;
+    private int slotCount;
+
+    //Per pane; slot * panes + paneId % panes
+    private long[] paneIds; //session start for session windows
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxs;
+    private double[] reduceds;
+
+    //Active slots, ordered by latest update
+    private int head = NIL;
+    private int tail = NIL;
+
+    private long businessTs = Long.MIN_VALUE;
+    private long nextBoundary = Long.MIN_VALUE;
+    private long lateCount;
+
+    /**
+     * Creates a new window aggregator computing count, sum, min and max
+     * @param window specification
+     * @param type class of messages to aggregate; other messages are ignored
+     * @param keyFunction extracting the key of messages
+     * @param valueFunction extracting the value to aggregate
+     * @param handler receiving closed windows
+     * @param expectedKeys number of distinct keys expected; used for sizing
+     * @param <E> message type of the {@code Ziploq}
+     * @param <M> aggregated message type
+     * @return a new {@code WindowAggregator}
+     */
+    public static <E, M> WindowAggregator<E, M> create(Window window, Class<M> type,
+            ToLongFunction<? super M> keyFunction, ToDoubleFunction<? super M> valueFunction,
+            Handler handler, int expectedKeys) {
+        return create(window, type, keyFunction, valueFunction, 0d, null, handler, expectedKeys);
+    }
+
+    /**
+     * Creates a new window aggregator computing count, sum, min, max and a user-defined reduction
+     * @param window specification
+     * @param type class of messages to aggregate; other messages are ignored
+     * @param keyFunction extracting the key of messages
+     * @param valueFunction extracting the value to aggregate
+     * @param identity of the reducer, i.e. the reduced value of an empty window
+     * @param reducer associative function combining two values, or {@code null} if none
+     * @param handler receiving closed windows
+     * @param expectedKeys number of distinct keys expected; used for sizing
+     * @param <E> message type of the {@code Ziploq}
+     * @param <M> aggregated message type
+     * @return a new {@code WindowAggregator}
+     */
+    public static <E, M> WindowAggregator<E, M> create(Window window, Class<M> type,
+            ToLongFunction<? super M> keyFunction, ToDoubleFunction<? super M> valueFunction,
+            double identity, DoubleBinaryOperator reducer, Handler handler, int expectedKeys) {
+        notNull(window, "window");
+        notNull(type, "type");
+        notNull(keyFunction, "keyFunction");
+        notNull(valueFunction, "valueFunction");
+        notNull(handler, "handler");
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("Expected keys must be non-negative. Provided value was " + expectedKeys);
+        }
+        return new WindowAggregator<>(window, type, keyFunction, valueFunction, identity, reducer, handler, expectedKeys);
+    }
+
+    private WindowAggregator(Window window, Class<M> type,
+            ToLongFunction<? super M> keyFunction, ToDoubleFunction<? super M> valueFunction,
+            double identity, DoubleBinaryOperator reducer, Handler handler, int expectedKeys) {
+        this.window = window;
+        this.type = type;
+        this.keyFunction = keyFunction;
+        this.valueFunction = valueFunction;
+        this.identity = identity;
+        this.reducer = reducer;
+        this.handler = handler;
+        this.panes = window.panes();
+        this.slots = new LongIntMap(expectedKeys);
+        allocate(Math.max(expectedKeys, 8));
+    }
+
+    @Override
+    public void accept(Entry<E> entry) {
+        Object msg = entry.getMessage();
+        if (!type.isInstance(msg)) {
+            return;
+        }
+        long ts = entry.getBusinessTs();
+        if (ts < businessTs) {
+            lateCount++;
+            return;
+        }
+        advanceTo(ts);
+        M m = type.cast(msg);
+        update(slotOf(keyFunction.applyAsLong(m)), ts, valueFunction.applyAsDouble(m));
+    }
+
+    /**
+     * Advances business time, closing all windows ending at or before the provided timestamp.
+     * Subsequent messages having a lower business timestamp are dropped.
+     * @param businessTs lower bound for the business timestamp of subsequent messages,
+     *        e.g. from {@link ZipFlow#getBusinessWatermark(java.util.function.LongUnaryOperator)}
+     */
+    public void advanceTo(long businessTs) {
+        if (businessTs <= this.businessTs) {
+            return;
+        }
+        this.businessTs = businessTs;
+        if (window.isSession()) {
+            long gap = window.getSize();
+            while (head != NIL && businessTs - last[head] >= gap) {
+                closeSession(head);
+            }
+        } else {
+            while (head != NIL && nextBoundary <= businessTs) {
+                closeBoundary(nextBoundary);
+                nextBoundary += window.getSlide();
+            }
+            if (head == NIL && nextBoundary <= businessTs) {
+                nextBoundary = boundaryAfter(businessTs);
+            }
+        }
+    }
+
+    /**
+     * Closes all open windows, e.g. at end of input. Subsequent messages are dropped.
+     */
+    public void flush() {
+        if (window.isSession()) {
+            while (head != NIL) {
+                closeSession(head);
+            }
+        } else {
+            while (head != NIL) {
+                closeBoundary(nextBoundary);
+                nextBoundary += window.getSlide();
+            }
+        }
+        businessTs = Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of dropped messages, having a business timestamp below business
+     * time already advanced to
+     * @return the number of dropped late messages
+     */
+    public long getLateCount() {
+        return lateCount;
+    }
+
+    /**
+     * Returns the number of keys having open windows
+     * @return the number of keys having open windows
+     */
+    public int getOpenKeys() {
+        int n = 0;
+        for (int s = head; s != NIL; s = next[s]) {
+            n++;
+        }
+        return n;
+    }
+
+    private int slotOf(long key) {
+        int slot = slots.get(key);
+        if (slot == LongIntMap.MISSING) {
+            slot = slotCount++;
+            if (slot == keys.length) {
+                grow();
+            }
+            keys[slot] = key;
+            slots.put(key, slot);
+        }
+        return slot;
+    }
+
+    private void update(int slot, long ts, double value) {
+        int i;
+        if (window.isSession()) {
+            i = slot;
+            if (!linked[slot]) {
+                reset(i, ts);
+            }
+        } else {
+            long paneId = Math.floorDiv(ts, window.getSlide());
+            i = slot * panes + (int) Math.floorMod(paneId, (long) panes);
+            if (counts[i] == 0 || paneIds[i] != paneId) {
+                reset(i, paneId);
+            }
+        }
+        counts[i]++;
+        sums[i] += value;
+        mins[i] = Math.min(mins[i], value);
+        maxs[i] = Math.max(maxs[i], value);
+        if (reducer != null) {
+            reduceds[i] = reducer.applyAsDouble(reduceds[i], value);
+        }
+        last[slot] = ts;
+        moveToTail(slot);
+    }
+
+    private void reset(int i, long paneId) {
+        paneIds[i] = paneId;
+        counts[i] = 0L;
+        sums[i] = 0d;
+        mins[i] = Double.POSITIVE_INFINITY;
+        maxs[i] = Double.NEGATIVE_INFINITY;
+        reduceds[i] = identity;
+    }
+
+    private void closeSession(int slot) {
+        clear();
+        combine(slot);
+        unlink(slot);
+        handler.onWindow(keys[slot], paneIds[slot], last[slot] + window.getSize(), aggregate);
+    }
+
+    private void closeBoundary(long end) {
+        long start = end - window.getSize();
+        long firstPane = Math.floorDiv(start, window.getSlide());
+        long endPane = firstPane + panes;
+        for (int s = head; s != NIL; s = next[s]) {
+            clear();
+            int base = s * panes;
+            for (int i = base; i < base + panes; i++) {
+                if (counts[i] != 0 && paneIds[i] >= firstPane && paneIds[i] < endPane) {
+                    combine(i);
+                }
+            }
+            if (aggregate.count != 0) {
+                handler.onWindow(keys[s], start, end, aggregate);
+            }
+        }
+        long nextStart = start + window.getSlide();
+        while (head != NIL && last[head] < nextStart) {
+            unlink(head); //no data in any later window
+        }
+    }
+
+    private void clear() {
+        aggregate.count = 0L;
+        aggregate.sum = 0d;
+        aggregate.min = Double.POSITIVE_INFINITY;
+        aggregate.max = Double.NEGATIVE_INFINITY;
+        aggregate.reduced = identity;
+    }
+
+    private void combine(int i) {
+        aggregate.count += counts[i];
+        aggregate.sum += sums[i];
+        aggregate.min = Math.min(aggregate.min, mins[i]);
+        aggregate.max = Math.max(aggregate.max, maxs[i]);
+        if (reducer != null) {
+            aggregate.reduced = reducer.applyAsDouble(aggregate.reduced, reduceds[i]);
+        }
+    }
+
+    private long boundaryAfter(long ts) {
+        long slide = window.getSlide();
+        long paneId = Math.floorDiv(ts, slide) + 1;
+        return paneId > Long.MAX_VALUE / slide ? Long.MAX_VALUE : paneId * slide;
+    }
+
+    private void moveToTail(int slot) {
+        if (slot == tail) {
+            return;
+        }
+        if (linked[slot]) {
+            unlink(slot);
+        }
+        linked[slot] = true;
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p == NIL) {
+            head = n;
+        } else {
+            next[p] = n;
+        }
+        if (n == NIL) {
+            tail = p;
+        } else {
+            prev[n] = p;
+        }
+        linked[slot] = false;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        last = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        linked = new boolean[capacity];
+        int paneCapacity = Math.multiplyExact(capacity, panes);
+        paneIds = new long[paneCapacity];
+        counts = new long[paneCapacity];
+        sums = new double[paneCapacity];
+        mins = new double[paneCapacity];
+        maxs = new double[paneCapacity];
+        reduceds = new double[paneCapacity];
+    }
+
+    private void grow() {
+        int capacity = keys.length << 1;
+        if (capacity < 0) {
+            throw new IllegalStateException("Too many keys: " + keys.length);
+        }
+        keys = Arrays.copyOf(keys, capacity);
+        last = Arrays.copyOf(last, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        linked = Arrays.copyOf(linked, capacity);
+        int paneCapacity = Math.multiplyExact(capacity, panes);
+        paneIds = Arrays.copyOf(paneIds, paneCapacity);
+        counts = Arrays.copyOf(counts, paneCapacity);
+        sums = Arrays.copyOf(sums, paneCapacity);
+        mins = Arrays.copyOf(mins, paneCapacity);
+        maxs = Arrays.copyOf(maxs, paneCapacity);
+        reduceds = Arrays.copyOf(reduceds, paneCapacity);
+    }
+
+    private static void notNull(Object value, String argName) {
+        if (value == null) {
+            throw new IllegalArgumentException("Argument '" + argName + "' is null.");
+        }
+    }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.sort;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.RuntimeInterruptedException;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+/**
+ * External merge sort of datasets too large to fit in memory, using {@link Ziploq} for the
+ * final merge.
+ * <p>
+ * The input is read in chunks of {@code runSize} messages. Each chunk is sorted by a pool of
+ * worker threads and written to a temporary run file, encoded using a {@link MessageCodec}.
+ * At most {@code threads + 1} chunks are held in memory at any time, one of them being filled
+ * by the calling thread. Once the input is exhausted, each run is registered as an ordered
+ * source of a new {@code Ziploq}, see {@link Ziploq#registerIterator}, and read back lazily by
+ * the thread retrieving the sorted output.
+ * <p>
+ * Messages are ordered exactly like {@code Ziploq} orders them: by business timestamp, using
+ * the provided comparator for ties. If no comparator is provided, no ordering is imposed on
+ * ties.
+ * <p>
+ * Run files are deleted as soon as they have been opened for reading (or on exit, on platforms
+ * not permitting that), so nothing is left behind. Each run keeps a file open until read to the
+ * end; choose {@code runSize} so that the number of runs stays well below the limit of open
+ * files.
+ *
+ * @author M Tegling
+ *
+ * @param <E> message type
+ */
+public final class ExternalSort<E> {
+
+    /** Default number of messages per run */
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+    /** Size of the buffer used when writing runs; limits the size of an encoded message */
+    public static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExternalSort.class);
+    private static final AtomicInteger ID_GEN = new AtomicInteger();
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final MessageCodec<E> codec;
+    private final ToLongFunction<? super E> toTimestamp;
+    private final Comparator<E> comparator;
+    private final Path dir;
+    private final int runSize;
+    private final int threads;
+
+    /**
+     * Creates an external sort
+     * @param codec encoding messages in run files
+     * @param toTimestamp function extracting business timestamp from message
+     * @param comparator to use if multiple messages have the exact same business timestamp;
+     *        {@code null} imposes no ordering on ties
+     * @param dir directory to create run files in
+     * @param runSize number of messages per run, i.e. per chunk sorted in memory
+     * @param threads number of threads sorting and writing runs
+     * @param <E> message type
+     * @return external sort
+     */
+    public static <E> ExternalSort<E> create(MessageCodec<E> codec, ToLongFunction<? super E> toTimestamp,
+            Comparator<E> comparator, Path dir, int runSize, int threads) {
+        if (codec == null || toTimestamp == null || dir == null) {
+            throw new IllegalArgumentException("Arguments 'codec', 'toTimestamp' and 'dir' must not be null.");
+        }
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive. Provided value was " + runSize);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive. Provided value was " + threads);
+        }
+        return new ExternalSort<>(codec, toTimestamp, comparator, dir, runSize, threads);
+    }
+
+    private ExternalSort(MessageCodec<E> codec, ToLongFunction<? super E> toTimestamp,
+            Comparator<E> comparator, Path dir, int runSize, int threads) {
+        this.codec = codec;
+        this.toTimestamp = toTimestamp;
+        this.comparator = comparator;
+        this.dir = dir;
+        this.runSize = runSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Sorts the provided input. Returns once all runs have been written; the final merge is
+     * performed lazily when retrieving messages from the returned {@code Ziploq}.
+     * @param input to sort, in any order
+     * @return {@code Ziploq} emitting the sorted input; all its sources are completed
+     * @throws UncheckedIOException if run files cannot be written
+     * @throws RuntimeInterruptedException if thread is interrupted while awaiting workers
+     */
+    public Ziploq<E> sort(Iterator<? extends E> input) {
+        Ziploq<E> ziploq = ZiploqFactory.create(comparator);
+        List<Path> runs = createRuns(input, ziploq.getComparator());
+        List<RunReader<E>> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                readers.add(new RunReader<>(run, codec));
+            }
+        } catch (UncheckedIOException e) {
+            readers.forEach(RunReader::close);
+            deleteAll(runs);
+            throw e;
+        }
+        for (int i = 0; i < readers.size(); i++) {
+            ziploq.registerIterator(readers.get(i), toTimestamp, "run-" + i);
+        }
+        if (readers.isEmpty()) {
+            ziploq.registerIterator(Collections.<E>emptyIterator(), toTimestamp, "run-0"); //completes the Ziploq
+        }
+        return ziploq;
+    }
+
+    private List<Path> createRuns(Iterator<? extends E> input, Comparator<Entry<E>> order) {
+        int id = ID_GEN.incrementAndGet();
+        AtomicInteger workers = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ziploq-sort-" + id + "-" + workers.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore inFlight = new Semaphore(threads + 1);
+        List<Path> runs = new ArrayList<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            Files.createDirectories(dir);
+            while (input.hasNext()) {
+                inFlight.acquire();
+                List<RunEntry<E>> chunk = fill(input);
+                Path run = Files.createTempFile(dir, "ziploq-run-", ".run");
+                runs.add(run);
+                tasks.add(executor.submit(() -> {
+                    try {
+                        chunk.sort(order); //sorts the backing array of the ArrayList in place
+                        write(chunk, run);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            LOG.debug("Created {} runs in {}.", runs.size(), dir);
+            return runs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(executor, runs);
+            throw new RuntimeInterruptedException("Interrupted while sorting runs.", e);
+        } catch (ExecutionException e) {
+            abort(executor, runs);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw (UncheckedIOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to sort run.", cause);
+        } catch (IOException e) {
+            abort(executor, runs);
+            throw new UncheckedIOException("Failed to create run file in " + dir, e);
+        } catch (RuntimeException | Error e) {
+            abort(executor, runs);
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<RunEntry<E>> fill(Iterator<? extends E> input) {
+        List<RunEntry<E>> chunk = new ArrayList<>(runSize);
+        while (chunk.size() < runSize && input.hasNext()) {
+            E message = input.next();
+            chunk.add(new RunEntry<>(message, toTimestamp.applyAsLong(message)));
+        }
+        return chunk;
+    }
+
+    private void write(List<RunEntry<E>> chunk, Path run) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            for (RunEntry<E> entry : chunk) {
+                if (!tryEncode(entry.message, buf)) {
+                    drain(buf, channel);
+                    if (!tryEncode(entry.message, buf)) {
+                        throw new IllegalArgumentException("Message does not fit in a buffer of "
+                                + WRITE_BUFFER_SIZE + " bytes: " + entry.message);
+                    }
+                }
+            }
+            drain(buf, channel);
+        }
+    }
+
+    private boolean tryEncode(E message, ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.remaining() < Integer.BYTES) {
+            return false;
+        }
+        ((Buffer) buf).position(start + Integer.BYTES); //Buffer methods, for Java 8 compatibility
+        try {
+            codec.encode(message, buf);
+        } catch (BufferOverflowException e) {
+            ((Buffer) buf).position(start);
+            return false;
+        }
+        buf.putInt(start, buf.position() - start - Integer.BYTES);
+        return true;
+    }
+
+    private static void drain(ByteBuffer buf, FileChannel channel) throws IOException {
+        ((Buffer) buf).flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        ((Buffer) buf).clear();
+    }
+
+    private static void abort(ExecutorService executor, List<Path> runs) {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deleteAll(runs);
+    }
+
+    private static void deleteAll(List<Path> runs) {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete run file {}.", run, e);
+            }
+        }
+    }
+
+    /**
+     * Reads a run file sequentially. The file is deleted once opened; the channel is closed
+     * when the run has been read to the end.
+     */
+    private static final class RunReader<E> implements Iterator<E> {
+
+        private final MessageCodec<E> codec;
+        private FileChannel channel;
+        private ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private boolean eof;
+
+        RunReader(Path run, MessageCodec<E> codec) {
+            this.codec = codec;
+            try {
+                this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open run file " + run, e);
+            }
+            try {
+                Files.delete(run); //space is reclaimed once closed
+            } catch (IOException e) {
+                run.toFile().deleteOnExit(); //platform doesn't permit deleting open files
+            }
+            ((Buffer) buf).limit(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buf.remaining() >= Integer.BYTES || fill(Integer.BYTES)) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int length = buf.getInt(buf.position());
+            int recordLength = Integer.BYTES + length;
+            if (buf.remaining() < recordLength && !fill(recordLength)) {
+                throw new IllegalStateException("Truncated run file; expected " + length + " bytes.");
+            }
+            int start = buf.position();
+            int end = start + recordLength;
+            int limit = buf.limit();
+            ((Buffer) buf).limit(end).position(start + Integer.BYTES);
+            E message = codec.decode(buf);
+            ((Buffer) buf).limit(limit).position(end);
+            return message;
+        }
+
+        /**
+         * Reads from the file until at least {@code required} bytes are buffered
+         * @return {@code false} if the end of the file was reached before that
+         */
+        private boolean fill(int required) {
+            if (eof) {
+                return false;
+            }
+            if (required > buf.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Integer.highestOneBit(required - 1) << 1);
+                larger.put(buf);
+                buf = larger;
+            } else {
+                buf.compact();
+            }
+            try {
+                while (buf.position() < required) {
+                    if (channel.read(buf) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read run file.", e);
+            } finally {
+                ((Buffer) buf).flip();
+            }
+            return buf.remaining() >= required;
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to close run file.", e);
+                }
+                channel = null;
+                eof = true;
+            }
+        }
+    }
+
+    /**
+     * Message along with its business timestamp, for sorting with the comparator of the
+     * {@code Ziploq}
+     */
+    private static final class RunEntry<E> implements Entry<E> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final E message;
+        private final long businessTs;
+
+        private RunEntry(E message, long businessTs) {
+            this.message = message;
+            this.businessTs = businessTs;
+        }
+
+        @Override
+        public E getMessage() {
+            return message;
+        }
+
+        @Override
+        public long getBusinessTs() {
+            return businessTs;
+        }
+
+        @Override
+        public long getSystemTs() {
+            return 0L;
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2026 Måns Tegling
+ *
+ * Use of this source code is governed by the MIT license that can be found in the LICENSE file.
+ */
+package se.motility.ziploq.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.eventlog.EventLogReader;
+import se.motility.ziploq.eventlog.EventLogWriter;
+import se.motility.ziploq.impl.WaitStrategy;
+
+/**
+ * Merges sorted event logs (see {@link EventLogWriter}) into a single sorted event log.
+ * <p>
+ * Inputs are memory-mapped and read on a number of reader threads, each feeding the ordered
+ * {@link Ziploq} sources of its share of the inputs without ever blocking on a single source.
+ * The calling thread writes the merged output in blocks of {@code blockSize} bytes. Messages
+ * are copied as opaque payloads; no codec is needed. Messages having the same business
+ * timestamp are ordered by input file, in the order provided.
+ * <p>
+ * If there are more inputs than {@code maxOpen}, they are merged in stages: groups of at most
+ * {@code maxOpen} inputs are merged into intermediate event logs in the directory of the
+ * output, until few enough remain for the final merge.
+ * <p>
+ * Run from the command line using
+ * <pre>
+ * java se.motility.ziploq.tools.MergeTool [--threads N] [--max-open N] [--block-size N] OUTPUT INPUT...
+ * </pre>
+ *
+ * @author M Tegling
+ */
+public final class MergeTool {
+
+    /** Default maximum number of inputs merged at once */
+    public static final int DEFAULT_MAX_OPEN = 512;
+    /** Default block size of the output; 1 MB */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private static final Logger LOG = LoggerFactory.getLogger(MergeTool.class);
+    private static final int CAPACITY = 1024; //per source
+    private static final String USAGE = "Usage: MergeTool [--threads N] [--max-open N] [--block-size N] OUTPUT INPUT...";
+
+    private static final MessageCodec<byte[]> RAW = new MessageCodec<byte[]>() {
+        @Override
+        public void encode(byte[] message, ByteBuffer buffer) {
+            buffer.put(message);
+        }
+        @Override
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    };
+
+    /**
+     * Merges event logs provided on the command line and reports throughput
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxOpen = DEFAULT_MAX_OPEN;
+        int blockSize = DEFAULT_BLOCK_SIZE;
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-open":
+                        maxOpen = Integer.parseInt(args[++i]);
+                        break;
+                    case "--block-size":
+                        blockSize = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        files.add(Paths.get(args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            files.clear();
+        }
+        if (files.size() < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        Stats stats = merge(files.subList(1, files.size()), files.get(0), threads, maxOpen, blockSize);
+        System.out.println(stats);
+    }
+
+    /**
+     * Merges sorted event logs into a single sorted event log
+     * @param inputs event logs to merge; at least one
+     * @param output event log to write; replaced if it exists
+     * @param threads number of reader threads
+     * @param maxOpen maximum number of inputs to merge at once
+     * @param blockSize block size of the output
+     * @return statistics of the merge
+     * @throws UncheckedIOException if reading or writing fails
+     */
+    public static Stats merge(List<Path> inputs, Path output, int threads, int maxOpen, int blockSize) {
+        if (inputs == null || output == null) {
+            throw new IllegalArgumentException("Arguments 'inputs' and 'output' must not be null.");
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("At least one input must be provided.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive. Provided value was " + threads);
+        }
+        if (maxOpen < 2) {
+            throw new IllegalArgumentException("Max open must be at least 2. Provided value was " + maxOpen);
+        }
+        long start = System.nanoTime();
+        long bytes = 0L;
+        for (Path input : inputs) {
+            bytes += size(input);
+        }
+        List<Path> current = inputs;
+        List<Path> intermediate = new ArrayList<>();
+        Path dir = output.toAbsolutePath().getParent();
+        int stage = 0;
+        try {
+            while (current.size() > maxOpen) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < current.size(); i += maxOpen) {
+                    List<Path> group = current.subList(i, Math.min(i + maxOpen, current.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                    } else {
+                        Path merged = Files.createTempFile(dir, "ziploq-merge-" + stage + "-", ".log");
+                        intermediate.add(merged);
+                        mergeOnce(group, merged, threads, blockSize);
+                        next.add(merged);
+                    }
+                }
+                for (Path p : current) {
+                    if (!next.contains(p) && intermediate.remove(p)) {
+                        Files.delete(p);
+                    }
+                }
+                LOG.info("Merged stage {}; {} inputs remaining.", stage, next.size());
+                current = next;
+                stage++;
+            }
+            long entries = mergeOnce(current, output, threads, blockSize);
+            return new Stats(inputs.size(), stage + 1, entries, bytes, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create intermediate file in " + dir, e);
+        } finally {
+            for (Path p : intermediate) {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    LOG.warn("Failed to delete intermediate file {}.", p, e);
+                }
+            }
+        }
+    }
+
+    private static long mergeOnce(List<Path> inputs, Path output, int threads, int blockSize) {
+        Ziploq<Record> ziploq = ZiploqFactory.create(Comparator.comparingInt(r -> r.source));
+        List<EventLogReader<byte[]>> readers = new ArrayList<>(inputs.size());
+        List<SynchronizedConsumer<Record>> consumers = new ArrayList<>(inputs.size());
+        try {
+            for (Path input : inputs) {
+                readers.add(EventLogReader.open(input, RAW));
+                consumers.add(ziploq.registerOrdered(CAPACITY, BackPressureStrategy.BLOCK, input.toString()));
+            }
+        } catch (RuntimeException e) {
+            readers.forEach(EventLogReader::close);
+            throw e;
+        }
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        int n = Math.min(threads, inputs.size());
+        Thread[] workers = new Thread[n];
+        for (int t = 0; t < n; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> read(readers, consumers, first, n, failure), "ziploq-merge-reader-" + t);
+            workers[t].setDaemon(true);
+            workers[t].start();
+        }
+        long entries = 0L;
+        try (EventLogWriter<byte[]> writer = EventLogWriter.open(output, RAW, blockSize)) {
+            ziploq.stream().forEach(e -> writer.append(e.getMessage().payload, e.getBusinessTs()));
+            entries = writer.getMessageCount();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e); //stops reader threads
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (failure.get() != null) {
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException e) {
+                failure.get().addSuppressed(e);
+            }
+            throw failure.get();
+        }
+        return entries;
+    }
+
+    /**
+     * Feeds sources {@code first}, {@code first + step}, ... round-robin, only enqueuing as
+     * many messages as each source can accept, so that a full source never stalls the others.
+     * Stops once any failure has occurred.
+     */
+    private static void read(List<EventLogReader<byte[]>> readers, List<SynchronizedConsumer<Record>> consumers,
+            int first, int step, AtomicReference<RuntimeException> failure) {
+        List<Integer> open = new ArrayList<>();
+        for (int i = first; i < readers.size(); i += step) {
+            open.add(i);
+        }
+        try {
+            int attempt = 1;
+            while (!open.isEmpty() && failure.get() == null) {
+                boolean progress = false;
+                for (int j = open.size() - 1; j >= 0; j--) {
+                    int i = open.get(j);
+                    EventLogReader<byte[]> reader = readers.get(i);
+                    SynchronizedConsumer<Record> consumer = consumers.get(i);
+                    for (int k = consumer.remainingCapacity(); k > 0 && reader.hasNext(); k--) {
+                        byte[] payload = reader.next();
+                        consumer.onEvent(new Record(i, payload), reader.getTimestamp());
+                        progress = true;
+                    }
+                    if (!reader.hasNext()) {
+                        consumer.complete();
+                        reader.close();
+                        open.remove(j);
+                    }
+                }
+                if (progress) {
+                    attempt = 1;
+                } else {
+                    WaitStrategy.backOffWait(attempt++);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (int i : open) {
+                readers.get(i).close();
+                consumers.get(i).complete(); //let the merge finish
+            }
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read size of " + file, e);
+        }
+    }
+
+    private static final class Record {
+
+        private final int source;
+        private final byte[] payload;
+
+        private Record(int source, byte[] payload) {
+            this.source = source;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Statistics of a merge
+     */
+    public static final class Stats {
+
+        private final int inputs;
+        private final int stages;
+        private final long entries;
+        private final long bytes;
+        private final long nanos;
+
+        private Stats(int inputs, int stages, long entries, long bytes, long nanos) {
+            this.inputs = inputs;
+            this.stages = stages;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public int getInputs() {
+            return inputs;
+        }
+
+        public int getStages() {
+            return stages;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getInputBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return nanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return bytes / (double) (1 << 20) / seconds();
+        }
+
+        public double getEntriesPerSecond() {
+            return entries / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(nanos, 1L) / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Merged %d entries from %d inputs in %d stage(s) in %.3f s: %.1f MB/s, %.0f entries/s",
+                    entries, inputs, stages, seconds(), getMegabytesPerSecond(), getEntriesPerSecond());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package se.motility.ziploq;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.ops.AsOfJoin;
+
+/**
+ * Compares the built-in {@link AsOfJoin} with a downstream {@code HashMap} lookup, joining
+ * trades with the latest quote for millions of instruments. Each operation processes one
+ * message of the (already sequenced) output; every other message is a quote. Run with
+ * {@code -prof gc} to compare allocation rates.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 600)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class AsOfJoinPerformance {
+
+    private static final int MESSAGES = 1 << 22;
+
+    @Benchmark
+    public long asOfJoin(Join state) {
+        state.join.accept(state.next());
+        return state.matched;
+    }
+
+    @Benchmark
+    public long hashMap(Join state) {
+        Entry<Object> entry = state.next();
+        Object msg = entry.getMessage();
+        if (msg instanceof Quote) {
+            state.map.put(((Quote) msg).instrument, (Quote) msg);
+        } else if (state.map.get(((Trade) msg).instrument) != null) {
+            state.matched++;
+        }
+        return state.matched;
+    }
+
+    @State(Scope.Thread)
+    public static class Join {
+
+        @Param({"1000000", "4000000"})
+        public int keys;
+
+        public AsOfJoin<Object, Trade, Quote> join;
+        public Map<Long, Quote> map;
+        public long matched;
+        private MsgEntry[] entries;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(42L);
+            entries = new MsgEntry[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                long instrument = random.nextInt(keys);
+                Object msg = (i & 1) == 0 ? new Quote(instrument) : new Trade(instrument);
+                entries[i] = new MsgEntry(msg, i);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            join = AsOfJoin.create(Trade.class, t -> t.instrument, Quote.class, q -> q.instrument,
+                    (t, ts, q) -> {
+                        if (q != null) {
+                            matched++;
+                        }
+                    }, keys);
+            map = new HashMap<>(keys * 2);
+            matched = 0L;
+            index = 0;
+        }
+
+        Entry<Object> next() {
+            return entries[index++ & (MESSAGES - 1)];
+        }
+    }
+
+    static final class Trade {
+        final long instrument;
+        Trade(long instrument) {
+            this.instrument = instrument;
+        }
+    }
+
+    static final class Quote {
+        final long instrument;
+        Quote(long instrument) {
+            this.instrument = instrument;
+        }
+    }
+
+    static final class MsgEntry implements Entry<Object> {
+        private static final long serialVersionUID = 1L;
+        private final Object msg;
+        private final long businessTs;
+        MsgEntry(Object msg, long businessTs) {
+            this.msg = msg;
+            this.businessTs = businessTs;
+        }
+        @Override
+        public Object getMessage() {
+            return msg;
+        }
+        @Override
+        public long getBusinessTs() {
+            return businessTs;
+        }
+        @Override
+        public long getSystemTs() {
+            return 0L;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package se.motility.ziploq;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.load.DatasetLoader;
+import se.motility.ziploq.load.RecordParser;
+
+/**
+ * Measures the time to load a CSV file of 1 million lines and register it with a
+ * {@link Ziploq}: using {@link DatasetLoader} on a {@code ForkJoinPool} of varying parallelism,
+ * and, as a baseline, reading lines on a single thread into a list for
+ * {@link Ziploq#registerDataset}. Both parse the same fields.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class DatasetLoaderPerformance {
+
+    private static final int LINES = 1_000_000;
+
+    @Benchmark
+    public Ziploq<Trade> parallelLoader(Input state) {
+        Ziploq<Trade> ziploq = ZiploqFactory.create(null);
+        DatasetLoader.lines(Trade.PARSER, Trade::getTimestamp, 1)
+                .load(state.file, state.pool, DatasetLoader.DEFAULT_CHUNK_SIZE)
+                .register(ziploq, "dataset");
+        return ziploq;
+    }
+
+    @Benchmark
+    public Ziploq<Trade> singleThreadedBaseline(Input state) throws IOException {
+        Ziploq<Trade> ziploq = ZiploqFactory.create(null);
+        List<Trade> trades = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(state.file, StandardCharsets.US_ASCII)) {
+            reader.readLine(); //header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                trades.add(Trade.parse(line));
+            }
+        }
+        ziploq.registerDataset(trades, Trade::getTimestamp, "dataset");
+        return ziploq;
+    }
+
+    @State(Scope.Thread)
+    public static class Input {
+
+        @Param({"1", "2", "4"})
+        int parallelism;
+
+        Path file;
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = Files.createTempFile("ziploq-dataset", ".csv");
+            Random random = new Random(42L);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+                writer.write("timestamp,instrument,price,volume\n");
+                for (int i = 0; i < LINES; i++) {
+                    writer.write(1_500_000_000_000L + i + "," + random.nextInt(500) + ","
+                            + random.nextInt(100_000) / 100.0 + "," + random.nextInt(10_000) + "\n");
+                }
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            pool.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    public static final class Trade {
+
+        static final RecordParser<Trade> PARSER = record ->
+                parse(StandardCharsets.US_ASCII.decode(record).toString());
+
+        private final long timestamp;
+        private final int instrument;
+        private final double price;
+        private final long volume;
+
+        private Trade(long timestamp, int instrument, double price, long volume) {
+            this.timestamp = timestamp;
+            this.instrument = instrument;
+            this.price = price;
+            this.volume = volume;
+        }
+
+        static Trade parse(String line) {
+            String[] fields = line.split(",");
+            return new Trade(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                    Double.parseDouble(fields[2]), Long.parseLong(fields[3]));
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getInstrument() {
+            return instrument;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public long getVolume() {
+            return volume;
+        }
+    }
+
+}
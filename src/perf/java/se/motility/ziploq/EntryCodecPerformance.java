@@ -0,0 +1,157 @@
+package se.motility.ziploq;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.EntryCodec;
+
+/**
+ * Measures the time to encode and decode a batch of 1000 entries having {@code String}
+ * messages, using {@link Codecs#entries}, {@link Codecs#deltaEntries} and Java serialization
+ * through {@link ObjectOutputStream}. The encoded size of each batch is printed at setup.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class EntryCodecPerformance {
+
+    private static final int ENTRIES = 1000;
+
+    @Benchmark
+    public long fixed(Batch state) {
+        return roundTrip(state, state.fixed);
+    }
+
+    @Benchmark
+    public long delta(Batch state) {
+        state.delta.reset();
+        return roundTrip(state, state.delta);
+    }
+
+    @Benchmark
+    public long objectStream(Batch state) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * ENTRIES);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Entry<String> entry : state.entries) {
+                out.writeObject(entry);
+            }
+        }
+        long checksum = 0L;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                checksum += ((Entry<?>) in.readObject()).getBusinessTs();
+            }
+        }
+        return checksum;
+    }
+
+    private static long roundTrip(Batch state, EntryCodec<String> codec) {
+        ByteBuffer buffer = state.buffer;
+        buffer.clear();
+        for (Entry<String> entry : state.entries) {
+            codec.encode(entry, buffer);
+        }
+        buffer.flip();
+        long checksum = 0L;
+        for (int i = 0; i < ENTRIES; i++) {
+            checksum += codec.decode(buffer).getBusinessTs();
+        }
+        return checksum;
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+
+        List<Entry<String>> entries = new ArrayList<>(ENTRIES);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * ENTRIES);
+        EntryCodec<String> fixed = Codecs.entries(Codecs.STRING);
+        EntryCodec<String> delta = Codecs.deltaEntries(Codecs.STRING);
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            long ts = 1_700_000_000_000L;
+            for (int i = 0; i < ENTRIES; i++) {
+                ts += i % 3;
+                entries.add(new SerializableEntry("ORDER-" + i, ts, ts + 2, i % 8));
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                for (Entry<String> entry : entries) {
+                    out.writeObject(entry);
+                }
+            }
+            System.out.printf("%nBytes per batch: fixed %d, delta %d, objectStream %d%n",
+                    encodedSize(fixed), encodedSize(delta), bytes.size());
+        }
+
+        private int encodedSize(EntryCodec<String> codec) {
+            codec.reset();
+            buffer.clear();
+            for (Entry<String> entry : entries) {
+                codec.encode(entry, buffer);
+            }
+            return buffer.position();
+        }
+    }
+
+    private static final class SerializableEntry implements Entry<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String message;
+        private final long businessTs;
+        private final long systemTs;
+        private final int sourceId;
+
+        private SerializableEntry(String message, long businessTs, long systemTs, int sourceId) {
+            this.message = message;
+            this.businessTs = businessTs;
+            this.systemTs = systemTs;
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public long getBusinessTs() {
+            return businessTs;
+        }
+
+        @Override
+        public long getSystemTs() {
+            return systemTs;
+        }
+
+        @Override
+        public int getSourceId() {
+            return sourceId;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package se.motility.ziploq;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.sort.ExternalSort;
+
+/**
+ * Measures the time to sort 2 million unordered messages using {@link ExternalSort}, in runs
+ * of 100 000 messages, including the final merge. Compare scores across the number of
+ * threads sorting runs for the speed-up per core; it levels off once the single-threaded
+ * reading of the input and the final merge dominate. Run files are written to the default
+ * temporary directory.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class ExternalSortPerformance {
+
+    private static final int MESSAGES = 2_000_000;
+    private static final int RUN_SIZE = 100_000;
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    @Benchmark
+    public long sort(Input state) {
+        Ziploq<Long> sorted = state.sort.sort(Arrays.asList(state.messages).iterator());
+        long checksum = 0L;
+        Entry<Long> entry;
+        while ((entry = sorted.poll()) != Ziploq.<Long>getEndSignal()) {
+            checksum += entry.getBusinessTs();
+        }
+        return checksum;
+    }
+
+    @State(Scope.Thread)
+    public static class Input {
+
+        @Param({"1", "2", "4"})
+        int threads;
+
+        Long[] messages;
+        Path dir;
+        ExternalSort<Long> sort;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            Random random = new Random(42L);
+            messages = new Long[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                messages[i] = (long) random.nextInt(Integer.MAX_VALUE);
+            }
+            dir = Files.createTempDirectory("ziploq-sort");
+            sort = ExternalSort.create(CODEC, Long::longValue, null, dir, RUN_SIZE, threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package se.motility.ziploq;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.journal.JournalWriter;
+
+/**
+ * Measures the cost of appending an entry to a {@link JournalWriter}, having a 16 byte
+ * message, with and without periodically forcing mapped pages to storage. The journal is
+ * written to the default temporary directory.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class JournalPerformance {
+
+    private static final MessageCodec<long[]> CODEC = new MessageCodec<long[]>() {
+        @Override
+        public void encode(long[] message, ByteBuffer buffer) {
+            buffer.putLong(message[0]).putLong(message[1]);
+        }
+        @Override
+        public long[] decode(ByteBuffer buffer) {
+            return new long[] {buffer.getLong(), buffer.getLong()};
+        }
+    };
+
+    @Benchmark
+    public void append(Journal state) {
+        long ts = state.ts++;
+        state.journal.append(state.message, ts, ts, 0);
+    }
+
+    @State(Scope.Thread)
+    public static class Journal {
+
+        @Param({"0", "8388608"})
+        int forceInterval;
+
+        final long[] message = {1L, 2L};
+        long ts;
+        Path dir;
+        JournalWriter<long[]> journal;
+
+        @Setup(Level.Iteration)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("ziploq-journal");
+            journal = JournalWriter.open(dir, CODEC, JournalWriter.DEFAULT_SEGMENT_SIZE, forceInterval);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            journal.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+}
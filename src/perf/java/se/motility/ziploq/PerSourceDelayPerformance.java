@@ -0,0 +1,99 @@
+package se.motility.ziploq;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+
+/**
+ * Measures end-to-end latency of messages from a fast source synchronized with a silent
+ * slow source. System time is simulated; both sources heartbeat every millisecond and the
+ * Consumer polls after each heartbeat.
+ * <p>
+ * The {@code heldMillis} counter divided by {@code emitted} gives the average system
+ * time a fast message is held back. It follows the largest of the fast source's own delay
+ * and the slow source's delay, each measured on its own clock. Compare the per-source
+ * delays with {@code 50}, being the global delay.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class PerSourceDelayPerformance {
+
+    private static final Object MSG = new Object();
+    private static final long GLOBAL_DELAY = 50L;
+
+    @Benchmark
+    public Entry<Object> fastSource(Flow state, Latency latency) {
+        long sent = ++state.now;
+        state.fast.onEvent(MSG, sent, sent);
+        Entry<Object> entry;
+        while ((entry = state.ziploq.poll()) == null) {
+            long now = ++state.now;
+            state.fast.updateSystemTime(now);
+            state.slow.updateSystemTime(now);
+        }
+        latency.heldMillis += state.now - sent;
+        latency.emitted++;
+        return entry;
+    }
+
+    @State(Scope.Thread)
+    public static class Flow {
+
+        @Param({"1", "50"})
+        public long fastDelay;
+
+        @Param({"5", "50"})
+        public long slowDelay;
+
+        public ZipFlow<Object> ziploq;
+        public FlowConsumer<Object> fast;
+        public FlowConsumer<Object> slow;
+        public long now;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            ziploq = ZiploqFactory.create(GLOBAL_DELAY, null);
+            fast = ziploq.registerOrdered(1024, BackPressureStrategy.DROP, "fast", fastDelay);
+            slow = ziploq.registerOrdered(1024, BackPressureStrategy.DROP, "slow", slowDelay);
+            now = 0L;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Latency {
+
+        public long heldMillis;
+        public long emitted;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            heldMillis = 0L;
+            emitted = 0L;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package se.motility.ziploq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+
+/**
+ * Measures the Producer side cost of publishing system time with every event,
+ * while a Consumer thread concurrently drains the {@code ZipFlow}. Messages are
+ * dropped rather than waited for when queues are full, so the Producer is never
+ * parked.
+ * <p>
+ * The {@code contended} group runs several Producer threads, each feeding its own
+ * source. Run with {@code -prof perfnorm} to compare cache misses per operation.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 8)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class ProducerClockPerformance {
+
+    private static final Object MSG = new Object();
+
+    @Benchmark
+    @Group("clock")
+    @GroupThreads(1)
+    public boolean produce(Flow state) {
+        long ts = ++state.ts;
+        return state.producer.onEvent(MSG, ts, ts);
+    }
+
+    @Benchmark
+    @Group("clock")
+    @GroupThreads(1)
+    public Entry<Object> consume(Flow state) {
+        return state.ziploq.poll();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public boolean produceContended(Source source) {
+        long ts = ++source.ts;
+        return source.producer.onEvent(MSG, ts, ts);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public Entry<Object> consumeContended(MultiFlow state) {
+        return state.ziploq.poll();
+    }
+
+    @State(Scope.Group)
+    public static class Flow {
+
+        @Param({"1024"})
+        public int capacity;
+        @Param({"2"})
+        public int sources;
+
+        public ZipFlow<Object> ziploq;
+        public FlowConsumer<Object> producer;
+        public long ts;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            ziploq = ZiploqFactory.create(1L, null);
+            producer = ziploq.registerOrdered(capacity, BackPressureStrategy.DROP, "producer");
+            for (int i = 1; i < sources; i++) {
+                //idle sources keeping up with system time
+                ziploq.registerOrdered(capacity, BackPressureStrategy.DROP, "idle-" + i)
+                    .updateSystemTime(Long.MAX_VALUE - 1);
+            }
+            ts = 0L;
+        }
+    }
+
+    @State(Scope.Group)
+    public static class MultiFlow {
+
+        @Param({"1024"})
+        public int capacity;
+
+        public ZipFlow<Object> ziploq;
+        public final List<FlowConsumer<Object>> producers = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            ziploq = ZiploqFactory.create(1L, null);
+            producers.clear();
+            next.set(0);
+        }
+
+        synchronized FlowConsumer<Object> register() {
+            FlowConsumer<Object> producer = ziploq.registerOrdered(
+                    capacity, BackPressureStrategy.DROP, "producer-" + next.incrementAndGet());
+            producers.add(producer);
+            return producer;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Source {
+
+        public FlowConsumer<Object> producer;
+        public long ts;
+
+        @Setup(Level.Iteration)
+        public void doSetup(MultiFlow flow) {
+            producer = flow.register();
+            ts = 0L;
+        }
+    }
+
+}
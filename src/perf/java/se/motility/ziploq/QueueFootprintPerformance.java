@@ -0,0 +1,134 @@
+package se.motility.ziploq;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.impl.SyncQueue;
+import se.motility.ziploq.impl.SyncQueueFactory;
+import se.motility.ziploq.impl.SyncQueueFactory.CapacityType;
+
+/**
+ * Compares fully pre-allocated bounded queues ({@code chunkSize = 0}) with lazily
+ * allocated, chunked queues. Measures the enqueue/dequeue cost on the hot path as
+ * well as the retained heap of registering many mostly idle sources.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 8)
+@Timeout(time = 600)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueueFootprintPerformance {
+
+    private static final Entry<Object> ENTRY = new Entry<Object>() {
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Object getMessage() {
+            return this;
+        }
+        @Override
+        public long getBusinessTs() {
+            return 0L;
+        }
+        @Override
+        public long getSystemTs() {
+            return 0L;
+        }
+    };
+    
+    /**
+     * Average cost per entry of offering a burst of entries and then draining them
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int offerPollBurst(HotQueue state) {
+        SyncQueue<Object> q = state.queue;
+        int burst = state.burst;
+        for (int i = 0; i < burst; i++) {
+            q.offer(ENTRY);
+        }
+        int polled = 0;
+        while (q.poll() != null) {
+            polled++;
+        }
+        return polled;
+    }
+    
+    /**
+     * Registers a large number of idle queues and reports the retained heap
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public List<SyncQueue<Object>> idleSources(IdleSources state, Footprint footprint) {
+        long before = usedHeap();
+        List<SyncQueue<Object>> queues = new ArrayList<>(state.sources);
+        for (int i = 0; i < state.sources; i++) {
+            SyncQueue<Object> q = SyncQueueFactory.createOrdered(state.capacity, state.chunkSize, CapacityType.BOUNDED);
+            q.offer(ENTRY); //a single queued message each
+            queues.add(q);
+        }
+        footprint.retainedBytes = usedHeap() - before;
+        return queues;
+    }
+    
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+    
+    @State(Scope.Thread)
+    public static class HotQueue {
+        
+        @Param({"65536"})
+        public int capacity;
+        @Param({"0", "64", "1024"})
+        public int chunkSize;
+        @Param({"16", "4096"})
+        public int burst;
+        
+        public SyncQueue<Object> queue;
+        
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            queue = SyncQueueFactory.createOrdered(capacity, chunkSize, CapacityType.BOUNDED);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class IdleSources {
+        
+        @Param({"65536"})
+        public int capacity;
+        @Param({"0", "1024"})
+        public int chunkSize;
+        @Param({"5000"})
+        public int sources;
+    }
+    
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+    
+}
@@ -0,0 +1,112 @@
+package se.motility.ziploq;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.ipc.SharedMemorySource;
+import se.motility.ziploq.ipc.SharedMemoryWriter;
+import se.motility.ziploq.net.IngressServer;
+
+/**
+ * Measures the round trip of a single message from a producer to the output of a
+ * {@link ZipFlow}, through a shared-memory ring ({@link SharedMemorySource}) versus a loopback
+ * TCP connection ({@link IngressServer}). Writer and reader run in the same process, on
+ * separate threads; the reader thread of the ring needs a core of its own for the score to
+ * reflect cross-core latency rather than scheduling.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class SharedMemoryPerformance {
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    @Benchmark
+    public Long roundTrip(Transport state) throws IOException, InterruptedException {
+        long ts = ++state.ts;
+        if (state.writer != null) {
+            state.writer.put(ts, ts, ts);
+        } else {
+            ByteBuffer frame = state.frame;
+            frame.clear();
+            frame.putInt(16).putLong(ts).putLong(ts).flip();
+            while (frame.hasRemaining()) {
+                state.client.write(frame);
+            }
+        }
+        return state.zipFlow.take().getMessage();
+    }
+
+    @State(Scope.Thread)
+    public static class Transport {
+
+        @Param({"shm", "tcp"})
+        String transport;
+
+        ZipFlow<Long> zipFlow;
+        SharedMemorySource<Long> source;
+        SharedMemoryWriter<Long> writer;
+        IngressServer<Long> server;
+        SocketChannel client;
+        ByteBuffer frame = ByteBuffer.allocateDirect(20);
+        Path dir;
+        long ts;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            zipFlow = ZiploqFactory.create(1L, null);
+            if ("shm".equals(transport)) {
+                dir = Files.createTempDirectory("ziploq-ipc");
+                Path ring = dir.resolve("ring");
+                source = SharedMemorySource.open(zipFlow, ring, CODEC, "shm");
+                writer = SharedMemoryWriter.open(ring, CODEC);
+            } else {
+                server = IngressServer.open(zipFlow, CODEC,
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), null, 1, 1024,
+                        BackPressureStrategy.BLOCK);
+                client = SocketChannel.open(server.getTcpAddress());
+                client.socket().setTcpNoDelay(true);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (source != null) {
+                writer.close();
+                source.close();
+                Files.deleteIfExists(dir);
+            } else {
+                client.close();
+                server.close();
+            }
+        }
+    }
+
+}
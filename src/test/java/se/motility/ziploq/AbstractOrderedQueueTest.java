@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 import static se.motility.ziploq.SyncTestUtils.*;
 import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import se.motility.ziploq.api.BackPressureStrategy;
@@ -116,6 +118,38 @@ public abstract class AbstractOrderedQueueTest {
         assertNull(ziploq.poll());
     }
     
+    @Test
+    public void produceBatchAndConsume() {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, getStrategy(), TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, getStrategy(), TEST_SOURCE);
+        
+        assertTrue(consumer1.onEvents(Arrays.asList(OBJECT_1, OBJECT_2, OBJECT_3),
+                new long[] {TS_1, TS_1 + 2, TS_1 + 4}, new long[] {ZERO, ZERO, ZERO + 1}));
+        assertNull(ziploq.poll()); //awaiting c2
+        
+        assertTrue(consumer2.onEvents(Arrays.asList(OBJECT_4, OBJECT_5),
+                new long[] {TS_1 + 1, TS_1 + 3}));
+        
+        verify(new TestEntry(OBJECT_1, TS_1,     ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_4, TS_1 + 1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_2, TS_1 + 2, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_5, TS_1 + 3, ZERO, true), ziploq.poll());
+        assertNull(ziploq.poll()); //awaiting c2
+        
+        consumer2.complete();
+        verify(new TestEntry(OBJECT_3, TS_1 + 4, ZERO + 1, true), ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void batchWithMissingTimestamps() {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
+        FlowConsumer<MsgObject> consumer = ziploq.registerOrdered(5, getStrategy(), TEST_SOURCE);
+        consumer.onEvents(Arrays.asList(OBJECT_1, OBJECT_2), new long[] {TS_1});
+        fail();
+    }
+    
     @Test(expected = IllegalStateException.class)
     public void onEventAfterComplete() {
         ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
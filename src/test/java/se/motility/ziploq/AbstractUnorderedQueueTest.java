@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 import static se.motility.ziploq.SyncTestUtils.*;
 import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import se.motility.ziploq.SyncTestUtils.MsgObject;
@@ -45,6 +47,49 @@ public abstract class AbstractUnorderedQueueTest {
         assertNull(ziploq.poll());
     }
     
+    @Test
+    public void batchDelayAndSort() {
+        
+        long delay = 5L;
+        
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
+        FlowConsumer<MsgObject> consumer = ziploq.registerUnordered(delay, 5, getStrategy(), TEST_SOURCE, null);
+        
+        assertTrue(consumer.onEvents(Arrays.asList(OBJECT_1, OBJECT_2, OBJECT_3, OBJECT_4),
+                new long[] {TS_1 + 3, TS_1, TS_1 + 2, TS_1 + 1}));
+        assertNull(ziploq.poll());
+        
+        //E5: (TS1+3+delay,0) (releases all prior messages)
+        TestEntry e5 = consume(consumer, OBJECT_5, TS_1 + 3 + delay, ZERO);
+        
+        verify(new TestEntry(OBJECT_2, TS_1,     ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_4, TS_1 + 1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_3, TS_1 + 2, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_1, TS_1 + 3, ZERO, true), ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+    
+    @Test
+    public void advanceBusinessTimeReleases() {
+        
+        long delay = 5L;
+        
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
+        FlowConsumer<MsgObject> consumer = ziploq.registerUnordered(delay, 5, getStrategy(), TEST_SOURCE, null);
+        
+        TestEntry e1 = consume(consumer, OBJECT_1, TS_1 + 2, ZERO);
+        TestEntry e2 = consume(consumer, OBJECT_2, TS_1,     ZERO);
+        assertNull(ziploq.poll());
+        
+        consumer.advanceBusinessTime(TS_1 + 2); //releases E2 only
+        verify(e2, ziploq.poll());
+        assertNull(ziploq.poll());
+        
+        consumer.advanceBusinessTime(TS_1 + 3); //releases E1
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+    
     @Test
     public void delayAndSort() {
         
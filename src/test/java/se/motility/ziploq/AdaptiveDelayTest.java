@@ -0,0 +1,114 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static se.motility.ziploq.SyncTestUtils.*;
+import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import se.motility.ziploq.SyncTestUtils.MsgObject;
+import se.motility.ziploq.api.AdaptiveDelay;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class AdaptiveDelayTest {
+
+    private static final String TEST_SOURCE = "SOURCE";
+    private static final long MAX_DELAY = 64L;
+    private static final long MARGIN = 2L;
+
+    private final ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, null);
+    private final FlowConsumer<MsgObject> consumer = ziploq.registerUnordered(
+            AdaptiveDelay.create(0L, MAX_DELAY, 0.99, MARGIN), 1024,
+            BackPressureStrategy.UNBOUNDED, TEST_SOURCE, null);
+
+    private long businessTs = TS_1;
+
+    //Feeds in-order messages and drains the ZipFlow
+    private void feedInOrder(int messages) {
+        for (int i = 0; i < messages; i++) {
+            consumer.onEvent(OBJECT_1, businessTs++, ZERO);
+            while (ziploq.poll() != null) {
+                //drain
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incorrectBounds() {
+        AdaptiveDelay.create(10L, 5L, 0.99, MARGIN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxDelayAboveSystemDelay() {
+        ziploq.registerUnordered(AdaptiveDelay.create(0L, 200L, 0.99, MARGIN), 5,
+                BackPressureStrategy.BLOCK, TEST_SOURCE, null);
+    }
+
+    @Test
+    public void startsAtMaxDelay() {
+        assertEquals(MAX_DELAY, consumer.getBusinessDelay());
+        assertEquals(0L, ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE).getBusinessDelay());
+    }
+
+    @Test
+    public void shrinksTowardsPercentile() {
+        feedInOrder(1024);
+        long delay = consumer.getBusinessDelay();
+        assertTrue(delay < MAX_DELAY);
+        feedInOrder(20 * 1024);
+        assertEquals(MARGIN, consumer.getBusinessDelay());
+    }
+
+    @Test
+    public void growsOnViolation() {
+        feedInOrder(20 * 1024);
+        assertEquals(MARGIN, consumer.getBusinessDelay());
+        long latest = businessTs - 1;
+        consume(consumer, OBJECT_2, latest - 20, ZERO); //late
+        assertEquals(20 + MARGIN, consumer.getBusinessDelay());
+        consume(consumer, OBJECT_2, latest - 30, ZERO); //late; double current delay
+        assertEquals(2 * (20 + MARGIN), consumer.getBusinessDelay());
+        consume(consumer, OBJECT_2, latest - 1000, ZERO); //late; capped
+        assertEquals(MAX_DELAY, consumer.getBusinessDelay());
+    }
+
+    @Test
+    public void droppedBatchRecordsLatenessOnce() {
+        int window = 1024; //samples between each shrink
+        FlowConsumer<MsgObject> dropping = ziploq.registerUnordered(
+                AdaptiveDelay.create(0L, MAX_DELAY, 0.99, MARGIN), 4,
+                BackPressureStrategy.DROP, TEST_SOURCE, null);
+        for (int i = 0; i < window - 2; i++) {
+            dropping.onEvent(OBJECT_1, businessTs++, ZERO); //not drained; fills up
+        }
+        assertEquals(0, dropping.remainingCapacity());
+        assertFalse(dropping.onEvents(Arrays.asList(OBJECT_2), new long[] {businessTs++}));
+        assertEquals(MAX_DELAY, dropping.getBusinessDelay()); //one sample short of shrinking
+        dropping.onEvent(OBJECT_1, businessTs++, ZERO);
+        assertTrue(dropping.getBusinessDelay() < MAX_DELAY);
+    }
+
+    @Test
+    public void releasesUsingEffectiveDelay() {
+        feedInOrder(20 * 1024);
+        TestEntry e1 = consume(consumer, OBJECT_3, businessTs, ZERO);
+        consume(consumer, OBJECT_4, businessTs + MARGIN - 1, ZERO);
+        Entry<MsgObject> entry;
+        while ((entry = ziploq.poll()) != null) {
+            assertEquals(OBJECT_1, entry.getMessage()); //earlier messages only
+        }
+        consume(consumer, OBJECT_4, businessTs + MARGIN, ZERO);
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+}
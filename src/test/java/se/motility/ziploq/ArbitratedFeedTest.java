@@ -0,0 +1,137 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+
+import se.motility.ziploq.api.ArbitratedFeed;
+import se.motility.ziploq.api.ArbitratedFlow;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class ArbitratedFeedTest {
+
+    private static final int MESSAGES = 100_000;
+
+    private final Ziploq<Long> ziploq = ZiploqFactory.create(Long::compare);
+
+    @Test
+    public void forwardFirstArrival() {
+        ArbitratedFeed<Long> feed = ziploq.registerArbitrated(2, Long::longValue, 16, BackPressureStrategy.BLOCK, "FEED");
+        SynchronizedConsumer<Long> a = feed.getLine(0);
+        SynchronizedConsumer<Long> b = feed.getLine(1);
+        a.onEvent(1L, 10L);
+        b.onEvent(1L, 10L);
+        b.onEvent(2L, 20L); //gap on line A
+        a.onEvent(3L, 30L);
+        a.onEvent(4L, 40L);
+        b.onEvent(2L, 20L); //replayed, already seen
+        b.onEvent(3L, 30L);
+        a.complete();
+        b.complete();
+
+        for (long i = 1; i <= 4; i++) {
+            Entry<Long> entry = ziploq.poll();
+            assertEquals(i, (long) entry.getMessage());
+            assertEquals(i * 10, entry.getBusinessTs());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+        assertEquals(3L, feed.getWinCount(0));
+        assertEquals(1L, feed.getWinCount(1));
+        assertEquals(0L, feed.getDuplicateCount(0));
+        assertEquals(3L, feed.getDuplicateCount(1));
+        assertEquals(4L, feed.getSequence());
+    }
+
+    @Test
+    public void advanceBusinessTimeOfSlowestLine() {
+        ArbitratedFeed<Long> feed = ziploq.registerArbitrated(2, Long::longValue, 16, BackPressureStrategy.BLOCK, "FEED");
+        SynchronizedConsumer<Long> other = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "OTHER");
+        other.onEvent(100L, 25L);
+        feed.getLine(0).onEvent(1L, 10L);
+        feed.getLine(0).advanceBusinessTime(30L);
+        assertEquals(1L, (long) ziploq.poll().getMessage());
+        assertNull(ziploq.poll()); //line B may still deliver a message before 25
+        feed.getLine(1).advanceBusinessTime(30L);
+        assertEquals(100L, (long) ziploq.poll().getMessage());
+    }
+
+    @Test
+    public void forwardSystemTimeOnZipFlow() {
+        long delay = 100L;
+        ZipFlow<Long> flow = ZiploqFactory.create(delay, Long::compare);
+        ArbitratedFlow<Long> feed = flow.registerArbitrated(2, Long::longValue, 16, BackPressureStrategy.BLOCK, "FEED");
+        FlowConsumer<Long> other = flow.registerOrdered(16, BackPressureStrategy.BLOCK, "OTHER");
+        other.onEvent(100L, 10L, 1_000L);
+        other.updateSystemTime(1_000L + delay + 1);
+        assertNull(flow.poll()); //the silent feed may still deliver a message before 10
+
+        feed.getLine(1).updateSystemTime(1_000L + delay + 1); //line A remains silent
+        assertEquals(100L, (long) flow.poll().getMessage());
+
+        //system time of duplicates is forwarded too
+        feed.getLine(1).onEvent(1L, 20L, 1_200L);
+        other.onEvent(101L, 30L, 1_250L);
+        other.updateSystemTime(1_400L);
+        assertEquals(1L, (long) flow.poll().getMessage());
+        assertNull(flow.poll());
+        feed.getLine(0).onEvent(1L, 20L, 1_400L);
+        assertEquals(101L, (long) flow.poll().getMessage());
+        assertEquals(1L, feed.getDuplicateCount(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noLines() {
+        ziploq.registerArbitrated(0, Long::longValue, 16, BackPressureStrategy.BLOCK, "FEED");
+    }
+
+    @Test(timeout = 30_000)
+    public void concurrentLines() throws InterruptedException {
+        ArbitratedFeed<Long> feed = ziploq.registerArbitrated(2, Long::longValue, 1024, BackPressureStrategy.BLOCK, "FEED");
+        CountDownLatch start = new CountDownLatch(1);
+        for (int line = 0; line < 2; line++) {
+            SynchronizedConsumer<Long> consumer = feed.getLine(line);
+            new Thread(() -> {
+                await(start);
+                for (long seq = 1; seq <= MESSAGES; seq++) {
+                    if (ThreadLocalRandom.current().nextInt(100) != 0) { //1% loss per line
+                        consumer.onEvent(seq, seq);
+                    }
+                }
+                consumer.complete();
+            }).start();
+        }
+        start.countDown();
+        long previous = 0L;
+        Entry<Long> entry;
+        long count = 0L;
+        Entry<Long> end = Ziploq.getEndSignal();
+        while ((entry = ziploq.take()) != end) {
+            long seq = entry.getMessage();
+            assertEquals(true, seq > previous);
+            previous = seq;
+            count++;
+        }
+        assertEquals(count, feed.getWinCount(0) + feed.getWinCount(1));
+        assertEquals(true, count > MESSAGES * 98L / 100); //gaps only filled if the other line keeps up
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
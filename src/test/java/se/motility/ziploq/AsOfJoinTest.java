@@ -0,0 +1,107 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.ops.AsOfJoin;
+
+public class AsOfJoinTest {
+
+    private static class Trade {
+        final long instrument;
+        Trade(long instrument) {
+            this.instrument = instrument;
+        }
+    }
+
+    private static class Quote {
+        final long instrument;
+        Quote(long instrument) {
+            this.instrument = instrument;
+        }
+    }
+
+    private static Entry<Object> entry(Object msg, long businessTs) {
+        return new Entry<Object>() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public Object getMessage() {
+                return msg;
+            }
+            @Override
+            public long getBusinessTs() {
+                return businessTs;
+            }
+            @Override
+            public long getSystemTs() {
+                return 0L;
+            }
+        };
+    }
+
+    private final List<Object[]> joined = new ArrayList<>();
+    private final AsOfJoin<Object, Trade, Quote> join = AsOfJoin.create(
+            Trade.class, t -> t.instrument, Quote.class, q -> q.instrument,
+            (t, ts, q) -> joined.add(new Object[] {t, ts, q}), 0);
+
+    @Test
+    public void joinLatestAsOf() {
+        //quotes sort before trades on business timestamp ties
+        Comparator<Object> cmp = Comparator.comparing(o -> o instanceof Trade);
+        Ziploq<Object> ziploq = ZiploqFactory.create(cmp);
+        SynchronizedConsumer<Object> quotes = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "quotes");
+        SynchronizedConsumer<Object> trades = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "trades");
+
+        Quote q1 = new Quote(1L);
+        Quote q2 = new Quote(1L);
+        Quote q3 = new Quote(2L);
+        Trade t1 = new Trade(1L);
+        Trade t2 = new Trade(1L);
+        Trade t3 = new Trade(3L);
+        quotes.onEvent(q1, 10L);
+        quotes.onEvent(q3, 12L);
+        quotes.onEvent(q2, 20L);
+        quotes.complete();
+        trades.onEvent(t1, 15L);
+        trades.onEvent(t2, 20L);
+        trades.onEvent(t3, 25L);
+        trades.complete();
+
+        ziploq.stream().forEach(join);
+
+        assertEquals(3, joined.size());
+        assertEquals(Arrays.asList(t1, 15L, q1), Arrays.asList(joined.get(0)));
+        assertEquals(Arrays.asList(t2, 20L, q2), Arrays.asList(joined.get(1)));
+        assertEquals(Arrays.asList(t3, 25L, null), Arrays.asList(joined.get(2)));
+        assertEquals(2, join.size());
+    }
+
+    @Test
+    public void manyKeys() {
+        int keys = 100_000;
+        Quote[] quotes = new Quote[keys];
+        for (int i = 0; i < keys; i++) {
+            quotes[i] = new Quote(i * 31L);
+            join.accept(entry(quotes[i], i));
+        }
+        assertEquals(keys, join.size());
+        for (int i = 0; i < keys; i++) {
+            assertSame(quotes[i], join.getLatest(i * 31L));
+        }
+        assertNull(join.getLatest(-1L));
+    }
+
+}
@@ -0,0 +1,168 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.EntryCodec;
+import se.motility.ziploq.api.MessageCodec;
+
+public class CodecsTest {
+
+    @Test
+    public void primitives() {
+        assertEquals(Long.MIN_VALUE, (long) roundTrip(Codecs.LONG, Long.MIN_VALUE));
+        assertEquals(-7, (int) roundTrip(Codecs.INT, -7));
+        assertEquals((short) 300, (short) roundTrip(Codecs.SHORT, (short) 300));
+        assertEquals((byte) -1, (byte) roundTrip(Codecs.BYTE, (byte) -1));
+        assertEquals('ö', (char) roundTrip(Codecs.CHAR, 'ö'));
+        assertTrue(roundTrip(Codecs.BOOLEAN, true));
+        assertEquals(Math.PI, roundTrip(Codecs.DOUBLE, Math.PI), 0.0);
+        assertEquals(1.5f, roundTrip(Codecs.FLOAT, 1.5f), 0.0f);
+    }
+
+    @Test
+    public void bytesAndStrings() {
+        byte[] bytes = new byte[200];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        assertArrayEquals(bytes, roundTrip(Codecs.BYTES, bytes));
+        assertArrayEquals(new byte[0], roundTrip(Codecs.BYTES, new byte[0]));
+        assertEquals("ascii", roundTrip(Codecs.STRING, "ascii"));
+        assertEquals("Måns 😀", roundTrip(Codecs.STRING, "Måns 😀"));
+        assertEquals("", roundTrip(Codecs.STRING, ""));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        Codecs.STRING.encode("direct", direct);
+        direct.flip();
+        assertEquals("direct", Codecs.STRING.decode(direct));
+        assertEquals(7, direct.position());
+    }
+
+    @Test
+    public void varints() {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        long[] values = {0L, 1L, 127L, 128L, 16_383L, 16_384L, Long.MAX_VALUE, -1L, Long.MIN_VALUE};
+        for (long value : values) {
+            Codecs.putVarLong(buf, value);
+        }
+        buf.flip();
+        for (long value : values) {
+            assertEquals(value, Codecs.getVarLong(buf));
+        }
+        for (long value : values) {
+            assertEquals(value, Codecs.unzigzag(Codecs.zigzag(value)));
+        }
+        assertEquals(1L, Codecs.zigzag(-1L));
+        assertEquals(2L, Codecs.zigzag(1L));
+    }
+
+    @Test
+    public void fixedEntries() {
+        EntryCodec<String> codec = Codecs.entries(Codecs.STRING);
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        codec.encode(entry("a", 5L, 7L, 3, true), buf);
+        assertEquals(21 + 2, buf.position());
+        buf.flip();
+        Entry<String> decoded = codec.decode(buf);
+        assertEquals("a", decoded.getMessage());
+        assertEquals(5L, decoded.getBusinessTs());
+        assertEquals(7L, decoded.getSystemTs());
+        assertEquals(3, decoded.getSourceId());
+        assertTrue(decoded.isLate());
+    }
+
+    @Test
+    public void deltaEntries() {
+        EntryCodec<Long> encoder = Codecs.deltaEntries(Codecs.LONG);
+        EntryCodec<Long> decoder = Codecs.deltaEntries(Codecs.LONG);
+        ByteBuffer buf = ByteBuffer.allocate(1024);
+        long[] businessTs = {1_700_000_000_000L, 1_700_000_000_000L, 1_700_000_000_005L, 1_699_999_999_990L};
+        int[] sources = {0, 1, -1, 2};
+        for (int i = 0; i < businessTs.length; i++) {
+            encoder.encode(entry((long) i, businessTs[i], businessTs[i] + 10 * i, sources[i], i == 3), buf);
+        }
+        buf.flip();
+        for (int i = 0; i < businessTs.length; i++) {
+            Entry<Long> decoded = decoder.decode(buf);
+            assertEquals(i, (long) decoded.getMessage());
+            assertEquals(businessTs[i], decoded.getBusinessTs());
+            assertEquals(businessTs[i] + 10 * i, decoded.getSystemTs());
+            assertEquals(sources[i], decoded.getSourceId());
+            assertEquals(i == 3, decoded.isLate());
+        }
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test
+    public void deltaStateUnchangedOnOverflow() {
+        EntryCodec<Long> encoder = Codecs.deltaEntries(Codecs.LONG);
+        EntryCodec<Long> decoder = Codecs.deltaEntries(Codecs.LONG);
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        encoder.encode(entry(1L, 100L, 100L, 0, false), buf);
+        ByteBuffer small = ByteBuffer.allocate(4);
+        try {
+            encoder.encode(entry(2L, 200L, 200L, 0, false), small);
+            fail("Expected overflow");
+        } catch (BufferOverflowException e) {
+            //expected
+        }
+        encoder.encode(entry(2L, 200L, 200L, 0, false), buf);
+        buf.flip();
+        assertEquals(100L, decoder.decode(buf).getBusinessTs());
+        assertEquals(200L, decoder.decode(buf).getBusinessTs());
+
+        encoder.reset();
+        decoder.reset();
+        buf.clear();
+        encoder.encode(entry(3L, 300L, 300L, 0, false), buf);
+        buf.flip();
+        assertEquals(300L, decoder.decode(buf).getBusinessTs());
+    }
+
+    private static <T> T roundTrip(MessageCodec<T> codec, T message) {
+        ByteBuffer buf = ByteBuffer.allocate(512);
+        codec.encode(message, buf);
+        buf.flip();
+        T decoded = codec.decode(buf);
+        assertFalse(buf.hasRemaining());
+        return decoded;
+    }
+
+    private static <T> Entry<T> entry(T message, long businessTs, long systemTs, int sourceId, boolean late) {
+        return new Entry<T>() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public T getMessage() {
+                return message;
+            }
+            @Override
+            public long getBusinessTs() {
+                return businessTs;
+            }
+            @Override
+            public long getSystemTs() {
+                return systemTs;
+            }
+            @Override
+            public int getSourceId() {
+                return sourceId;
+            }
+            @Override
+            public boolean isLate() {
+                return late;
+            }
+        };
+    }
+
+}
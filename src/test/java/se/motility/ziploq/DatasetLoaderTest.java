@@ -0,0 +1,153 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.load.Dataset;
+import se.motility.ziploq.load.DatasetLoader;
+import se.motility.ziploq.load.RecordParser;
+
+public class DatasetLoaderTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    //"timestamp,key,padding"
+    private static final RecordParser<String[]> CSV = record ->
+            StandardCharsets.US_ASCII.decode(record).toString().split(",");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void loadLines() throws IOException {
+        StringBuilder csv = new StringBuilder("timestamp,key,padding\n");
+        for (int i = 0; i < 1_000; i++) {
+            csv.append(i).append(',').append(i % 7).append(',').append(pad(i % 50)).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 100 == 0) {
+                csv.append('\n'); //empty line
+            }
+        }
+        csv.append("1000,6,last"); //no terminator
+        Path file = write(csv.toString());
+
+        for (int chunkSize : new int[] {1, 16, 100, 4096, DatasetLoader.DEFAULT_CHUNK_SIZE}) {
+            Dataset<String[]> dataset = DatasetLoader.lines(CSV, r -> Long.parseLong(r[0]), 1)
+                    .load(file, POOL, chunkSize);
+            assertEquals(1_001, dataset.size());
+            for (int i = 0; i <= 1_000; i++) {
+                assertEquals(i, dataset.getTimestamp(i));
+                assertEquals(String.valueOf(i % 7), dataset.getMessage(i)[1]);
+            }
+            assertEquals(pad(0), dataset.getMessage(0)[2]); //carriage return excluded
+        }
+    }
+
+    @Test
+    public void loadFixedLength() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(12 * 500);
+        for (int i = 0; i < 500; i++) {
+            buf.putLong(i * 10L).putInt(i);
+        }
+        Path file = folder.newFile().toPath();
+        Files.write(file, buf.array());
+        RecordParser<long[]> parser = record -> new long[] {record.getLong(), record.getInt()};
+
+        Dataset<long[]> dataset = DatasetLoader.fixedLength(12, parser, r -> r[0]).load(file, POOL, 100);
+        assertEquals(500, dataset.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i * 10L, dataset.getTimestamp(i));
+            assertEquals(i, dataset.getMessage(i)[1]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partialFixedLengthRecord() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[25]);
+        DatasetLoader.fixedLength(12, record -> 0L, r -> r).load(file);
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        Path file = write("");
+        assertEquals(0, DatasetLoader.lines(CSV, r -> 0L, 0).load(file).size());
+    }
+
+    @Test
+    public void registerAsSingleSource() throws IOException {
+        Path file = write("1,a\n3,b\n5,c\n");
+        Dataset<String[]> dataset = DatasetLoader.lines(CSV, r -> Long.parseLong(r[0]), 0).load(file);
+        Ziploq<Object> ziploq = ZiploqFactory.create(null);
+        ziploq.registerIterator(Arrays.asList(2L, 4L).iterator(), Long::longValue, "OTHER");
+        dataset.register(ziploq, "DATASET");
+
+        long[] expected = {1L, 2L, 3L, 4L, 5L};
+        for (long ts : expected) {
+            assertEquals(ts, ziploq.poll().getBusinessTs());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test
+    public void registerByKey() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            csv.append(i).append(',').append(i % 3).append('\n');
+        }
+        Dataset<String[]> dataset = DatasetLoader.lines(CSV, r -> Long.parseLong(r[0]), 0)
+                .load(write(csv.toString()), POOL, 64);
+        Ziploq<String[]> ziploq = ZiploqFactory.create(null);
+        assertEquals(3, dataset.register(ziploq, r -> Long.parseLong(r[1]), "KEY"));
+
+        Map<Integer, Integer> sources = new HashMap<>();
+        Entry<String[]> entry;
+        long ts = 0L;
+        while ((entry = ziploq.poll()) != Ziploq.<String[]>getEndSignal()) {
+            assertEquals(ts++, entry.getBusinessTs());
+            Integer previous = sources.put(Integer.parseInt(entry.getMessage()[1]), entry.getSourceId());
+            if (previous != null) {
+                assertEquals((int) previous, entry.getSourceId()); //one source per key
+            }
+        }
+        assertEquals(300L, ts);
+        assertEquals(3, sources.size());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static String pad(int length) {
+        StringBuilder sb = new StringBuilder("x");
+        for (int i = 0; i < length; i++) {
+            sb.append('-');
+        }
+        return sb.toString();
+    }
+
+}
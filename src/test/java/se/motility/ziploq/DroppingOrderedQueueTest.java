@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 import static se.motility.ziploq.SyncTestUtils.*;
 import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import se.motility.ziploq.SyncTestUtils.MsgObject;
@@ -59,4 +61,50 @@ public class DroppingOrderedQueueTest extends AbstractOrderedQueueTest {
         assertNull(ziploq.poll());
     }
 
+    
+    @Test
+    public void batchDropsTail() {
+        int capacity = 4; //4 is minimum capacity of underlying queue
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, COMPARATOR);
+        FlowConsumer<MsgObject> consumer = ziploq.registerOrdered(capacity, getStrategy(), TEST_SOURCE);
+        
+        TestEntry e1 = consume(consumer, OBJECT_1, TS_1, ZERO);
+        assertTrue(e1.isAccepted());
+        
+        //Only three out of five fit
+        assertFalse(consumer.onEvents(Arrays.asList(OBJECT_2, OBJECT_3, OBJECT_4, OBJECT_5, OBJECT_6),
+                new long[] {TS_1, TS_1, TS_1, TS_1, TS_1}));
+        
+        verify(e1, ziploq.poll());
+        verify(new TestEntry(OBJECT_2, TS_1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_3, TS_1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_4, TS_1, ZERO, true), ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test
+    public void batchFillsPartiallyDrainedQueue() {
+        int capacity = 8;
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, COMPARATOR);
+        FlowConsumer<MsgObject> consumer = ziploq.registerOrdered(capacity, getStrategy(), TEST_SOURCE);
+        FlowConsumer<MsgObject> other = ziploq.registerOrdered(capacity, getStrategy(), "OTHER");
+        other.onEvent(OBJECT_7, TS_1 + 10, ZERO);
+        
+        for (int i = 1; i < capacity; i++) {
+            assertTrue(consume(consumer, OBJECT_1, TS_1, ZERO).isAccepted());
+        }
+        for (int i = 1; i < capacity; i++) {
+            verify(new TestEntry(OBJECT_1, TS_1, ZERO, true), ziploq.poll());
+        }
+        assertEquals(capacity, consumer.remainingCapacity());
+        
+        //all four fit, although the producer has only seen one free slot so far
+        assertTrue(consumer.onEvents(Arrays.asList(OBJECT_2, OBJECT_3, OBJECT_4, OBJECT_5),
+                new long[] {TS_1, TS_1, TS_1, TS_1}));
+        verify(new TestEntry(OBJECT_2, TS_1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_3, TS_1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_4, TS_1, ZERO, true), ziploq.poll());
+        verify(new TestEntry(OBJECT_5, TS_1, ZERO, true), ziploq.poll());
+    }
+
 }
@@ -0,0 +1,136 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static se.motility.ziploq.SyncTestUtils.await;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.net.EgressPublisher;
+import se.motility.ziploq.net.SlowSubscriberPolicy;
+
+public class EgressPublisherTest {
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    private static final InetSocketAddress LOOPBACK = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    private EgressPublisher<Long> publisher;
+
+    @After
+    public void tearDown() {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    @Test
+    public void publishToSubscribers() throws Exception {
+        publisher = EgressPublisher.open(LOOPBACK, CODEC, 256, 1 << 20, SlowSubscriberPolicy.DISCONNECT);
+        List<SocketChannel> clients = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            clients.add(SocketChannel.open(publisher.getAddress()));
+        }
+        await(() -> publisher.getSubscriberCount() == 2);
+
+        for (long i = 0; i < 1000; i++) {
+            publisher.publish(i * 10, i);
+        }
+        publisher.close();
+        assertEquals(1000L, publisher.getPublishedEntries());
+        assertEquals(1000L * 20, publisher.getPublishedBytes());
+        assertEquals(2 * 1000L * 20, publisher.getSentBytes());
+
+        for (SocketChannel client : clients) {
+            ByteBuffer buf = readAll(client);
+            for (long i = 0; i < 1000; i++) {
+                assertEquals(16, buf.getInt());
+                assertEquals(i, buf.getLong());
+                assertEquals(i * 10, buf.getLong());
+            }
+            assertEquals(0, buf.remaining());
+            client.close();
+        }
+    }
+
+    @Test
+    public void disconnectSlowSubscriber() throws Exception {
+        publisher = EgressPublisher.open(LOOPBACK, CODEC, 1024, 4096, SlowSubscriberPolicy.DISCONNECT);
+        try (SocketChannel slow = SocketChannel.open()) {
+            slow.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            slow.connect(publisher.getAddress());
+            await(() -> publisher.getSubscriberCount() == 1);
+            publishUntil(() -> publisher.getSlowDisconnects() == 1L);
+            assertEquals(0, publisher.getSubscriberCount());
+        }
+    }
+
+    @Test
+    public void dropForSlowSubscriber() throws Exception {
+        publisher = EgressPublisher.open(LOOPBACK, CODEC, 1024, 4096, SlowSubscriberPolicy.DROP);
+        try (SocketChannel slow = SocketChannel.open()) {
+            slow.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            slow.connect(publisher.getAddress());
+            await(() -> publisher.getSubscriberCount() == 1);
+            publishUntil(() -> publisher.getDroppedBatches() > 0L);
+            assertEquals(1, publisher.getSubscriberCount());
+            await(() -> publisher.getMaxLagBytes() > 0L);
+            assertEquals(0L, publisher.getSlowDisconnects());
+
+            //subscriber still receives whole frames
+            ByteBuffer buf = ByteBuffer.allocate(20);
+            while (buf.hasRemaining()) {
+                slow.read(buf);
+            }
+            buf.flip();
+            assertEquals(16, buf.getInt());
+            assertEquals(0L, buf.getLong());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectOversizedFrame() {
+        publisher = EgressPublisher.open(LOOPBACK, CODEC, 16, 1024, SlowSubscriberPolicy.DROP);
+        publisher.publish(1L, 1L);
+    }
+
+    private void publishUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        long i = 0;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out");
+            }
+            for (int n = 0; n < 1000; n++, i++) {
+                publisher.publish(i, i);
+            }
+            publisher.flush();
+            Thread.sleep(1L);
+        }
+    }
+
+    private static ByteBuffer readAll(SocketChannel channel) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        while (channel.read(buf) >= 0) {
+            if (!buf.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buf.capacity() * 2);
+                buf.flip();
+                buf = larger.put(buf);
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+}
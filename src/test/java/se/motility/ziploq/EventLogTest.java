@@ -0,0 +1,155 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.eventlog.EventLogReader;
+import se.motility.ziploq.eventlog.EventLogWriter;
+
+public class EventLogTest {
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndRead() throws IOException {
+        Path file = write(1_000, 64); //3 records per block
+        try (EventLogReader<Long> reader = EventLogReader.open(file, CODEC)) {
+            assertEquals(1_000L, reader.getMessageCount());
+            assertEquals(334, reader.getBlockCount());
+            assertEquals(0L, reader.getFirstTimestamp());
+            assertEquals(9_990L, reader.getLastTimestamp());
+            for (long i = 0; i < 1_000; i++) {
+                assertTrue(reader.hasNext());
+                assertEquals(i, (long) reader.next());
+                assertEquals(i * 10, reader.getTimestamp());
+            }
+            assertFalse(reader.hasNext());
+        }
+        assertEquals(16 + 334 * 64 + 334 * 16 + 16, Files.size(file));
+    }
+
+    @Test
+    public void seek() throws IOException {
+        Path file = write(1_000, 256);
+        try (EventLogReader<Long> reader = EventLogReader.open(file, CODEC)) {
+            reader.seek(5_000L);
+            assertEquals(500L, (long) reader.next());
+            reader.seek(5_001L); //between messages
+            assertEquals(501L, (long) reader.next());
+            reader.seek(Long.MIN_VALUE);
+            assertEquals(0L, (long) reader.next());
+            reader.seek(9_990L);
+            assertEquals(999L, (long) reader.next());
+            assertFalse(reader.hasNext());
+            reader.seek(9_991L);
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void seekAmongEqualTimestamps() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("ties.log");
+        try (EventLogWriter<Long> writer = EventLogWriter.open(file, CODEC, 64)) {
+            for (long i = 0; i < 20; i++) {
+                writer.append(i, i < 5 ? 0L : i < 15 ? 1L : 2L);
+            }
+        }
+        try (EventLogReader<Long> reader = EventLogReader.open(file, CODEC)) {
+            reader.seek(1L);
+            assertEquals(5L, (long) reader.next()); //first message having the timestamp
+        }
+    }
+
+    @Test
+    public void registerAsSource() throws IOException {
+        Path file = write(1_000, 128);
+        Ziploq<Long> ziploq = ZiploqFactory.create(null);
+        SynchronizedConsumer<Long> other = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "OTHER");
+        other.onEvent(-1L, 5_005L);
+        other.complete();
+        EventLogReader<Long> reader = EventLogReader.open(file, CODEC);
+        reader.seek(5_000L);
+        reader.register(ziploq, "LOG");
+
+        assertEntry(500L, 5_000L, ziploq.poll());
+        assertEntry(-1L, 5_005L, ziploq.poll());
+        for (long i = 501; i < 1_000; i++) {
+            assertEntry(i, i * 10, ziploq.poll());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+        reader.close();
+    }
+
+    @Test
+    public void emptyLog() throws IOException {
+        Path file = write(0, 64);
+        try (EventLogReader<Long> reader = EventLogReader.open(file, CODEC)) {
+            assertEquals(0, reader.getBlockCount());
+            assertFalse(reader.hasNext());
+            reader.seek(0L);
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreasingTimestamp() {
+        try (EventLogWriter<Long> writer = EventLogWriter.open(folder.getRoot().toPath().resolve("a.log"), CODEC)) {
+            writer.append(1L, 10L);
+            writer.append(2L, 9L);
+        }
+    }
+
+    @Test
+    public void incompleteLog() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("incomplete.log");
+        EventLogWriter<Long> writer = EventLogWriter.open(file, CODEC, 64);
+        for (long i = 0; i < 10; i++) {
+            writer.append(i, i);
+        }
+        try {
+            EventLogReader.open(file, CODEC);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            //not closed
+        }
+        writer.close();
+    }
+
+    private Path write(int messages, int blockSize) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (EventLogWriter<Long> writer = EventLogWriter.open(file, CODEC, blockSize)) {
+            for (long i = 0; i < messages; i++) {
+                writer.append(i, i * 10);
+            }
+            assertEquals(messages, writer.getMessageCount());
+        }
+        return file;
+    }
+
+    private static void assertEntry(long message, long businessTs, Entry<Long> entry) {
+        assertEquals(businessTs, entry.getBusinessTs());
+        assertEquals(message, (long) entry.getMessage());
+    }
+
+}
@@ -0,0 +1,174 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.TimestampedIterator;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.sort.ExternalSort;
+
+public class ExternalSortTest {
+
+    private static final MessageCodec<Long> LONG_CODEC = Codecs.LONG;
+
+    //"timestamp:label", UTF-8 encoded
+    private static final MessageCodec<String> STRING_CODEC = Codecs.STRING;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void registerIterator() {
+        Ziploq<Long> ziploq = ZiploqFactory.create(null);
+        ziploq.registerIterator(Arrays.asList(1L, 4L, 5L).iterator(), Long::longValue, "A");
+        ziploq.registerIterator(Arrays.asList(2L, 3L, 6L).iterator(), Long::longValue, "B");
+        ziploq.registerIterator(Collections.<Long>emptyIterator(), Long::longValue, "C");
+        for (long i = 1; i <= 6; i++) {
+            Entry<Long> entry = ziploq.poll();
+            assertEquals(i, entry.getBusinessTs());
+            assertEquals(i, (long) entry.getMessage());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test
+    public void registerTimestampedIterator() {
+        Ziploq<String> ziploq = ZiploqFactory.create(null);
+        ziploq.registerIterator(timestamped(new long[] {1L, 4L}, "a", "d"), "A");
+        ziploq.registerIterator(timestamped(new long[] {2L, 3L}, "b", "c"), "B");
+        for (String expected : new String[] {"a", "b", "c", "d"}) {
+            assertEquals(expected, ziploq.poll().getMessage());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test
+    public void sortRandomInput() {
+        Random random = new Random(42L);
+        List<Long> input = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            input.add((long) random.nextInt(1_000_000));
+        }
+        Path dir = folder.getRoot().toPath();
+        ExternalSort<Long> sort = ExternalSort.create(LONG_CODEC, Long::longValue, null, dir, 3_000, 4);
+        List<Long> sorted = sort.sort(input.iterator()).stream()
+                .map(Entry::getMessage)
+                .collect(Collectors.toList());
+
+        Collections.sort(input);
+        assertEquals(input, sorted);
+        assertEquals(0, dir.toFile().list().length); //run files deleted
+    }
+
+    @Test
+    public void tiesOrderedByComparator() {
+        Random random = new Random(7L);
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            input.add(random.nextInt(100) + ":" + random.nextInt(1_000_000));
+        }
+        Comparator<String> tiebreaker = Comparator.naturalOrder();
+        ExternalSort<String> sort = ExternalSort.create(STRING_CODEC, ExternalSortTest::timestamp,
+                tiebreaker, folder.getRoot().toPath(), 1_000, 2);
+        String[] sorted = sort.sort(input.iterator()).stream()
+                .map(Entry::getMessage)
+                .toArray(String[]::new);
+
+        input.sort(Comparator.<String>comparingLong(ExternalSortTest::timestamp).thenComparing(tiebreaker));
+        assertArrayEquals(input.toArray(), sorted);
+    }
+
+    @Test
+    public void singlePartialRun() {
+        ExternalSort<Long> sort = ExternalSort.create(LONG_CODEC, Long::longValue, null,
+                folder.getRoot().toPath(), 1_000, 1);
+        Ziploq<Long> ziploq = sort.sort(Arrays.asList(3L, 1L, 2L).iterator());
+        for (long i = 1; i <= 3; i++) {
+            assertEquals(i, (long) ziploq.poll().getMessage());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test
+    public void emptyInput() {
+        ExternalSort<Long> sort = ExternalSort.create(LONG_CODEC, Long::longValue, null,
+                folder.getRoot().toPath(), 1_000, 2);
+        assertEquals(0L, sort.sort(Collections.<Long>emptyIterator()).stream().count());
+    }
+
+    @Test
+    public void failureRemovesRuns() {
+        MessageCodec<Long> failing = new MessageCodec<Long>() {
+            @Override
+            public void encode(Long message, ByteBuffer buffer) {
+                if (message == 500L) {
+                    throw new IllegalStateException("Encoding failed");
+                }
+                LONG_CODEC.encode(message, buffer);
+            }
+            @Override
+            public Long decode(ByteBuffer buffer) {
+                return LONG_CODEC.decode(buffer);
+            }
+        };
+        List<Long> input = new ArrayList<>();
+        for (long i = 1_000; i > 0; i--) {
+            input.add(i);
+        }
+        Path dir = folder.getRoot().toPath();
+        ExternalSort<Long> sort = ExternalSort.create(failing, Long::longValue, null, dir, 100, 2);
+        try {
+            sort.sort(input.iterator());
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Encoding failed", e.getMessage());
+        }
+        assertEquals(0, dir.toFile().list().length);
+    }
+
+    private static long timestamp(String message) {
+        return Long.parseLong(message.substring(0, message.indexOf(':')));
+    }
+
+    private static TimestampedIterator<String> timestamped(long[] timestamps, String... messages) {
+        return new TimestampedIterator<String>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < messages.length;
+            }
+
+            @Override
+            public String next() {
+                return messages[next++];
+            }
+
+            @Override
+            public long getTimestamp() {
+                return timestamps[next - 1];
+            }
+        };
+    }
+
+}
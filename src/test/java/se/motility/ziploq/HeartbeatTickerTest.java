@@ -0,0 +1,146 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static se.motility.ziploq.SyncTestUtils.*;
+import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import se.motility.ziploq.SyncTestUtils.MsgObject;
+import se.motility.ziploq.SyncTestUtils.TestEntry;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.HeartbeatTicker;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class HeartbeatTickerTest {
+
+    private static final String TEST_SOURCE = "SOURCE";
+    private static final long DELAY = 10L;
+
+    private final AtomicLong clock = new AtomicLong(ZERO);
+    private final AtomicLong ticks = new AtomicLong();
+
+    //Clock of the ticker, counting its ticks
+    private long tick() {
+        ticks.incrementAndGet();
+        return clock.get();
+    }
+
+    //Let the ticker complete a number of ticks reading the current clock
+    private void awaitTicks() throws InterruptedException {
+        long target = ticks.get() + 3;
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (ticks.get() < target) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Ticker did not tick");
+            }
+            Thread.sleep(1L);
+        }
+    }
+
+    @Test(timeout=10_000)
+    public void heartbeatIdleSource() throws InterruptedException {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(DELAY, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        try (HeartbeatTicker ticker = HeartbeatTicker.create(1L, this::tick)) {
+            ticker.register(consumer2);
+            TestEntry e1 = consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+            consumer1.updateSystemTime(ZERO + 100*DELAY);
+            awaitTicks();
+            assertNull(ziploq.poll());
+
+            clock.set(ZERO + 5*DELAY);
+            verify(e1, ziploq.take()); //emitted based on heartbeat
+            assertEquals(ZERO + 5*DELAY, ticker.currentTimeMillis());
+        }
+    }
+
+    @Test(timeout=10_000)
+    public void unregisteredSourceNotHeartbeaten() throws InterruptedException {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(DELAY, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        try (HeartbeatTicker ticker = HeartbeatTicker.create(1L, this::tick)) {
+            ticker.register(consumer2);
+            ticker.unregister(consumer2); //e.g. disconnected
+            consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+            consumer1.updateSystemTime(ZERO + 100*DELAY);
+
+            clock.set(ZERO + 5*DELAY);
+            awaitTicks();
+            assertNull(ziploq.poll());
+        }
+    }
+
+    @Test(timeout=10_000)
+    public void heartbeatRespectsRecovery() throws InterruptedException {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(DELAY, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        try (HeartbeatTicker ticker = HeartbeatTicker.create(1L, this::tick)) {
+            TestEntry e1 = consume(consumer2, OBJECT_1, TS_1, ZERO + 20*DELAY); //jump; start of recovery
+            ticker.register(consumer2);
+            TestEntry e2 = consume(consumer1, OBJECT_2, TS_1 + 1, ZERO + 1);
+            consumer1.updateSystemTime(ZERO + 100*DELAY);
+            verify(e1, ziploq.poll());
+
+            clock.set(ZERO + 20*DELAY + DELAY/2); //still recovering
+            awaitTicks();
+            assertNull(ziploq.poll());
+
+            clock.set(ZERO + 30*DELAY);           //recovered
+            verify(e2, ziploq.take());
+        }
+    }
+
+    @Test(timeout=10_000)
+    public void systemTsNeverBelowHeartbeat() throws InterruptedException {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(DELAY, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        try (HeartbeatTicker ticker = HeartbeatTicker.create(1L, this::tick)) {
+            ticker.register(consumer2);
+            TestEntry e1 = consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+            consumer1.updateSystemTime(ZERO + 100*DELAY);
+            clock.set(ZERO + 5*DELAY);
+            verify(e1, ziploq.take());
+            consumer1.complete();
+
+            consumer2.onEvent(OBJECT_2, TS_1 + 1, ZERO + 2); //stale system timestamp
+            Entry<MsgObject> entry = ziploq.take();
+            assertEquals(OBJECT_2, entry.getMessage());
+            assertEquals(ZERO + 5*DELAY, entry.getSystemTs());
+        }
+    }
+
+    @Test(timeout=10_000)
+    public void closeUnregistersConsumers() throws InterruptedException {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(DELAY, COMPARATOR);
+        FlowConsumer<MsgObject> consumer = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        HeartbeatTicker ticker = HeartbeatTicker.create(1L, this::tick);
+        ticker.register(consumer);
+        clock.set(ZERO + 5*DELAY);
+        awaitTicks();
+        ticker.close();
+        long closedTicks = ticks.get();
+
+        consumer.onEvent(OBJECT_1, TS_1, ZERO + 2); //no longer raised to the heartbeat
+        Entry<MsgObject> entry = ziploq.take();
+        assertEquals(OBJECT_1, entry.getMessage());
+        assertEquals(ZERO + 2, entry.getSystemTs());
+        assertEquals(closedTicks, ticks.get()); //thread has stopped
+    }
+
+}
@@ -0,0 +1,207 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.motility.ziploq.SyncTestUtils.await;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.net.IngressServer;
+
+public class IngressServerTest {
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    private static final InetSocketAddress LOOPBACK = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    private final ZipFlow<Long> zipFlow = ZiploqFactory.create(60_000L, null);
+    private IngressServer<Long> server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void mergeTcpConnections() throws Exception {
+        server = IngressServer.open(zipFlow, CODEC, LOOPBACK, null, 2, 1024, BackPressureStrategy.BLOCK);
+        List<SocketChannel> clients = new ArrayList<>();
+        for (int c = 0; c < 3; c++) {
+            clients.add(SocketChannel.open(server.getTcpAddress()));
+        }
+        await(() -> server.getConnectionCount() == 3);
+
+        for (int c = 0; c < 3; c++) {
+            ByteBuffer buf = ByteBuffer.allocate(100 * 20);
+            for (long i = 0; i < 100; i++) {
+                frame(buf, i * 3 + c, i * 3 + c);
+            }
+            buf.flip();
+            //split a frame across writes
+            ByteBuffer first = buf.duplicate();
+            first.limit(30);
+            write(clients.get(c), first);
+            buf.position(30);
+            write(clients.get(c), buf);
+            clients.get(c).close();
+        }
+
+        for (long i = 0; i < 300; i++) {
+            Entry<Long> entry = zipFlow.take();
+            assertEquals(i, entry.getBusinessTs());
+            assertEquals(i, (long) entry.getMessage());
+        }
+        assertSame(Ziploq.getEndSignal(), zipFlow.take()); //completed on disconnect
+        assertEquals(0, server.getConnectionCount());
+    }
+
+    @Test
+    public void tickAdvancesSystemTime() throws Exception {
+        ZipFlow<Long> flow = ZiploqFactory.create(20L, null);
+        server = IngressServer.open(flow, CODEC, LOOPBACK, null, 1, 1024, BackPressureStrategy.BLOCK);
+        SocketChannel silent = SocketChannel.open(server.getTcpAddress());
+        try (SocketChannel active = SocketChannel.open(server.getTcpAddress())) {
+            await(() -> server.getConnectionCount() == 2);
+            ByteBuffer buf = ByteBuffer.allocate(20);
+            frame(buf, 1L, 42L);
+            buf.flip();
+            write(active, buf);
+            //released once system time of the silent connection has passed the delay
+            Entry<Long> entry = flow.take();
+            assertEquals(42L, (long) entry.getMessage());
+            assertTrue(silent.isConnected());
+        } finally {
+            silent.close();
+        }
+    }
+
+    @Test
+    public void receiveUdp() throws Exception {
+        server = IngressServer.open(zipFlow, CODEC, null, LOOPBACK, 1, 1024, BackPressureStrategy.DROP);
+        try (DatagramChannel client = DatagramChannel.open()) {
+            ByteBuffer buf = ByteBuffer.allocate(40);
+            frame(buf, 5L, 50L);
+            frame(buf, 6L, 60L);
+            buf.flip();
+            client.send(buf, server.getUdpAddress());
+            await(() -> server.getConnectionCount() == 1);
+        }
+        server.close();
+        Entry<Long> entry = zipFlow.take();
+        assertEquals(5L, entry.getBusinessTs());
+        assertEquals(50L, (long) entry.getMessage());
+        assertNotNull(entry = zipFlow.take());
+        assertEquals(60L, (long) entry.getMessage());
+        assertSame(Ziploq.getEndSignal(), zipFlow.take()); //completed on close
+    }
+
+    @Test
+    public void completeIdleUdpPeer() throws Exception {
+        server = IngressServer.open(zipFlow, CODEC, null, LOOPBACK, 1, 1024, BackPressureStrategy.DROP, 50L, 16);
+        try (DatagramChannel client = DatagramChannel.open()) {
+            ByteBuffer buf = ByteBuffer.allocate(20);
+            frame(buf, 5L, 50L);
+            buf.flip();
+            client.send(buf, server.getUdpAddress());
+            await(() -> server.getConnectionCount() == 1);
+            await(() -> server.getConnectionCount() == 0); //completed once idle
+        }
+        assertEquals(50L, (long) zipFlow.take().getMessage());
+        assertSame(Ziploq.getEndSignal(), zipFlow.take());
+    }
+
+    @Test
+    public void discardDatagramsBeyondMaxPeers() throws Exception {
+        ZipFlow<Long> flow = ZiploqFactory.create(20L, null);
+        server = IngressServer.open(flow, CODEC, null, LOOPBACK, 1, 1024, BackPressureStrategy.DROP, 60_000L, 1);
+        try (DatagramChannel first = DatagramChannel.open(); DatagramChannel second = DatagramChannel.open()) {
+            ByteBuffer buf = ByteBuffer.allocate(20);
+            frame(buf, 5L, 50L);
+            buf.flip();
+            first.send(buf, server.getUdpAddress());
+            assertEquals(50L, (long) flow.take().getMessage());
+            buf.clear();
+            frame(buf, 6L, 60L);
+            buf.flip();
+            second.send(buf, server.getUdpAddress());
+            buf.clear();
+            frame(buf, 7L, 70L);
+            buf.flip();
+            first.send(buf, server.getUdpAddress());
+            assertEquals(70L, (long) flow.take().getMessage());
+            assertEquals(1, server.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void invalidFrameClosesConnection() throws Exception {
+        server = IngressServer.open(zipFlow, CODEC, LOOPBACK, null, 1, 1024, BackPressureStrategy.BLOCK);
+        try (SocketChannel client = SocketChannel.open(server.getTcpAddress())) {
+            await(() -> server.getConnectionCount() == 1);
+            ByteBuffer buf = ByteBuffer.allocate(4).putInt(-1);
+            buf.flip();
+            write(client, buf);
+            await(() -> server.getConnectionCount() == 0);
+            assertSame(Ziploq.getEndSignal(), zipFlow.take());
+        }
+    }
+
+    @Test
+    public void undecodableFrameClosesOnlyItsConnection() throws Exception {
+        ZipFlow<Long> flow = ZiploqFactory.create(20L, null);
+        server = IngressServer.open(flow, CODEC, LOOPBACK, null, 1, 1024, BackPressureStrategy.BLOCK);
+        try (SocketChannel healthy = SocketChannel.open(server.getTcpAddress());
+                SocketChannel faulty = SocketChannel.open(server.getTcpAddress())) {
+            await(() -> server.getConnectionCount() == 2);
+            ByteBuffer buf = ByteBuffer.allocate(12).putInt(8).putLong(1L); //valid length, empty payload
+            buf.flip();
+            write(faulty, buf);
+            await(() -> server.getConnectionCount() == 1);
+
+            buf = ByteBuffer.allocate(40);
+            frame(buf, 2L, 20L);
+            frame(buf, 3L, 30L);
+            buf.flip();
+            write(healthy, buf);
+            assertEquals(20L, (long) flow.take().getMessage());
+            assertEquals(30L, (long) flow.take().getMessage());
+
+            //the I/O thread owning the listener keeps accepting connections
+            try (SocketChannel late = SocketChannel.open(server.getTcpAddress())) {
+                await(() -> server.getConnectionCount() == 2);
+                assertTrue(late.isConnected());
+            }
+        }
+    }
+
+    private static void frame(ByteBuffer buf, long businessTs, long message) {
+        buf.putInt(16).putLong(businessTs).putLong(message);
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
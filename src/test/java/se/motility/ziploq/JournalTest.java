@@ -0,0 +1,102 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.journal.JournalReader;
+import se.motility.ziploq.journal.JournalWriter;
+
+public class JournalTest {
+
+    private static final MessageCodec<String> CODEC = Codecs.STRING;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayEmittedEntries() throws Exception {
+        Path dir = folder.getRoot().toPath().resolve("journal");
+        Ziploq<String> ziploq = ZiploqFactory.create(null);
+        SynchronizedConsumer<String> c1 = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "C1");
+        SynchronizedConsumer<String> c2 = ziploq.registerOrdered(16, BackPressureStrategy.BLOCK, "C2");
+        c1.onEvent("a", 1L);
+        c2.onEvent("b", 2L);
+        c1.onEvent("c", 3L);
+        c1.complete();
+        c2.complete();
+        try (JournalWriter<String> journal = JournalWriter.open(dir, CODEC)) {
+            ziploq.stream().forEach(journal);
+        }
+
+        try (JournalReader<String> reader = JournalReader.open(dir, CODEC)) {
+            List<Entry<String>> entries = reader.stream().collect(Collectors.toList());
+            assertEquals(3, entries.size());
+            assertEntry(entries.get(0), "a", 1L, 0);
+            assertEntry(entries.get(1), "b", 2L, 1);
+            assertEntry(entries.get(2), "c", 3L, 0);
+        }
+    }
+
+    @Test
+    public void rollSegmentsAndAppendAfterReopen() {
+        Path dir = folder.getRoot().toPath();
+        int segmentSize = 100; //3 entries of 24 + 3 bytes per segment
+        try (JournalWriter<String> journal = JournalWriter.open(dir, CODEC, segmentSize, 0)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append("m" + i, i, 100L + i, 7);
+            }
+        }
+        try (JournalWriter<String> journal = JournalWriter.open(dir, CODEC, segmentSize, 50)) {
+            for (int i = 10; i < 20; i++) {
+                journal.append("m" + i, i, 100L + i, 7);
+            }
+        }
+        assertEquals(7, folder.getRoot().list().length);
+
+        try (JournalReader<String> reader = JournalReader.open(dir, CODEC)) {
+            for (int i = 0; i < 20; i++) {
+                Entry<String> entry = reader.next();
+                assertEntry(entry, "m" + i, i, 7);
+                assertEquals(100L + i, entry.getSystemTs());
+            }
+            assertNull(reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void entryLargerThanSegment() {
+        try (JournalWriter<String> journal = JournalWriter.open(folder.getRoot().toPath(), CODEC, 32, 0)) {
+            journal.append("too large for segment", 1L, 1L, 0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void appendAfterClose() {
+        JournalWriter<String> journal = JournalWriter.open(folder.getRoot().toPath(), CODEC);
+        journal.close();
+        journal.append("a", 1L, 1L, 0);
+    }
+
+    private static void assertEntry(Entry<String> entry, String msg, long businessTs, int sourceId) {
+        assertEquals(msg, entry.getMessage());
+        assertEquals(businessTs, entry.getBusinessTs());
+        assertEquals(sourceId, entry.getSourceId());
+    }
+
+}
@@ -0,0 +1,106 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static se.motility.ziploq.SyncTestUtils.*;
+import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.motility.ziploq.SyncTestUtils.MsgObject;
+import se.motility.ziploq.SyncTestUtils.TestEntry;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.LateDataPolicy;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class LateDataPolicyTest {
+
+    private static final String TEST_SOURCE = "SOURCE";
+
+    private final Ziploq<MsgObject> ziploq = ZiploqFactory.create(COMPARATOR);
+    private final SynchronizedConsumer<MsgObject> consumer =
+            ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+    @Test
+    public void emitByDefault() {
+        TestEntry e1 = consume(consumer, OBJECT_1, TS_1 + 5);
+        TestEntry e2 = consume(consumer, OBJECT_2, TS_1); //goes backwards
+        verify(e1, ziploq.poll());
+        Entry<MsgObject> late = ziploq.poll();
+        verify(e2, late);
+        assertFalse(late.isLate());
+        assertEquals(1L, consumer.getLateCount());
+    }
+
+    @Test
+    public void reject() {
+        List<Entry<MsgObject>> rejected = new ArrayList<>();
+        consumer.setLateDataPolicy(LateDataPolicy.reject(rejected::add));
+        TestEntry e1 = consume(consumer, OBJECT_1, TS_1 + 5);
+        TestEntry e2 = consume(consumer, OBJECT_2, TS_1);
+        TestEntry e3 = consume(consumer, OBJECT_3, TS_1 + 6);
+        verify(e1, ziploq.poll());
+        verify(e3, ziploq.poll());
+        assertNull(ziploq.poll());
+        assertEquals(1, rejected.size());
+        verify(e2, rejected.get(0));
+        assertEquals(1L, consumer.getLateCount());
+    }
+
+    @Test
+    public void clamp() {
+        consumer.setLateDataPolicy(LateDataPolicy.clamp());
+        consume(consumer, OBJECT_1, TS_1 + 5);
+        consume(consumer, OBJECT_2, TS_1);
+        ziploq.poll();
+        Entry<MsgObject> late = ziploq.poll();
+        assertEquals(OBJECT_2, late.getMessage());
+        assertEquals(TS_1 + 5, late.getBusinessTs());
+        assertTrue(late.isLate());
+    }
+
+    @Test
+    public void flag() {
+        consumer.setLateDataPolicy(LateDataPolicy.flag());
+        TestEntry e1 = consume(consumer, OBJECT_1, TS_1 + 5);
+        TestEntry e2 = consume(consumer, OBJECT_2, TS_1);
+        Entry<MsgObject> first = ziploq.poll();
+        verify(e1, first);
+        assertFalse(first.isLate());
+        Entry<MsgObject> late = ziploq.poll();
+        verify(e2, late);
+        assertTrue(late.isLate());
+    }
+
+    @Test
+    public void lateAfterSystemTimeRelease() {
+        ZipFlow<MsgObject> zipFlow = ZiploqFactory.create(10L, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = zipFlow.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = zipFlow.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        List<Entry<MsgObject>> rejected = new ArrayList<>();
+        consumer2.setLateDataPolicy(LateDataPolicy.reject(rejected::add));
+
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1 + 5, ZERO + 1);
+        consumer1.updateSystemTime(ZERO + 100);
+        consumer2.updateSystemTime(ZERO + 100);
+        verify(e1, zipFlow.poll());
+        TestEntry e2 = consume(consumer2, OBJECT_2, TS_1, ZERO + 100); //arrives too late
+        consumer1.updateSystemTime(ZERO + 200);
+        consumer2.updateSystemTime(ZERO + 200);
+        assertNull(zipFlow.poll());
+        verify(e2, rejected.get(0));
+        assertEquals(0L, consumer1.getLateCount());
+        assertEquals(1L, consumer2.getLateCount());
+    }
+
+}
@@ -0,0 +1,93 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.eventlog.EventLogReader;
+import se.motility.ziploq.eventlog.EventLogWriter;
+import se.motility.ziploq.tools.MergeTool;
+
+public class MergeToolTest {
+
+    //messages hold file index in the upper and sequence number in the lower 32 bits
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void merge() throws IOException {
+        List<Path> inputs = write(5, 2_000);
+        Path output = folder.getRoot().toPath().resolve("merged.log");
+        MergeTool.Stats stats = MergeTool.merge(inputs, output, 2, 8, 4096);
+        assertEquals(10_000L, stats.getEntries());
+        assertEquals(1, stats.getStages());
+        assertMerged(output, 5, 2_000);
+    }
+
+    @Test
+    public void stagedMerge() throws IOException {
+        List<Path> inputs = write(11, 500);
+        Path output = folder.getRoot().toPath().resolve("merged.log");
+        MergeTool.Stats stats = MergeTool.merge(inputs, output, 3, 3, 256);
+        assertEquals(5_500L, stats.getEntries());
+        assertEquals(3, stats.getStages()); //11 -> 4 -> 2 -> 1
+        assertMerged(output, 11, 500);
+        assertEquals(12, folder.getRoot().list().length); //intermediate files deleted
+        assertTrue(stats.getEntriesPerSecond() > 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noInputs() {
+        MergeTool.merge(new ArrayList<>(), folder.getRoot().toPath().resolve("merged.log"), 1, 8, 4096);
+    }
+
+    private List<Path> write(int files, int messages) throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        for (int f = 0; f < files; f++) {
+            File file = folder.newFile("input-" + f + ".log");
+            try (EventLogWriter<Long> writer = EventLogWriter.open(file.toPath(), CODEC, 256)) {
+                for (int i = 0; i < messages; i++) {
+                    writer.append((long) f << 32 | i, i / 2 * 10 + f % 3); //ties within and across files
+                }
+            }
+            inputs.add(file.toPath());
+        }
+        return inputs;
+    }
+
+    private static void assertMerged(Path output, int files, int messages) {
+        int[] next = new int[files];
+        try (EventLogReader<Long> reader = EventLogReader.open(output, CODEC)) {
+            long lastTs = Long.MIN_VALUE;
+            int lastFile = -1;
+            for (int n = 0; n < files * messages; n++) {
+                long message = reader.next();
+                int file = (int) (message >>> 32);
+                long ts = reader.getTimestamp();
+                assertTrue(ts >= lastTs);
+                if (ts == lastTs) {
+                    assertTrue(file >= lastFile); //ties ordered by input file
+                }
+                assertEquals(next[file]++, (int) message); //each input in order
+                lastTs = ts;
+                lastFile = file;
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+}
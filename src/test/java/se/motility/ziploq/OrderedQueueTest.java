@@ -10,6 +10,7 @@ import se.motility.ziploq.impl.SyncQueueFactory.CapacityType;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static se.motility.ziploq.SyncTestUtils.MsgObject.OBJECT_1;
 
@@ -92,4 +93,31 @@ public class OrderedQueueTest {
         assertEquals(capacity + 1, q.readySize());  // The last message is actually _accepted_ even though returning 'false'!
         assertEquals(capacity + 1, q.size());       // The last message is actually _accepted_ even though returning 'false'!
     }
+    
+    @Test
+    public void chunkedBoundedCapacity() {
+        int capacity = 4096; // Must be power of 2
+        int chunkSize = 64;
+        SyncQueue<MsgObject> q = SyncQueueFactory.createOrdered(capacity, chunkSize, CapacityType.BOUNDED);
+        assertEquals(capacity, q.remainingCapacity());
+        
+        //Fill the queue; buffer grows one chunk at a time
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(q.offer(new TestEntry(OBJECT_1, i, 0L, true)));
+        }
+        assertEquals(0, q.remainingCapacity());
+        assertEquals(capacity, q.size());
+        assertFalse(q.offer(new TestEntry(OBJECT_1, capacity, 0L, true))); // Rejected
+        
+        //Drain the queue and verify order is kept across chunks
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(i, q.poll().getBusinessTs());
+        }
+        assertEquals(capacity, q.remainingCapacity());
+        assertNull(q.poll());
+        
+        //Queue can be re-filled after released chunks
+        assertTrue(q.offer(new TestEntry(OBJECT_1, capacity, 0L, true)));
+        assertEquals(capacity - 1, q.remainingCapacity());
+    }
 }
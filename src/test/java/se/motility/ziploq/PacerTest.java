@@ -0,0 +1,99 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static se.motility.ziploq.SyncTestUtils.*;
+import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import se.motility.ziploq.SyncTestUtils.MsgObject;
+import se.motility.ziploq.api.AdvancedZiploq;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.Pacer;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class PacerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incorrectSpeed() {
+        Pacer.create(0.0);
+    }
+
+    @Test(timeout=10_000)
+    public void realTime() throws InterruptedException {
+        Pacer pacer = Pacer.create(1.0);
+        pacer.await(TS_1);
+        long start = System.nanoTime();
+        pacer.await(TS_1 + 20);
+        pacer.await(TS_1 + 40);
+        assertTrue(System.nanoTime() - start >= 40 * MS);
+        assertTrue(pacer.getPacingError(0.5) < 20 * MS);
+    }
+
+    @Test(timeout=10_000)
+    public void speedFactor() throws InterruptedException {
+        Pacer pacer = Pacer.create(10.0);
+        pacer.await(TS_1);
+        long start = System.nanoTime();
+        pacer.await(TS_1 + 500);
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 50 * MS);
+        assertTrue(elapsed < 450 * MS);
+    }
+
+    @Test(timeout=10_000)
+    public void changeSpeed() throws InterruptedException {
+        Pacer pacer = Pacer.create(Pacer.AS_FAST_AS_POSSIBLE);
+        long start = System.nanoTime();
+        pacer.await(TS_1);
+        pacer.await(TS_1 + 3_600_000L); //one hour
+        assertTrue(System.nanoTime() - start < 1000 * MS);
+
+        pacer.setSpeed(2.0);
+        pacer.await(TS_1 + 3_600_000L); //re-anchored
+        start = System.nanoTime();
+        pacer.await(TS_1 + 3_600_040L);
+        assertTrue(System.nanoTime() - start >= 20 * MS);
+        assertEquals(2.0, pacer.getSpeed(), 0.0);
+    }
+
+    @Test(timeout=10_000)
+    public void reanchorOnLag() throws InterruptedException {
+        Pacer pacer = Pacer.create(1.0, TimeUnit.MILLISECONDS, 5 * MS);
+        pacer.await(TS_1);
+        Thread.sleep(50L); //e.g. a GC pause
+        pacer.await(TS_1 + 10); //behind schedule; released immediately
+        long start = System.nanoTime();
+        pacer.await(TS_1 + 20);
+        assertTrue(System.nanoTime() - start >= 10 * MS);
+    }
+
+    @Test(timeout=10_000)
+    public void pacedStream() {
+        Ziploq<MsgObject> ziploq = ZiploqFactory.create(COMPARATOR);
+        SynchronizedConsumer<MsgObject> consumer = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, "SOURCE");
+        consume(consumer, OBJECT_1, TS_1);
+        consume(consumer, OBJECT_2, TS_1 + 10);
+        consume(consumer, OBJECT_3, TS_1 + 20);
+        consumer.complete();
+
+        long start = System.nanoTime();
+        List<MsgObject> msgs = AdvancedZiploq.pacedStream(ziploq, Pacer.create(1.0))
+                .map(Entry::getMessage)
+                .collect(Collectors.toList());
+        assertTrue(System.nanoTime() - start >= 20 * MS);
+        assertEquals(3, msgs.size());
+        assertEquals(OBJECT_3, msgs.get(2));
+    }
+
+}
@@ -0,0 +1,80 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+/**
+ * Races the publication of system time against message visibility.
+ * <p>
+ * The <i>lagging</i> producer enqueues a message at its latest system time and then
+ * immediately makes a large system time update. If the Consumer were to observe the
+ * update without also observing the message, it would emit messages from the <i>fast</i>
+ * producer having business timestamps above the lagging message.
+ */
+public class ProducerClockStressTest {
+
+    private static final long DELAY = 10L;
+    private static final long STEP = 11 * DELAY;
+    private static final int ROUNDS = 200_000;
+
+    @Test(timeout = 60_000L)
+    public void systemTimeNeverOvertakesMessages() throws InterruptedException {
+        ZipFlow<Long> ziploq = ZiploqFactory.create(DELAY, null);
+        FlowConsumer<Long> lagging = ziploq.registerOrdered(1024, BackPressureStrategy.BLOCK, "lagging");
+        FlowConsumer<Long> fast = ziploq.registerOrdered(1024, BackPressureStrategy.BLOCK, "fast");
+
+        Thread laggingThread = new Thread(() -> {
+            for (long i = 1; i <= ROUNDS; i++) {
+                long system = i * STEP;
+                lagging.onEvent(system - DELAY, system - DELAY, system);
+                lagging.updateSystemTime(system + STEP - DELAY);
+            }
+            lagging.complete();
+        });
+        Thread fastThread = new Thread(() -> {
+            for (long ts = 0; ts <= (ROUNDS + 1) * STEP; ts += 3) {
+                fast.onEvent(ts, ts, ts);
+            }
+            fast.complete();
+        });
+
+        AtomicReference<String> violation = new AtomicReference<>();
+        long[] count = new long[1];
+        Thread consumerThread = new Thread(() -> {
+            long previous = Long.MIN_VALUE;
+            try {
+                Entry<Long> entry;
+                while ((entry = ziploq.take()) != Ziploq.<Long>getEndSignal()) {
+                    if (entry.getBusinessTs() < previous && violation.get() == null) {
+                        violation.set(entry.getBusinessTs() + " emitted after " + previous);
+                    }
+                    previous = entry.getBusinessTs();
+                    count[0]++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        consumerThread.start();
+        laggingThread.start();
+        fastThread.start();
+        laggingThread.join();
+        fastThread.join();
+        consumerThread.join();
+
+        assertEquals(null, violation.get());
+        assertEquals(ROUNDS + (ROUNDS + 1) * STEP / 3 + 1, count[0]);
+    }
+
+}
@@ -0,0 +1,88 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static se.motility.ziploq.SyncTestUtils.*;
+import static se.motility.ziploq.SyncTestUtils.MsgObject.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.motility.ziploq.SyncTestUtils.MsgObject;
+import se.motility.ziploq.SyncTestUtils.TestEntry;
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class ReplayTest {
+
+    private static final String TEST_SOURCE = "SOURCE";
+    private static final long DELAY = 10L;
+
+    private static int next(Iterator<Integer> iter) {
+        return iter.hasNext() ? iter.next() : -1;
+    }
+
+    @Test
+    public void recordAndReplay() throws InterruptedException {
+        List<Integer> log = new ArrayList<>();
+        ZipFlow<MsgObject> recording = ZiploqFactory.createRecording(DELAY, COMPARATOR, log::add);
+        FlowConsumer<MsgObject> consumer1 = recording.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = recording.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1 + 5, ZERO + 1);
+        consumer1.updateSystemTime(ZERO + 100);
+        consumer2.updateSystemTime(ZERO + 100);
+        verify(e1, recording.poll()); //emitted based on system time
+        TestEntry e2 = consume(consumer2, OBJECT_2, TS_1, ZERO + 100);
+        TestEntry e3 = consume(consumer1, OBJECT_3, TS_1 + 6, ZERO + 100);
+        consumer1.complete();
+        consumer2.complete();
+        verify(e2, recording.take());
+        verify(e3, recording.take());
+        assertEquals(Ziploq.getEndSignal(), recording.take());
+
+        //replay with all messages available up front
+        Iterator<Integer> iter = log.iterator();
+        ZipFlow<MsgObject> replaying = ZiploqFactory.createReplaying(DELAY, COMPARATOR, () -> next(iter));
+        consumer1 = replaying.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        consumer2 = replaying.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        consume(consumer1, OBJECT_1, TS_1 + 5, ZERO + 1);
+        consume(consumer2, OBJECT_2, TS_1, ZERO + 100);
+        consume(consumer1, OBJECT_3, TS_1 + 6, ZERO + 100);
+        consumer1.complete();
+        consumer2.complete();
+        verify(e1, replaying.take());
+        verify(e2, replaying.take());
+        verify(e3, replaying.take());
+        assertEquals(Ziploq.getEndSignal(), replaying.take());
+    }
+
+    @Test
+    public void waitForRecordedSource() {
+        Iterator<Integer> iter = Arrays.asList(1, 0).iterator();
+        ZipFlow<MsgObject> replaying = ZiploqFactory.createReplaying(DELAY, COMPARATOR, () -> next(iter));
+        FlowConsumer<MsgObject> consumer1 = replaying.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = replaying.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+        consumer1.updateSystemTime(ZERO + 100);
+        consumer2.updateSystemTime(ZERO + 100);
+        assertNull(replaying.poll()); //waiting for second source
+        TestEntry e2 = consume(consumer2, OBJECT_2, TS_1 + 1, ZERO + 100);
+        verify(e2, replaying.poll());
+        verify(e1, replaying.poll());
+
+        TestEntry e3 = consume(consumer1, OBJECT_3, TS_1 + 2, ZERO + 100);
+        consumer1.updateSystemTime(ZERO + 200);
+        consumer2.updateSystemTime(ZERO + 200);
+        verify(e3, replaying.poll()); //replay exhausted; regular sequencing
+    }
+
+}
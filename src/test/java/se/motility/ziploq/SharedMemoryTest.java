@@ -0,0 +1,148 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.ipc.SharedMemorySource;
+import se.motility.ziploq.ipc.SharedMemoryWriter;
+
+public class SharedMemoryTest {
+
+    private static final MessageCodec<String> CODEC = Codecs.STRING;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SharedMemorySource<String> source;
+
+    @After
+    public void tearDown() {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    @Test
+    public void wrapAroundSmallRing() throws Exception {
+        ZipFlow<String> zipFlow = ZiploqFactory.create(60_000L, null);
+        Path ring = folder.getRoot().toPath().resolve("ring");
+        source = SharedMemorySource.open(zipFlow, ring, CODEC, 256, 64, BackPressureStrategy.BLOCK, "ipc");
+        Thread writer = new Thread(() -> {
+            try (SharedMemoryWriter<String> w = SharedMemoryWriter.open(ring, CODEC)) {
+                for (int i = 0; i < 10_000; i++) {
+                    w.put("msg-" + i, i, i);
+                }
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 10_000; i++) {
+            Entry<String> entry = zipFlow.take();
+            assertEquals("msg-" + i, entry.getMessage());
+            assertEquals(i, entry.getBusinessTs());
+            assertEquals(i, entry.getSystemTs());
+        }
+        assertSame(Ziploq.getEndSignal(), zipFlow.take()); //completed once writer is closed
+        writer.join();
+        assertEquals(10_000L, source.getReceived());
+    }
+
+    @Test
+    public void heartbeatAdvancesSystemTime() throws Exception {
+        ZipFlow<String> zipFlow = ZiploqFactory.create(100L, null);
+        Path ring = folder.getRoot().toPath().resolve("ring");
+        source = SharedMemorySource.open(zipFlow, ring, CODEC, "ipc");
+        FlowConsumer<String> other = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "other");
+        other.onEvent("other", 5L, 1_000L);
+        try (SharedMemoryWriter<String> w = SharedMemoryWriter.open(ring, CODEC)) {
+            Entry<String> entry = null;
+            long deadline = System.currentTimeMillis() + 10_000L;
+            //released once system time of the silent writer has passed the delay
+            for (long ts = 1_000L; entry == null && System.currentTimeMillis() < deadline; ts += 10L) {
+                w.heartbeat(ts);
+                other.updateSystemTime(ts);
+                Thread.sleep(1L);
+                entry = zipFlow.poll();
+            }
+            assertNotNull(entry);
+            assertEquals("other", entry.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void singleWriter() {
+        ZipFlow<String> zipFlow = ZiploqFactory.create(100L, null);
+        Path ring = folder.getRoot().toPath().resolve("ring");
+        source = SharedMemorySource.open(zipFlow, ring, CODEC, "ipc");
+        SharedMemoryWriter.open(ring, CODEC);
+        SharedMemoryWriter.open(ring, CODEC);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectOversizedMessage() {
+        ZipFlow<String> zipFlow = ZiploqFactory.create(100L, null);
+        Path ring = folder.getRoot().toPath().resolve("ring");
+        source = SharedMemorySource.open(zipFlow, ring, CODEC, 64, 16, BackPressureStrategy.BLOCK, "ipc");
+        SharedMemoryWriter.open(ring, CODEC).put(new String(new char[100]), 1L, 1L);
+    }
+
+    @Test
+    public void writerProcess() throws Exception {
+        ZipFlow<String> zipFlow = ZiploqFactory.create(60_000L, null);
+        Path ring = folder.getRoot().toPath().resolve("ring");
+        source = SharedMemorySource.open(zipFlow, ring, CODEC, 4096, 1024, BackPressureStrategy.BLOCK, "ipc");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                WriterProcess.class.getName(), ring.toString(), "5000")
+                .redirectErrorStream(true)
+                .redirectOutput(new File(folder.getRoot(), "writer.log"))
+                .start();
+        try {
+            for (int i = 0; i < 5000; i++) {
+                Entry<String> entry = zipFlow.take();
+                assertEquals("msg-" + i, entry.getMessage());
+                assertEquals(i, entry.getBusinessTs());
+            }
+            assertSame(Ziploq.getEndSignal(), zipFlow.take());
+            assertEquals(true, process.waitFor(30, TimeUnit.SECONDS));
+            assertEquals(new String(Files.readAllBytes(folder.getRoot().toPath().resolve("writer.log"))),
+                    0, process.exitValue());
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Writes messages to a ring from a separate process
+     */
+    public static final class WriterProcess {
+        public static void main(String[] args) {
+            int messages = Integer.parseInt(args[1]);
+            try (SharedMemoryWriter<String> w = SharedMemoryWriter.open(Paths.get(args[0]), CODEC)) {
+                for (int i = 0; i < messages; i++) {
+                    w.put("msg-" + i, i, System.currentTimeMillis());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Codecs;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.MessageCodec;
+import se.motility.ziploq.api.SpillPolicy;
+import se.motility.ziploq.api.SynchronizedConsumer;
+import se.motility.ziploq.api.Ziploq;
+import se.motility.ziploq.api.ZiploqFactory;
+
+public class SpillingQueueTest {
+
+    private static final MessageCodec<Long> CODEC = Codecs.LONG;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Ziploq<Long> ziploq = ZiploqFactory.create(null);
+
+    @Test
+    public void spillAndReadBack() {
+        Path dir = folder.getRoot().toPath();
+        SynchronizedConsumer<Long> consumer = ziploq.registerOrdered(4, SpillPolicy.create(CODEC, dir, 64), "SOURCE");
+        for (long i = 0; i < 4; i++) {
+            assertTrue(consumer.onEvent(i, i));
+        }
+        assertEquals(0L, consumer.getSpilledBytes());
+        for (long i = 4; i < 100; i++) {
+            assertFalse(consumer.onEvent(i, i)); //spilled
+        }
+        assertEquals(96 * 28L, consumer.getSpilledBytes());
+        assertEquals(48, consumer.getSpillSegments()); //2 records per segment
+        assertEquals(0, consumer.remainingCapacity());
+        assertEquals(0, dir.toFile().list().length); //deleted once mapped
+
+        for (long i = 0; i < 50; i++) {
+            assertEntry(i, ziploq.poll());
+        }
+        assertFalse(consumer.onEvent(100L, 100L)); //still spilling until caught up
+        for (long i = 50; i <= 100; i++) {
+            assertEntry(i, ziploq.poll());
+        }
+        assertTrue(consumer.onEvent(101L, 101L)); //back in memory
+        consumer.onEvents(Arrays.asList(102L, 103L, 104L, 105L), new long[] {102L, 103L, 104L, 105L});
+        consumer.complete();
+        for (long i = 101; i <= 105; i++) {
+            assertEntry(i, ziploq.poll());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test
+    public void mergeWithOtherSource() {
+        SynchronizedConsumer<Long> spilling = ziploq.registerOrdered(2,
+                SpillPolicy.create(CODEC, folder.getRoot().toPath(), 1024), "SPILLING");
+        SynchronizedConsumer<Long> other = ziploq.registerOrdered(64, BackPressureStrategy.BLOCK, "OTHER");
+        for (long i = 0; i < 20; i += 2) {
+            spilling.onEvent(i, i);
+            other.onEvent(i + 1, i + 1);
+        }
+        spilling.complete();
+        other.complete();
+        for (long i = 0; i < 20; i++) {
+            assertEntry(i, ziploq.poll());
+        }
+        assertSame(Ziploq.getEndSignal(), ziploq.poll());
+    }
+
+    @Test(timeout = 30_000)
+    public void concurrentProducer() throws InterruptedException {
+        int messages = 200_000;
+        SynchronizedConsumer<Long> consumer = ziploq.registerOrdered(16,
+                SpillPolicy.create(CODEC, folder.getRoot().toPath(), 4096), "SOURCE");
+        new Thread(() -> {
+            for (long i = 0; i < messages; i++) {
+                consumer.onEvent(i, i);
+            }
+            consumer.complete();
+        }).start();
+        Entry<Long> end = Ziploq.getEndSignal();
+        Entry<Long> entry;
+        long expected = 0L;
+        while ((entry = ziploq.take()) != end) {
+            assertEntry(expected++, entry);
+        }
+        assertEquals(messages, expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void messageLargerThanSegment() {
+        MessageCodec<Long> large = new MessageCodec<Long>() {
+            @Override
+            public void encode(Long message, ByteBuffer buffer) {
+                buffer.put(new byte[100]);
+            }
+            @Override
+            public Long decode(ByteBuffer buffer) {
+                return null;
+            }
+        };
+        SynchronizedConsumer<Long> consumer = ziploq.registerOrdered(1,
+                SpillPolicy.create(large, folder.getRoot().toPath(), 64), "SOURCE");
+        consumer.onEvent(1L, 1L);
+        consumer.onEvent(2L, 2L);
+    }
+
+    private static void assertEntry(long expected, Entry<Long> entry) {
+        assertEquals(expected, (long) entry.getMessage());
+        assertEquals(expected, entry.getBusinessTs());
+    }
+
+}
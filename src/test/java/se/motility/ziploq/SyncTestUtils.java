@@ -7,9 +7,11 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import se.motility.ziploq.api.Entry;
 import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.SynchronizedConsumer;
 
 public class SyncTestUtils {
     
@@ -45,11 +47,30 @@ public class SyncTestUtils {
         assertEquals(expected.getSystemTs(), actual.getSystemTs());
     }
     
+    /**
+     * Waits until the condition holds. If it does not hold within 10 seconds, an
+     * {@code AssertionError} is thrown.
+     */
+    public static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out");
+            }
+            Thread.sleep(5L);
+        }
+    }
+    
     public static TestEntry consume(FlowConsumer<MsgObject> consumer, MsgObject obj, long businessTs, long systemTs) {
         boolean accepted = consumer.onEvent(obj, businessTs, systemTs);
         return new TestEntry(obj, businessTs, systemTs, accepted);
     }
     
+    public static TestEntry consume(SynchronizedConsumer<MsgObject> consumer, MsgObject obj, long businessTs) {
+        boolean accepted = consumer.onEvent(obj, businessTs);
+        return new TestEntry(obj, businessTs, ZERO, accepted);
+    }
+    
     public static void addToQueue(FlowConsumer<MsgObject> consumer, int messages) {
         long time = 100L;
         for (int i = 0; i < messages; i++) {
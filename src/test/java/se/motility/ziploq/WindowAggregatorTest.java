@@ -0,0 +1,235 @@
+package se.motility.ziploq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.Test;
+
+import se.motility.ziploq.api.BackPressureStrategy;
+import se.motility.ziploq.api.Entry;
+import se.motility.ziploq.api.FlowConsumer;
+import se.motility.ziploq.api.ZipFlow;
+import se.motility.ziploq.api.ZiploqFactory;
+import se.motility.ziploq.ops.Window;
+import se.motility.ziploq.ops.WindowAggregator;
+
+public class WindowAggregatorTest {
+
+    private static class Trade {
+        final long instrument;
+        final double volume;
+        Trade(long instrument, double volume) {
+            this.instrument = instrument;
+            this.volume = volume;
+        }
+    }
+
+    private static Entry<Object> entry(Object msg, long businessTs) {
+        return new Entry<Object>() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public Object getMessage() {
+                return msg;
+            }
+            @Override
+            public long getBusinessTs() {
+                return businessTs;
+            }
+            @Override
+            public long getSystemTs() {
+                return 0L;
+            }
+        };
+    }
+
+    //key, start, end, count, sum, min, max, reduced
+    private final List<double[]> closed = new ArrayList<>();
+
+    private WindowAggregator<Object, Trade> create(Window window) {
+        return WindowAggregator.create(window, Trade.class, t -> t.instrument, t -> t.volume,
+                1d, (a, b) -> a * b,
+                (key, start, end, agg) -> closed.add(new double[] {
+                        key, start, end, agg.getCount(), agg.getSum(), agg.getMin(), agg.getMax(), agg.getReduced()}),
+                0);
+    }
+
+    @Test
+    public void tumbling() {
+        WindowAggregator<Object, Trade> agg = create(Window.tumbling(10L));
+        agg.accept(entry(new Trade(1L, 2d), 1L));
+        agg.accept(entry(new Trade(2L, 5d), 3L));
+        agg.accept(entry(new Trade(1L, 3d), 9L));
+        assertTrue(closed.isEmpty());
+        agg.accept(entry(new Trade(1L, 4d), 10L)); //closes [0, 10)
+        assertEquals(2, closed.size());
+        assertWindow(closed.get(0), 2L, 0L, 10L, 1L, 5d, 5d, 5d, 5d);
+        assertWindow(closed.get(1), 1L, 0L, 10L, 2L, 5d, 2d, 3d, 6d);
+        agg.accept(entry("ignored", 35L));
+        agg.advanceTo(19L);
+        assertEquals(2, closed.size());
+        agg.advanceTo(20L);
+        assertEquals(3, closed.size());
+        assertWindow(closed.get(2), 1L, 10L, 20L, 1L, 4d, 4d, 4d, 4d);
+        assertEquals(0, agg.getOpenKeys());
+    }
+
+    @Test
+    public void sliding() {
+        WindowAggregator<Object, Trade> agg = create(Window.sliding(10L, 5L));
+        agg.accept(entry(new Trade(1L, 1d), 2L));
+        agg.accept(entry(new Trade(1L, 2d), 7L));
+        agg.accept(entry(new Trade(1L, 3d), 12L)); //closes [-5, 5) and [0, 10)
+        assertEquals(2, closed.size());
+        assertWindow(closed.get(0), 1L, -5L, 5L, 1L, 1d, 1d, 1d, 1d);
+        assertWindow(closed.get(1), 1L, 0L, 10L, 2L, 3d, 1d, 2d, 2d);
+        agg.advanceTo(100L);
+        assertEquals(4, closed.size());
+        assertWindow(closed.get(2), 1L, 5L, 15L, 2L, 5d, 2d, 3d, 6d);
+        assertWindow(closed.get(3), 1L, 10L, 20L, 1L, 3d, 3d, 3d, 3d);
+        agg.accept(entry(new Trade(1L, 4d), 103L)); //stale panes are not included
+        agg.flush();
+        assertEquals(6, closed.size());
+        assertWindow(closed.get(4), 1L, 95L, 105L, 1L, 4d, 4d, 4d, 4d);
+        assertWindow(closed.get(5), 1L, 100L, 110L, 1L, 4d, 4d, 4d, 4d);
+    }
+
+    @Test
+    public void session() {
+        WindowAggregator<Object, Trade> agg = create(Window.session(5L));
+        agg.accept(entry(new Trade(1L, 1d), 0L));
+        agg.accept(entry(new Trade(2L, 2d), 2L));
+        agg.accept(entry(new Trade(1L, 3d), 4L));
+        agg.accept(entry(new Trade(2L, 4d), 7L)); //closes key 2 [2, 7)
+        assertEquals(1, closed.size());
+        assertWindow(closed.get(0), 2L, 2L, 7L, 1L, 2d, 2d, 2d, 2d);
+        agg.advanceTo(8L);
+        assertEquals(1, closed.size());
+        agg.advanceTo(9L);
+        assertEquals(2, closed.size());
+        assertWindow(closed.get(1), 1L, 0L, 9L, 2L, 4d, 1d, 3d, 3d);
+        agg.flush();
+        assertEquals(3, closed.size());
+        assertWindow(closed.get(2), 2L, 7L, 12L, 1L, 4d, 4d, 4d, 4d);
+    }
+
+    @Test
+    public void dropLate() {
+        WindowAggregator<Object, Trade> agg = create(Window.tumbling(10L));
+        agg.advanceTo(15L);
+        agg.accept(entry(new Trade(1L, 1d), 12L));
+        agg.accept(entry(new Trade(1L, 1d), 15L));
+        assertEquals(1L, agg.getLateCount());
+        agg.flush();
+        assertEquals(1, closed.size());
+        assertWindow(closed.get(0), 1L, 10L, 20L, 1L, 1d, 1d, 1d, 1d);
+    }
+
+    @Test
+    public void manyKeys() {
+        WindowAggregator<Object, Trade> agg = create(Window.sliding(4L, 2L));
+        for (long k = 0; k < 1000; k++) {
+            agg.accept(entry(new Trade(k, k), 1L));
+        }
+        agg.flush();
+        assertEquals(2000, closed.size());
+        for (int i = 0; i < 1000; i++) {
+            assertWindow(closed.get(i), i, -2L, 2L, 1L, i, i, i, i);
+        }
+    }
+
+    @Test
+    public void closeDuringSilence() {
+        ZipFlow<Object> zipFlow = ZiploqFactory.create(10L, Comparator.comparing(Object::hashCode));
+        FlowConsumer<Object> c1 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C1");
+        FlowConsumer<Object> c2 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C2");
+        WindowAggregator<Object, Trade> agg = create(Window.tumbling(100L));
+
+        c1.onEvent(new Trade(1L, 1d), 1_050L, 1_000L);
+        c1.updateSystemTime(1_040L);
+        c2.updateSystemTime(1_040L);
+        agg.accept(zipFlow.poll());
+        assertNull(zipFlow.poll());
+        agg.advanceTo(zipFlow.getBusinessWatermark());
+        assertTrue(closed.isEmpty());
+
+        //both sources silent; system time progress alone closes the window
+        c1.updateSystemTime(1_110L);
+        c2.updateSystemTime(1_110L);
+        assertNull(zipFlow.poll());
+        assertEquals(1_100L, zipFlow.getBusinessWatermark(LongUnaryOperator.identity()));
+        agg.advanceTo(zipFlow.getBusinessWatermark(LongUnaryOperator.identity()));
+        assertEquals(1, closed.size());
+        assertWindow(closed.get(0), 1L, 1_000L, 1_100L, 1L, 1d, 1d, 1d, 1d);
+    }
+
+    @Test
+    public void businessTimeOffsetFromSystemTime() {
+        long offset = 1_000_000L; //replaying history
+        ZipFlow<Object> zipFlow = ZiploqFactory.create(10L, Comparator.comparing(Object::hashCode));
+        FlowConsumer<Object> c1 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C1");
+        FlowConsumer<Object> c2 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C2");
+        WindowAggregator<Object, Trade> agg = create(Window.tumbling(100L));
+
+        c1.onEvent(new Trade(1L, 1d), 1_050L, 1_000L + offset);
+        c1.updateSystemTime(1_110L + offset);
+        c2.updateSystemTime(1_110L + offset);
+        agg.accept(zipFlow.poll());
+        assertNull(zipFlow.poll());
+
+        //system time doesn't bound business time unless mapped
+        assertEquals(Long.MIN_VALUE, zipFlow.getBusinessWatermark());
+        agg.advanceTo(zipFlow.getBusinessWatermark());
+        assertTrue(closed.isEmpty());
+
+        c2.onEvent(new Trade(1L, 2d), 1_060L, 1_110L + offset);
+        c1.updateSystemTime(1_200L + offset);
+        c2.updateSystemTime(1_200L + offset);
+        agg.accept(zipFlow.poll());
+        assertNull(zipFlow.poll());
+        assertEquals(1_190L, zipFlow.getBusinessWatermark(ts -> ts - offset));
+        agg.advanceTo(zipFlow.getBusinessWatermark(ts -> ts - offset));
+        assertEquals(0L, agg.getLateCount());
+        assertEquals(1, closed.size());
+        assertWindow(closed.get(0), 1L, 1_000L, 1_100L, 2L, 3d, 1d, 2d, 2d);
+    }
+
+    @Test
+    public void watermarkAfterPoll() {
+        ZipFlow<Object> zipFlow = ZiploqFactory.create(10L, Comparator.comparing(Object::hashCode));
+        FlowConsumer<Object> c1 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C1");
+        FlowConsumer<Object> c2 = zipFlow.registerOrdered(16, BackPressureStrategy.BLOCK, "C2");
+
+        c1.onEvent(new Trade(1L, 1d), 100L, 1_000L);
+        c2.advanceBusinessTime(200L);
+        assertEquals(100L, zipFlow.poll().getBusinessTs());
+
+        //C1 has not promised anything beyond its last message
+        assertEquals(Long.MIN_VALUE, zipFlow.getBusinessWatermark());
+        c1.onEvent(new Trade(1L, 2d), 150L, 1_000L);
+        assertEquals(150L, zipFlow.poll().getBusinessTs());
+
+        c1.advanceBusinessTime(180L);
+        assertEquals(180L, zipFlow.getBusinessWatermark());
+        c1.advanceBusinessTime(250L);
+        assertEquals(200L, zipFlow.getBusinessWatermark());
+    }
+
+    private static void assertWindow(double[] actual, long key, long start, long end,
+            long count, double sum, double min, double max, double reduced) {
+        assertEquals(key, (long) actual[0]);
+        assertEquals(start, (long) actual[1]);
+        assertEquals(end, (long) actual[2]);
+        assertEquals(count, (long) actual[3]);
+        assertEquals(sum, actual[4], 0d);
+        assertEquals(min, actual[5], 0d);
+        assertEquals(max, actual[6], 0d);
+        assertEquals(reduced, actual[7], 0d);
+    }
+
+}
@@ -42,6 +42,12 @@ public class ZiploqImplTest {
         return new AsyncTestThread(() -> takeAndVerify(ziploq, expected));
     }
     
+    private static void updateSystemTime(long systemTs, FlowConsumer<?>... consumers) {
+        for (FlowConsumer<?> c : consumers) {
+            c.updateSystemTime(systemTs);
+        }
+    }
+    
     //  A very crude approach to make sure the test thread has come to a blocking state.
     //  Simply sleeps and awakes 100 times (to mess with OS thread scheduling)
     //  and then checks that the test task is still running
@@ -602,7 +608,156 @@ public class ZiploqImplTest {
         verify(e8, ziploq.poll());
         assertNull(ziploq.poll());
     }
-    
+
+    @Test(expected = IllegalArgumentException.class)
+    public void heartbeatCoalescingIncorrectParameter() {
+        ZiploqFactory.create(100L, 1.0, null);
+    }
+
+    @Test
+    public void heartbeatCoalescing() {
+        long delay = 10L;
+
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(delay, 0.5, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        consumer2.updateSystemTime(ZERO + 10*delay);
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+        consumer1.updateSystemTime(ZERO + 8);  //published
+        assertNull(ziploq.poll());
+        consumer1.updateSystemTime(ZERO + 12); //coalesced
+        assertNull(ziploq.poll());
+        consumer1.updateSystemTime(ZERO + 14); //published
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test
+    public void heartbeatCoalescingPromotion() {
+        long delay = 10L;
+
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(delay, 0.9, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerUnordered(
+                delay, 5, BackPressureStrategy.BLOCK, TEST_SOURCE, null);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        consumer2.updateSystemTime(ZERO + 10*delay);
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1, ZERO + 1);
+        consume(consumer1, OBJECT_2, TS_1 + 5, ZERO + 9);
+        assertNull(ziploq.poll());
+        consumer1.updateSystemTime(ZERO + 12); //published since e1 is promoted
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void perSourceSystemDelayIncorrectParameter() {
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, COMPARATOR);
+        ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE, 0L);
+    }
+
+    @Test
+    public void perSourceSystemDelay() {
+        long slowDelay = 100L;
+        long fastDelay = 5L;
+
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(slowDelay, COMPARATOR);
+        FlowConsumer<MsgObject> fast = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE, fastDelay);
+        FlowConsumer<MsgObject> slow = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        //fast message waits for the delay of the silent slow source
+        TestEntry e1 = consume(fast, OBJECT_1, TS_1 + 1, ZERO + 1);
+        updateSystemTime(ZERO + 2 + fastDelay, fast, slow);
+        assertNull(ziploq.poll());
+
+        //earlier slow message arriving within the slow delay is emitted first
+        TestEntry e2 = consume(slow, OBJECT_2, TS_1, ZERO + 50);
+        verify(e2, ziploq.poll());
+        assertNull(ziploq.poll());
+        updateSystemTime(ZERO + 1 + slowDelay, fast, slow);
+        assertNull(ziploq.poll());
+        updateSystemTime(ZERO + 2 + slowDelay, fast, slow);
+        verify(e1, ziploq.poll());
+
+        //slow message waits for its own delay
+        TestEntry e3 = consume(slow, OBJECT_3, TS_1 + 2, ZERO + 110);
+        updateSystemTime(ZERO + 110 + slowDelay, fast, slow);
+        assertNull(ziploq.poll());
+        updateSystemTime(ZERO + 111 + slowDelay, fast, slow);
+        verify(e3, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test
+    public void perSourceSystemClock() {
+        long slowDelay = 100L;
+        long fastDelay = 5L;
+
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(slowDelay, COMPARATOR);
+        FlowConsumer<MsgObject> fast1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE, fastDelay);
+        FlowConsumer<MsgObject> fast2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE, fastDelay);
+        FlowConsumer<MsgObject> slow = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        //slow source holds a later message; its lagging clock doesn't hold back the fast message
+        TestEntry e1 = consume(fast1, OBJECT_1, TS_1, ZERO + 1);
+        TestEntry e2 = consume(slow, OBJECT_2, TS_1 + 1, ZERO + 1);
+        updateSystemTime(ZERO + 1 + fastDelay, fast1, fast2);
+        assertNull(ziploq.poll());
+        updateSystemTime(ZERO + 2 + fastDelay, fast1, fast2);
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll()); //slow message waits for its own clock
+        updateSystemTime(ZERO + 2 + slowDelay, fast1, fast2, slow);
+        verify(e2, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test
+    public void advanceBusinessTimeOrdered() {
+        Ziploq<MsgObject> ziploq = ZiploqFactory.create(COMPARATOR);
+        SynchronizedConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        SynchronizedConsumer<MsgObject> consumer2 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1);
+        TestEntry e2 = consume(consumer1, OBJECT_2, TS_1 + 1);
+        TestEntry e3 = consume(consumer1, OBJECT_3, TS_1 + 2);
+        assertNull(ziploq.poll()); //awaiting c2
+
+        consumer2.advanceBusinessTime(TS_1 + 2);
+        verify(e1, ziploq.poll());
+        verify(e2, ziploq.poll());
+        assertNull(ziploq.poll()); //c2 may still provide messages at TS_1 + 2
+
+        TestEntry e4 = consume(consumer2, OBJECT_1, TS_1 + 2);
+        verify(e4, ziploq.poll());
+        assertNull(ziploq.poll());
+
+        consumer2.advanceBusinessTime(TS_1 + 3);
+        verify(e3, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
+    @Test
+    public void advanceBusinessTimeUnordered() {
+        //no system time progress
+        ZipFlow<MsgObject> ziploq = ZiploqFactory.create(100L, COMPARATOR);
+        FlowConsumer<MsgObject> consumer1 = ziploq.registerOrdered(5, BackPressureStrategy.BLOCK, TEST_SOURCE);
+        FlowConsumer<MsgObject> consumer2 = ziploq.registerUnordered(
+                100L, 5, BackPressureStrategy.BLOCK, TEST_SOURCE, null);
+
+        TestEntry e1 = consume(consumer1, OBJECT_1, TS_1 + 6, ZERO);
+        TestEntry e2 = consume(consumer2, OBJECT_2, TS_1 + 4, ZERO); //held
+        assertNull(ziploq.poll());
+
+        consumer2.advanceBusinessTime(TS_1 + 5); //releases e2
+        verify(e2, ziploq.poll());
+        assertNull(ziploq.poll());
+
+        consumer2.advanceBusinessTime(TS_1 + 7);
+        verify(e1, ziploq.poll());
+        assertNull(ziploq.poll());
+    }
+
     @Test(timeout=10_000)
     public void streamFromDatasets() {
         